@@ -0,0 +1,81 @@
+package com.smartentrance.backend.caching;
+
+import com.smartentrance.backend.security.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers conditional GETs of {@link BuildingVersioned} endpoints from the in-memory building version.
+ * <p>
+ * The ETag combines the building version, the caller (visibility and "my vote" differ per user) and the current
+ * minute, since poll and notice status also move with the clock without any write.
+ */
+@Component
+@RequiredArgsConstructor
+public class BuildingVersionInterceptor implements HandlerInterceptor {
+
+    private static final String BUILDING_ID = "buildingId";
+    private static final long CLOCK_STEP_MILLIS = 60_000;
+    private static final String REVALIDATE_CACHE = "private, no-cache";
+
+    private final BuildingVersions buildingVersions;
+    private final Map<Method, Boolean> versionedRoutes = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        if (!versionedRoutes.computeIfAbsent(handlerMethod.getMethod(), method -> method.isAnnotationPresent(BuildingVersioned.class))) {
+            return true;
+        }
+
+        Integer buildingId = buildingId(request);
+        Long userId = currentUserId();
+        if (buildingId == null || userId == null) {
+            return true;
+        }
+
+        String etag = "W/\"" + Integer.toHexString(buildingId)
+                + "-" + Long.toHexString(buildingVersions.current(buildingId))
+                + "-" + Long.toHexString(userId)
+                + "-" + Long.toHexString(System.currentTimeMillis() / CLOCK_STEP_MILLIS) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE);
+        // Sets the ETag and answers 304 itself when the client copy is current
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Integer buildingId(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = variables != null ? variables.get(BUILDING_ID) : null;
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.user().getId();
+        }
+        return null;
+    }
+}
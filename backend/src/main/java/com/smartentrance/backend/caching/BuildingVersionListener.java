@@ -0,0 +1,45 @@
+package com.smartentrance.backend.caching;
+
+import com.smartentrance.backend.model.*;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on the entities shown in building lists: every write through Hibernate bumps the building's
+ * version, so services do not need to remember to. Bulk JPQL updates bypass it and bump explicitly.
+ */
+@Component
+public class BuildingVersionListener {
+
+    private final BuildingVersions buildingVersions;
+
+    public BuildingVersionListener(@Lazy BuildingVersions buildingVersions) {
+        this.buildingVersions = buildingVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        buildingVersions.bump(buildingIdOf(entity));
+    }
+
+    private static Integer buildingIdOf(Object entity) {
+        return switch (entity) {
+            case Notice notice -> idOf(notice.getBuilding());
+            case BuildingDocument document -> idOf(document.getBuilding());
+            case VotesPoll poll -> idOf(poll.getBuilding());
+            case PollResult result -> result.getBuildingId();
+            case Unit unit -> idOf(unit.getBuilding());
+            case Transaction transaction -> transaction.getUnit() != null ? idOf(transaction.getUnit().getBuilding()) : null;
+            default -> null;
+        };
+    }
+
+    private static Integer idOf(Building building) {
+        return building != null ? building.getId() : null;
+    }
+}
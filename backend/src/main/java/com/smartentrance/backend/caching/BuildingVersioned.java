@@ -0,0 +1,16 @@
+package com.smartentrance.backend.caching;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET endpoint whose response depends only on one building's data, taken from the {@code buildingId}
+ * path variable. It gets a weak ETag from {@link BuildingVersions} and is answered with 304 while the building
+ * is unchanged, before the handler or any query runs.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BuildingVersioned {
+}
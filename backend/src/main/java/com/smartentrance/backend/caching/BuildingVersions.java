@@ -0,0 +1,51 @@
+package com.smartentrance.backend.caching;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A per-building counter that moves forward whenever notices, documents, polls, votes, units or transactions
+ * of the building change.
+ * <p>
+ * Counters start at the boot time in milliseconds, so versions handed out before a restart never match again.
+ * They live in memory: with several instances behind a load balancer each one would have to see every write.
+ */
+@Component
+public class BuildingVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long current(Integer buildingId) {
+        AtomicLong version = versions.get(buildingId);
+        return version != null ? version.get() : epoch;
+    }
+
+    /**
+     * Moves the building to a new version once the surrounding transaction commits, or right away without one.
+     * Bumping before the commit would let a reader tag the old data with the new version.
+     */
+    public void bump(Integer buildingId) {
+        if (buildingId == null) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(buildingId);
+                }
+            });
+        } else {
+            increment(buildingId);
+        }
+    }
+
+    private void increment(Integer buildingId) {
+        versions.computeIfAbsent(buildingId, id -> new AtomicLong(epoch)).incrementAndGet();
+    }
+}
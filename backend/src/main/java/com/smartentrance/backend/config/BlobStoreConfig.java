@@ -0,0 +1,21 @@
+package com.smartentrance.backend.config;
+
+import com.smartentrance.backend.storage.BlobStore;
+import com.smartentrance.backend.storage.LocalBlobStore;
+import com.smartentrance.backend.storage.S3BlobStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class BlobStoreConfig {
+
+    @Bean
+    public BlobStore blobStore(FileStorageProperties fileStorageProperties) {
+        return switch (fileStorageProperties.getStorage()) {
+            case LOCAL -> new LocalBlobStore(Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize());
+            case S3 -> new S3BlobStore(fileStorageProperties.getS3());
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartentrance.backend.config;
+
+import com.smartentrance.backend.security.CodeLookupGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CodeFilterLoader implements CommandLineRunner {
+
+    private final CodeLookupGuard codeLookupGuard;
+
+    @Override
+    public void run(String... args) {
+        codeLookupGuard.rebuild();
+
+        System.out.println("✅ Access and invitation code filters loaded");
+    }
+}
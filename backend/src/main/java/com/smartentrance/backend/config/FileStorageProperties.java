@@ -2,11 +2,67 @@ package com.smartentrance.backend.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import lombok.Data;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "file")
 @Data
 public class FileStorageProperties {
     private String uploadDir;
-}
\ No newline at end of file
+    private DataSize maxFileSize = DataSize.ofMegabytes(10);
+    private DataSize minFreeSpace = DataSize.ofMegabytes(500);
+    private boolean cleanupDryRun = false;
+    private Pack pack = new Pack();
+    private Storage storage = Storage.LOCAL;
+    private S3 s3 = new S3();
+    private TextExtraction textExtraction = new TextExtraction();
+
+    public enum Storage {
+        LOCAL,
+        S3
+    }
+
+    @Data
+    public static class Pack {
+        // Blobs neither created nor read for this long are moved into pack segments
+        private Duration coldAfter = Duration.ofDays(180);
+        // Only small files are packed; large ones gain nothing and would bloat the segments
+        private DataSize maxBlobSize = DataSize.ofMegabytes(1);
+        // Kept below 2 GB so a whole segment fits in one memory mapping
+        private DataSize segmentSize = DataSize.ofGigabytes(1);
+    }
+
+    @Data
+    public static class S3 {
+        private String endpoint;
+        private String region = "us-east-1";
+        private String bucket;
+        // Optional key prefix, so several environments can share a bucket
+        private String prefix = "";
+        private String accessKey;
+        private String secretKey;
+        // Files above this size are uploaded in parts of this size, several at once
+        private DataSize partSize = DataSize.ofMegabytes(8);
+        // Upper bound on requests in flight, and so on open connections to the store
+        private int maxConnections = 16;
+        private Duration requestTimeout = Duration.ofMinutes(2);
+    }
+
+    @Data
+    public static class TextExtraction {
+        // Background threads extracting document text (each with one parser thread), and how many documents
+        // may wait for them; documents that do not fit are picked up again by the periodic backlog sweep
+        private int workers = 2;
+        private int queueCapacity = 200;
+        // Larger files are not extracted at all
+        private DataSize maxFileSize = DataSize.ofMegabytes(25);
+        // Extraction stops at the first page boundary past this and keeps the text read so far;
+        // a file still parsing at twice this is abandoned and recorded as failed
+        private Duration timeout = Duration.ofSeconds(30);
+        private int maxPages = 300;
+        private int maxChars = 200_000;
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartentrance.backend.config;
+
+import com.smartentrance.backend.service.ContentAddressedStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts moving files from the old flat upload directory into the content store.
+ * Runs in the background; files not yet moved are still served from their old path.
+ */
+@Component
+@RequiredArgsConstructor
+public class LegacyFileMigrationLoader implements CommandLineRunner {
+
+    private final ContentAddressedStore contentStore;
+
+    @Override
+    public void run(String... args) {
+        contentStore.migrateLegacyFiles();
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartentrance.backend.config;
+
+import com.smartentrance.backend.service.PollService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconciles the per-option vote counters with the votes table once at startup,
+ * in case votes were written outside {@code PollService.castVote}.
+ */
+@Component
+@RequiredArgsConstructor
+public class VoteCountLoader implements CommandLineRunner {
+
+    private final PollService pollService;
+
+    @Override
+    public void run(String... args) {
+        pollService.rebuildVoteCounts(null);
+    }
+}
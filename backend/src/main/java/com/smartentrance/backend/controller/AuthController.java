@@ -4,6 +4,8 @@ import com.smartentrance.backend.dto.auth.LoginRequest;
 import com.smartentrance.backend.dto.auth.LoginResponse;
 import com.smartentrance.backend.dto.user.UserRegisterRequest;
 import com.smartentrance.backend.dto.user.UserResponse;
+import com.smartentrance.backend.ratelimit.RateLimit;
+import com.smartentrance.backend.ratelimit.RateLimitKey;
 import com.smartentrance.backend.security.JwtService;
 import com.smartentrance.backend.service.AuthenticationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -26,6 +29,7 @@ public class AuthController {
 
     @Operation(summary = "Register User", description = "Creates a new user account with email and password and logs them in")
     @PostMapping("/register")
+    @RateLimit(capacity = 5, period = 1, unit = TimeUnit.MINUTES, key = RateLimitKey.IP)
     public ResponseEntity<UserResponse> register(@Valid @RequestBody UserRegisterRequest request) {
         LoginResponse loginResponse = authService.register(request);
 
@@ -38,6 +42,7 @@ public class AuthController {
 
     @Operation(summary = "Login", description = "Authenticates a user and sets a secure HttpOnly session cookie.")
     @PostMapping("/login")
+    @RateLimit(capacity = 10, period = 1, unit = TimeUnit.MINUTES, key = RateLimitKey.IP)
     public ResponseEntity<UserResponse> login(@Valid @RequestBody LoginRequest request) {
         LoginResponse loginResponse = authService.login(request);
 
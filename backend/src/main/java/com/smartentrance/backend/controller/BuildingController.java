@@ -1,16 +1,27 @@
 package com.smartentrance.backend.controller;
 
+import com.smartentrance.backend.caching.BuildingVersioned;
+import com.smartentrance.backend.dto.activity.ActivityItem;
 import com.smartentrance.backend.dto.building.*;
+import com.smartentrance.backend.dto.common.CursorPage;
+import com.smartentrance.backend.dto.search.SearchHit;
+import com.smartentrance.backend.ratelimit.RateLimit;
 import com.smartentrance.backend.security.UserPrincipal;
+import com.smartentrance.backend.service.ActivityFeedService;
 import com.smartentrance.backend.service.BuildingService;
+import com.smartentrance.backend.service.PortfolioImportService;
+import com.smartentrance.backend.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/buildings")
@@ -18,6 +29,9 @@ import java.util.List;
 public class BuildingController {
 
     private final BuildingService buildingService;
+    private final PortfolioImportService portfolioImportService;
+    private final ActivityFeedService activityFeedService;
+    private final SearchService searchService;
 
     @Operation(summary = "Create Building", description = "Registers a new condominium in the system. The creator automatically becomes the Manager.")
     @PostMapping
@@ -28,12 +42,62 @@ public class BuildingController {
         return ResponseEntity.ok(buildingService.createBuildingWithSkeleton(request, principal.user()));
     }
 
+    @Operation(summary = "Import Portfolio", description = "Starts a background import of buildings and units from a CSV export. Columns: building_name, address, google_place_id, entrance, iban, unit_number, area, residents_count.")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @RateLimit(capacity = 2, period = 1, unit = TimeUnit.MINUTES)
+    public ResponseEntity<PortfolioImportResponse> importPortfolio(
+            @RequestPart("file") MultipartFile file,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return ResponseEntity.accepted().body(portfolioImportService.startImport(file, principal.user()));
+    }
+
+    @Operation(summary = "Get Import Progress", description = "Returns progress and row errors of a portfolio import started by the current user.")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<PortfolioImportResponse> getImportStatus(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return ResponseEntity.ok(portfolioImportService.getImportStatus(jobId, principal.user()));
+    }
+
     @Operation(summary = "Get Managed Buildings", description = "Returns a list of buildings where the current user is the manager.")
     @GetMapping("/managed")
     public ResponseEntity<List<BuildingResponse>> getMyManagedBuildings(@AuthenticationPrincipal UserPrincipal principal) {
         return ResponseEntity.ok(buildingService.getManagedBuildings(principal.user()));
     }
 
+    @Operation(summary = "Get Activity Feed", description = "Notices, polls, documents and transactions of the building merged newest first, limited to what the current user may see. Pass the returned nextCursor to fetch the following page.")
+    @BuildingVersioned
+    @GetMapping("/{buildingId}/activity")
+    public ResponseEntity<CursorPage<ActivityItem>> getActivityFeed(
+            @PathVariable Integer buildingId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return ResponseEntity.ok(activityFeedService.getFeed(buildingId, cursor, limit, principal.user()));
+    }
+
+    @Operation(summary = "Search Building", description = "Full-text search over the titles and texts of the building's notices and documents, best match first. The last word also matches as a prefix.")
+    @BuildingVersioned
+    @GetMapping("/{buildingId}/search")
+    public ResponseEntity<List<SearchHit>> search(
+            @PathVariable Integer buildingId,
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return ResponseEntity.ok(searchService.search(buildingId, q, limit, principal.user()));
+    }
+
+    @Operation(summary = "Rebuild Search Index", description = "Drops the building's search index; the next search reads it afresh from the database.")
+    @PostMapping("/{buildingId}/search/rebuild")
+    public ResponseEntity<Void> rebuildSearchIndex(@PathVariable Integer buildingId) {
+        searchService.rebuildIndex(buildingId);
+        return ResponseEntity.ok().build();
+    }
+
     @Operation(summary = "Get Budget Config", description = "Retrieves the current repair and maintenance fund targets.")
     @GetMapping("/{buildingId}/budget")
     public ResponseEntity<UpdateBudgetRequest> getBudgets(@PathVariable Integer buildingId) {
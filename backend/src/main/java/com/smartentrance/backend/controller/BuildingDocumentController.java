@@ -1,5 +1,6 @@
 package com.smartentrance.backend.controller;
 
+import com.smartentrance.backend.caching.BuildingVersioned;
 import com.smartentrance.backend.dto.document.CreateDocumentRequest;
 import com.smartentrance.backend.dto.document.DocumentResponse;
 import com.smartentrance.backend.model.enums.DocumentType;
@@ -21,6 +22,7 @@ public class BuildingDocumentController {
     private final BuildingDocumentService documentService;
 
     @Operation(summary = "List Documents", description = "Retrieves official building documents. Results are filtered based on user permissions and document type.")
+    @BuildingVersioned
     @GetMapping
     public ResponseEntity<List<DocumentResponse>> getDocuments(
             @PathVariable Integer buildingId,
@@ -1,16 +1,17 @@
 package com.smartentrance.backend.controller;
 
-import com.smartentrance.backend.security.UserPrincipal;
+import com.smartentrance.backend.dto.file.StoredUpload;
+import com.smartentrance.backend.model.enums.FileVariant;
+import com.smartentrance.backend.ratelimit.RateLimit;
+import com.smartentrance.backend.service.FileDownloadService;
 import com.smartentrance.backend.service.FileStorageService;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -24,44 +25,36 @@ import java.util.Map;
 public class FileController {
 
     private final FileStorageService fileStorageService;
+    private final FileDownloadService fileDownloadService;
 
     @Operation(summary = "Upload File", description = "Uploads a file (PDF, Image) to server storage and returns a reference URL.")
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file, @AuthenticationPrincipal UserPrincipal principal) {
+    @RateLimit(capacity = 1, period = 10)
+    public ResponseEntity<Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file) {
 
-        String fileName = fileStorageService.storeFile(file, principal.user());
+        StoredUpload upload = fileStorageService.storeUpload(file);
 
         String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path("/api/uploads/files/")
-                .path(fileName)
+                .path(upload.fileName())
                 .toUriString();
 
-        String contentType = file.getContentType();
-        if (contentType == null) contentType = "application/octet-stream";
-
         return ResponseEntity.ok(Map.of(
-                "fileName", fileName,
+                "fileName", upload.fileName(),
                 "url", fileDownloadUri,
-                "type", contentType,
-                "size", String.valueOf(file.getSize())
+                "type", upload.contentType(),
+                "size", String.valueOf(upload.size()),
+                "sha256", upload.sha256()
         ));
     }
 
-    @Operation(summary = "Download File", description = "Streams the file content securely if the user has access.")
+    @Operation(summary = "Download File", description = "Streams the file content securely if the user has access. Supports single byte ranges and conditional requests; variant=thumb returns a small JPEG for images and the first page for PDFs.")
     @GetMapping("/files/{fileName:.+}")
     @Hidden
-    public ResponseEntity<Resource> downloadFile(@PathVariable String fileName, HttpServletRequest request) throws IOException {
-        Resource resource = fileStorageService.loadFileAsResource(fileName);
-
-        String contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-
-        if(contentType == null) {
-            contentType = "application/octet-stream";
-        }
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+    public void downloadFile(@PathVariable String fileName,
+                             @RequestParam(defaultValue = "original") String variant,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        fileDownloadService.serve(fileName, FileVariant.from(variant), request, response);
     }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.smartentrance.backend.controller;
 import com.smartentrance.backend.dto.invitation.CreateInvitationRequest;
 import com.smartentrance.backend.dto.invitation.InvitationResponse;
 import com.smartentrance.backend.dto.invitation.ValidateInvitationRequest;
+import com.smartentrance.backend.ratelimit.RateLimit;
+import com.smartentrance.backend.ratelimit.RateLimitKey;
 import com.smartentrance.backend.security.UserPrincipal;
 import com.smartentrance.backend.service.InvitationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +15,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/invitations")
@@ -30,6 +33,7 @@ public class InvitationController {
 
     @Operation(summary = "Validate Invitation", description = "Validates an invitation code and email. Returns invitation details if valid.")
     @PostMapping("/validate")
+    @RateLimit(capacity = 20, period = 1, unit = TimeUnit.MINUTES, key = RateLimitKey.IP)
     public ResponseEntity<InvitationResponse> validateInvitation(@Valid @RequestBody ValidateInvitationRequest request) {
         return ResponseEntity.ok(invitationService.validateInvitation(request.invitationCode(), request.email()));
     }
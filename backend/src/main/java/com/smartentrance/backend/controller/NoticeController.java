@@ -1,9 +1,13 @@
 package com.smartentrance.backend.controller;
 
+import com.smartentrance.backend.caching.BuildingVersioned;
+import com.smartentrance.backend.dto.common.CursorPage;
 import com.smartentrance.backend.dto.enums.FilterType;
 import com.smartentrance.backend.dto.notice.NoticeCreateRequest;
 import com.smartentrance.backend.dto.notice.NoticeResponse;
+import com.smartentrance.backend.dto.notice.NoticeSummary;
 import com.smartentrance.backend.dto.notice.NoticeUpdateRequest;
+import com.smartentrance.backend.ratelimit.RateLimit;
 import com.smartentrance.backend.security.UserPrincipal;
 import com.smartentrance.backend.service.NoticeService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,6 +42,7 @@ public class NoticeController {
 
     @Operation(summary = "Create Notice (with Document)", description = "Publishes a new announcement with an optional document attachment.")
     @PostMapping(value = "/buildings/{buildingId}/notices", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @RateLimit(capacity = 1, period = 10, part = "documentFile")
     public ResponseEntity<NoticeResponse> createNoticeMultipart(
             @PathVariable Integer buildingId,
             @Valid @ModelAttribute NoticeCreateRequest request,
@@ -49,6 +54,7 @@ public class NoticeController {
     }
 
     @Operation(summary = "List Notices", description = "Retrieves a list of active or past notices for the building.")
+    @BuildingVersioned
     @GetMapping("/buildings/{buildingId}/notices")
     public ResponseEntity<List<NoticeResponse>> getNotices(
             @PathVariable Integer buildingId,
@@ -57,6 +63,24 @@ public class NoticeController {
         return ResponseEntity.ok(noticeService.getNotices(buildingId, type.orElse(FilterType.ALL)));
     }
 
+    @Operation(summary = "List Notice Summaries", description = "Cursor-paginated notice list without document details. Pass the returned nextCursor to fetch the following page.")
+    @BuildingVersioned
+    @GetMapping("/buildings/{buildingId}/notices/summary")
+    public ResponseEntity<CursorPage<NoticeSummary>> getNoticeSummaries(
+            @PathVariable Integer buildingId,
+            @RequestParam Optional<FilterType> type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(noticeService.getNoticeSummaries(buildingId, type.orElse(FilterType.ALL), cursor, limit));
+    }
+
+    @Operation(summary = "Get Notice Details", description = "Returns a single notice including its attached document.")
+    @GetMapping("/notices/{noticeId}")
+    public ResponseEntity<NoticeResponse> getNotice(@PathVariable Integer noticeId) {
+        return ResponseEntity.ok(noticeService.getNotice(noticeId));
+    }
+
     @Operation(summary = "Delete Notice", description = "Removes an announcement from the building board.")
     @DeleteMapping("/notices/{noticeId}")
     public ResponseEntity<Void> deleteNotice(@PathVariable Integer noticeId,
@@ -1,15 +1,20 @@
 package com.smartentrance.backend.controller;
 
+import com.smartentrance.backend.caching.BuildingVersioned;
+import com.smartentrance.backend.dto.common.CursorPage;
 import com.smartentrance.backend.dto.enums.FilterType;
 import com.smartentrance.backend.dto.poll.*;
 import com.smartentrance.backend.security.UserPrincipal;
 import com.smartentrance.backend.service.PollService;
+import com.smartentrance.backend.service.PollTallyService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,8 +25,10 @@ import java.util.Optional;
 public class PollController {
 
     private final PollService pollService;
+    private final PollTallyService pollTallyService;
 
     @Operation(summary = "List Polls", description = "Retrieves all voting polls for the building, filterable by status (Active/History).")
+    @BuildingVersioned
     @GetMapping("/buildings/{buildingId}/polls")
     public ResponseEntity<List<PollResponse>> getPolls(
             @PathVariable Integer buildingId,
@@ -31,6 +38,18 @@ public class PollController {
         return ResponseEntity.ok(pollService.getPolls(buildingId, type.orElse(FilterType.ALL), userPrincipal.user()));
     }
 
+    @Operation(summary = "List Poll Summaries", description = "Cursor-paginated poll list with counts only. Pass the returned nextCursor to fetch the following page.")
+    @BuildingVersioned
+    @GetMapping("/buildings/{buildingId}/polls/summary")
+    public ResponseEntity<CursorPage<PollSummary>> getPollSummaries(
+            @PathVariable Integer buildingId,
+            @RequestParam Optional<FilterType> type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(pollService.getPollSummaries(buildingId, type.orElse(FilterType.ALL), cursor, limit));
+    }
+
     @Operation(summary = "Get Poll Details", description = "Returns detailed information about a specific poll, including options and current results.")
     @GetMapping("/polls/{pollId}")
     public ResponseEntity<PollResponse> getPoll(
@@ -40,6 +59,12 @@ public class PollController {
         return ResponseEntity.ok(pollService.getPollById(pollId, userPrincipal.user()));
     }
 
+    @Operation(summary = "Stream Poll Results", description = "Server-sent events with live vote counts while the poll is running. An update is pushed at most once per second.")
+    @GetMapping(value = "/polls/{pollId}/tally/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTally(@PathVariable Integer pollId) {
+        return pollTallyService.subscribe(pollId);
+    }
+
     @Operation(summary = "Create Poll", description = "Creates a new voting poll for residents with multiple options.")
     @PostMapping("/buildings/{buildingId}/polls")
     public ResponseEntity<PollResponse> createPoll(
@@ -1,8 +1,10 @@
 package com.smartentrance.backend.controller;
 
+import com.smartentrance.backend.caching.BuildingVersioned;
 import com.smartentrance.backend.dto.finance.*;
 import com.smartentrance.backend.dto.unit.*;
 import com.smartentrance.backend.model.enums.TransactionType;
+import com.smartentrance.backend.ratelimit.RateLimit;
 import com.smartentrance.backend.security.UserPrincipal;
 import com.smartentrance.backend.service.FinanceService;
 import com.smartentrance.backend.service.UnitService;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/units")
@@ -27,6 +30,7 @@ public class UnitController {
 
     @Operation(summary = "Join Unit", description = "Allows a user to join an apartment using a secure n-digit access code.")
     @PostMapping("/join")
+    @RateLimit(capacity = 10, period = 1, unit = TimeUnit.MINUTES)
     public ResponseEntity<UnitResponse> joinUnit(@Valid @RequestBody UnitJoinRequest request,
                                                  @AuthenticationPrincipal UserPrincipal principal) {
         return ResponseEntity.ok(unitService.joinUnit(request, principal.user()));
@@ -47,6 +51,7 @@ public class UnitController {
     }
 
     @Operation(summary = "Get Units by Building", description = "Lists all units in a specific building with their current balance (Manager only).")
+    @BuildingVersioned
     @GetMapping("/buildings/{buildingId}")
     public ResponseEntity<List<UnitResponse>> getUnitsByBuilding(@PathVariable Integer buildingId) {
         return ResponseEntity.ok(unitService.getUnitsByBuilding(buildingId));
@@ -0,0 +1,27 @@
+package com.smartentrance.backend.dto.activity;
+
+import com.smartentrance.backend.dto.enums.ActivityType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One entry of a building's activity feed. {@code detail} is the notice location, poll or document description;
+ * {@code amount} is only set for transactions.
+ */
+public record ActivityItem(
+        ActivityType type,
+        Long id,
+        Instant at,
+        String title,
+        String detail,
+        BigDecimal amount
+) {
+    public ActivityItem(ActivityType type, Long id, Instant at, String title, String detail) {
+        this(type, id, at, title, detail, null);
+    }
+
+    public ActivityItem(ActivityType type, Long id, Instant at, String title, BigDecimal amount) {
+        this(type, id, at, title, null, amount);
+    }
+}
@@ -18,7 +18,7 @@ public record BuildingCreateRequest(
         String name,
 
         @Min(value = 1, message = "The building must have at least one unit")
-        @Max(value = 100, message = "The building cannot have more than 100 units")
+        @Max(value = 500, message = "The building cannot have more than 500 units")
         Integer totalUnits,
 
         String iban
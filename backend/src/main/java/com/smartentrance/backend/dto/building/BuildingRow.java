@@ -0,0 +1,14 @@
+package com.smartentrance.backend.dto.building;
+
+/**
+ * A building as read for list views: the unit count is counted in the query, the manager is left to the mapper.
+ */
+public record BuildingRow(
+        Integer id,
+        String name,
+        String address,
+        String entrance,
+        long unitCount,
+        String iban,
+        Long managerId
+) {}
@@ -0,0 +1,22 @@
+package com.smartentrance.backend.dto.building;
+
+import com.smartentrance.backend.dto.enums.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+public record PortfolioImportResponse(
+        String jobId,
+        ImportJobStatus status,
+        long processedRows,
+        long createdBuildings,
+        long createdUnits,
+        long updatedUnits,
+        long failedRows,
+        List<RowError> errors,
+        String failureReason,
+        Instant startedAt,
+        Instant finishedAt
+) {
+    public record RowError(long line, String message) {}
+}
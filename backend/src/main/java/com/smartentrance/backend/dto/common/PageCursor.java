@@ -0,0 +1,41 @@
+package com.smartentrance.backend.dto.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page: its sort timestamp plus id as a tie-breaker.
+ * Clients treat the encoded form as opaque.
+ */
+public record PageCursor(
+        Instant at,
+        long id
+) {
+    // Stand-ins for "no cursor" so the keyset predicate stays a plain comparison
+    public static final PageCursor START_DESCENDING = new PageCursor(Instant.parse("9999-12-31T00:00:00Z"), Long.MAX_VALUE);
+    public static final PageCursor START_ASCENDING = new PageCursor(Instant.EPOCH, 0);
+
+    public String encode() {
+        // Full nanosecond precision, otherwise rows sharing the truncated timestamp would be skipped
+        String raw = at.getEpochSecond() + "." + at.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static PageCursor decode(String cursor, PageCursor start) {
+        if (cursor == null || cursor.isBlank()) {
+            return start;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int dot = raw.indexOf('.');
+            int separator = raw.indexOf(':');
+            return new PageCursor(
+                    Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)), Long.parseLong(raw.substring(dot + 1, separator))),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
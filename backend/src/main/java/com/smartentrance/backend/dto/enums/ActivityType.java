@@ -0,0 +1,11 @@
+package com.smartentrance.backend.dto.enums;
+
+/**
+ * Source of an activity feed entry. The declaration order breaks ties between entries with the same timestamp.
+ */
+public enum ActivityType {
+    NOTICE,
+    POLL,
+    DOCUMENT,
+    TRANSACTION
+}
@@ -0,0 +1,8 @@
+package com.smartentrance.backend.dto.enums;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,15 @@
+package com.smartentrance.backend.dto.file;
+
+import java.time.Instant;
+
+public record BlobRef(
+        String sha256,
+        long size,
+        Long packId,
+        Long packOffset,
+        Instant createdAt
+) {
+    public boolean packed() {
+        return packId != null;
+    }
+}
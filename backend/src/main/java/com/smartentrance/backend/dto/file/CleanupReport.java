@@ -0,0 +1,13 @@
+package com.smartentrance.backend.dto.file;
+
+public record CleanupReport(
+        boolean dryRun,
+        int referencedNames,
+        int releasedAliases,
+        int orphanedBlobs,
+        int orphanedDerivatives,
+        int orphanedLegacyFiles,
+        int stalePartials,
+        long reclaimedBytes,
+        long elapsedMillis
+) {}
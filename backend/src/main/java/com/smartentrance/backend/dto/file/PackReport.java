@@ -0,0 +1,8 @@
+package com.smartentrance.backend.dto.file;
+
+public record PackReport(
+        int packedBlobs,
+        long packedBytes,
+        int skipped,
+        long elapsedMillis
+) {}
@@ -0,0 +1,9 @@
+package com.smartentrance.backend.dto.file;
+
+import java.util.List;
+
+public record PackVerificationReport(
+        int checked,
+        List<String> corrupt,
+        long elapsedMillis
+) {}
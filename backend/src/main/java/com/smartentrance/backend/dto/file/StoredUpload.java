@@ -0,0 +1,8 @@
+package com.smartentrance.backend.dto.file;
+
+public record StoredUpload(
+        String fileName,
+        String contentType,
+        long size,
+        String sha256
+) {}
@@ -0,0 +1,21 @@
+package com.smartentrance.backend.dto.notice;
+
+import com.smartentrance.backend.model.enums.DocumentType;
+
+import java.time.Instant;
+
+/**
+ * A notice with its attached document flattened into one row; the document columns are null when there is none.
+ */
+public record NoticeRow(
+        Integer id,
+        Long createdByUserId,
+        String title,
+        String description,
+        String location,
+        Instant noticeDateTime,
+        Long documentId,
+        String documentTitle,
+        String documentFileUrl,
+        DocumentType documentType
+) {}
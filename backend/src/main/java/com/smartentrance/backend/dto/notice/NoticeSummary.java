@@ -0,0 +1,11 @@
+package com.smartentrance.backend.dto.notice;
+
+import java.time.Instant;
+
+public record NoticeSummary(
+        Integer id,
+        String title,
+        String location,
+        Instant noticeDateTime,
+        boolean hasDocument
+) {}
@@ -0,0 +1,6 @@
+package com.smartentrance.backend.dto.poll;
+
+public record CastBallot(
+        Long unitId,
+        Integer optionId
+) {}
@@ -0,0 +1,8 @@
+package com.smartentrance.backend.dto.poll;
+
+import java.math.BigDecimal;
+
+public record EligibleUnit(
+        Long unitId,
+        BigDecimal area
+) {}
@@ -0,0 +1,6 @@
+package com.smartentrance.backend.dto.poll;
+
+public record OptionVoteCount(
+        Integer optionId,
+        long voteCount
+) {}
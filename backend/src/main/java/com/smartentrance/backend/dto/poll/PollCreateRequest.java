@@ -1,5 +1,6 @@
 package com.smartentrance.backend.dto.poll;
 
+import com.smartentrance.backend.model.enums.PollWeighting;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -23,5 +24,8 @@ public record PollCreateRequest(
 
         @NotNull(message = "Options are required")
         @Size(min = 2, message = "At least two options are required")
-        List<String> options
+        List<String> options,
+
+        // Defaults to one vote per unit when omitted
+        PollWeighting weighting
 ) {}
\ No newline at end of file
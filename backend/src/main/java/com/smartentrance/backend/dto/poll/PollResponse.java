@@ -1,7 +1,9 @@
 package com.smartentrance.backend.dto.poll;
 
 import com.smartentrance.backend.dto.enums.PollStatus;
+import com.smartentrance.backend.model.enums.PollWeighting;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
@@ -13,10 +15,17 @@ public record PollResponse(
         Instant startAt,
         Instant endAt,
         PollStatus status,
+        PollWeighting weighting,
         Long totalVotes,
         Integer totalEligibleVoters,
+        BigDecimal totalWeightedVotes,
+        BigDecimal totalEligibleArea,
+        // Set once the poll has been finalized; null while results are still provisional
+        Boolean quorumReached,
+        Integer winningOptionId,
         Integer userVotedOptionId,
         List<PollOptionResponse> options
 ) {
-    public record PollOptionResponse(Integer id, String text, Long voteCount) {}
+    // weightedVotes is the area in m² behind the option, null unless the poll is weighted by area
+    public record PollOptionResponse(Integer id, String text, Long voteCount, BigDecimal weightedVotes) {}
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.smartentrance.backend.dto.poll;
+
+import com.smartentrance.backend.dto.enums.PollStatus;
+
+import java.time.Instant;
+
+public record PollSummary(
+        Integer id,
+        String title,
+        Instant createdAt,
+        Instant startAt,
+        Instant endAt,
+        PollStatus status,
+        Long totalVotes,
+        Integer totalEligibleVoters
+) {}
@@ -0,0 +1,11 @@
+package com.smartentrance.backend.dto.poll;
+
+import java.time.Instant;
+import java.util.List;
+
+public record PollTallyResponse(
+        Integer pollId,
+        long totalVotes,
+        List<OptionVoteCount> options,
+        Instant updatedAt
+) {}
@@ -0,0 +1,31 @@
+package com.smartentrance.backend.dto.poll;
+
+import java.time.Instant;
+
+/**
+ * Everything {@code castVote} needs to validate a ballot, read in one joined query.
+ * {@code optionId} is null when the requested option does not belong to the poll.
+ */
+public record VoteTarget(
+        Integer pollId,
+        Instant startAt,
+        Instant endAt,
+        Integer pollBuildingId,
+        Long unitId,
+        Integer unitNumber,
+        Integer unitBuildingId,
+        Long responsibleUserId,
+        boolean unitVerified,
+        Integer optionId
+) {
+    public boolean canBeCastBy(Long userId) {
+        return responsibleUserId != null
+                && responsibleUserId.equals(userId)
+                && unitBuildingId.equals(pollBuildingId)
+                && unitVerified;
+    }
+
+    public boolean isOpenAt(Instant now) {
+        return !now.isBefore(startAt) && !now.isAfter(endAt);
+    }
+}
@@ -0,0 +1,18 @@
+package com.smartentrance.backend.dto.search;
+
+import com.smartentrance.backend.dto.enums.ActivityType;
+
+import java.time.Instant;
+
+/**
+ * A notice or document matching a search, best first. {@code score} is the BM25 relevance and only
+ * comparable within one result list.
+ */
+public record SearchHit(
+        ActivityType type,
+        Long id,
+        String title,
+        Instant at,
+        double score
+) {
+}
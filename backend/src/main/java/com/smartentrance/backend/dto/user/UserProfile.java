@@ -0,0 +1,16 @@
+package com.smartentrance.backend.dto.user;
+
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.model.enums.UserRole;
+
+public record UserProfile(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        UserRole role
+) {
+    public static UserProfile of(User user) {
+        return new UserProfile(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getRole());
+    }
+}
@@ -2,12 +2,17 @@ package com.smartentrance.backend.mapper;
 
 import com.smartentrance.backend.dto.finance.BuildingExpenseResponse;
 import com.smartentrance.backend.model.BuildingExpense;
+import com.smartentrance.backend.security.SignedUrlService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class BuildingExpenseMapper {
 
+    private final SignedUrlService signedUrlService;
+
     @Value("${application.base-url}")
     private String baseUrl;
 
@@ -28,9 +33,24 @@ public class BuildingExpenseMapper {
         );
     }
 
+    /**
+     * Completes a row read by a projection query, whose document URL is still the stored value.
+     */
+    public BuildingExpenseResponse withDocumentUrl(BuildingExpenseResponse row) {
+        return new BuildingExpenseResponse(
+                row.id(),
+                row.amount(),
+                row.description(),
+                row.fundType(),
+                resolveDocumentUrl(row.documentUrl()),
+                row.expenseDate(),
+                row.createdBy()
+        );
+    }
+
     private String resolveDocumentUrl(String rawPath) {
         if (rawPath == null || rawPath.isBlank()) return null;
         if (rawPath.startsWith("http")) return rawPath;
-        return baseUrl + "/api/uploads/files/" + rawPath;
+        return baseUrl + signedUrlService.sign(rawPath);
     }
 }
\ No newline at end of file
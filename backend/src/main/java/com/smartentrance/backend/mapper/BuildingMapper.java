@@ -1,21 +1,28 @@
 package com.smartentrance.backend.mapper;
 
 import com.smartentrance.backend.dto.building.BuildingResponse;
+import com.smartentrance.backend.dto.building.BuildingRow;
+import com.smartentrance.backend.dto.user.UserProfile;
 import com.smartentrance.backend.model.Building;
-import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.service.UserLookup;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class BuildingMapper {
-    public BuildingResponse toResponse(Building building) {
+
+    private final UserLookup userLookup;
+
+    public BuildingResponse toResponse(BuildingRow row) {
         return new BuildingResponse(
-                building.getId(),
-                building.getName(),
-                building.getAddress(),
-                building.getEntrance(),
-                building.getUnits() != null ? building.getUnits().size() : 0,
-                building.getIban(),
-                mapToManagerInfo(building.getManager())
+                row.id(),
+                row.name(),
+                row.address(),
+                row.entrance(),
+                (int) row.unitCount(),
+                row.iban(),
+                mapToManagerInfo(row.managerId())
         );
     }
 
@@ -27,19 +34,20 @@ public class BuildingMapper {
                 building.getEntrance(),
                 totalUnits,
                 building.getIban(),
-                mapToManagerInfo(building.getManager())
+                mapToManagerInfo(building.getManager() != null ? building.getManager().getId() : null)
         );
     }
 
-    private BuildingResponse.ManagerInfo mapToManagerInfo(User manager) {
-        if (manager == null) {
+    private BuildingResponse.ManagerInfo mapToManagerInfo(Long managerId) {
+        if (managerId == null) {
             return null;
         }
+        UserProfile profile = userLookup.getProfile(managerId);
         return new BuildingResponse.ManagerInfo(
-                manager.getId(),
-                manager.getFirstName(),
-                manager.getLastName(),
-                manager.getEmail()
+                profile.id(),
+                profile.firstName(),
+                profile.lastName(),
+                profile.email()
         );
     }
 }
\ No newline at end of file
@@ -1,13 +1,19 @@
 package com.smartentrance.backend.mapper;
 
 import com.smartentrance.backend.dto.notice.NoticeResponse;
+import com.smartentrance.backend.dto.notice.NoticeRow;
 import com.smartentrance.backend.model.BuildingDocument;
 import com.smartentrance.backend.model.Notice;
+import com.smartentrance.backend.security.SignedUrlService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class NoticeMapper {
 
+    private final SignedUrlService signedUrlService;
+
     public NoticeResponse toResponse(Notice notice) {
         NoticeResponse.DocumentInfo documentInfo = null;
 
@@ -16,7 +22,7 @@ public class NoticeMapper {
             documentInfo = new NoticeResponse.DocumentInfo(
                     doc.getId(),
                     doc.getTitle(),
-                    doc.getFileUrl(),
+                    signedUrlService.signStoredUrl(doc.getFileUrl()),
                     doc.getType()
             );
         }
@@ -31,4 +37,20 @@ public class NoticeMapper {
                 documentInfo
         );
     }
-}
\ No newline at end of file
+
+    public NoticeResponse toResponse(NoticeRow row) {
+        NoticeResponse.DocumentInfo documentInfo = row.documentId() == null ? null
+                : new NoticeResponse.DocumentInfo(row.documentId(), row.documentTitle(),
+                        signedUrlService.signStoredUrl(row.documentFileUrl()), row.documentType());
+
+        return new NoticeResponse(
+                row.id(),
+                row.createdByUserId(),
+                row.title(),
+                row.description(),
+                row.location(),
+                row.noticeDateTime(),
+                documentInfo
+        );
+    }
+}
@@ -2,9 +2,14 @@ package com.smartentrance.backend.mapper;
 
 import com.smartentrance.backend.dto.enums.PollStatus;
 import com.smartentrance.backend.dto.poll.PollResponse;
+import com.smartentrance.backend.model.ElectorateSnapshot;
+import com.smartentrance.backend.model.PollResult;
+import com.smartentrance.backend.model.VotesOption;
 import com.smartentrance.backend.model.VotesPoll;
+import com.smartentrance.backend.model.enums.PollWeighting;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
@@ -15,11 +20,14 @@ public class PollMapper {
         Instant now = Instant.now();
         PollStatus status = calculateStatus(poll, now);
 
+        boolean weighted = poll.getWeighting() == PollWeighting.BY_AREA;
+
         List<PollResponse.PollOptionResponse> options = poll.getOptions().stream()
                 .map(opt -> new PollResponse.PollOptionResponse(
                         opt.getId(),
                         opt.getOptionText(),
-                        (long) opt.getVotes().size()
+                        opt.getVoteCount(),
+                        weighted ? ElectorateSnapshot.toArea(opt.getWeightedVotes()) : null
                 ))
                 .toList();
 
@@ -29,6 +37,16 @@ public class PollMapper {
 
         int totalEligible = poll.getEligibleVotersCount() != null ? poll.getEligibleVotersCount() : 0;
 
+        BigDecimal totalWeightedVotes = null;
+        BigDecimal totalEligibleArea = null;
+        if (weighted) {
+            totalWeightedVotes = ElectorateSnapshot.toArea(poll.getOptions().stream()
+                    .mapToLong(VotesOption::getWeightedVotes)
+                    .sum());
+            totalEligibleArea = ElectorateSnapshot.toArea(
+                    poll.getTotalEligibleWeight() != null ? poll.getTotalEligibleWeight() : 0);
+        }
+
         return new PollResponse(
                 poll.getId(),
                 poll.getCreatedBy().getId(),
@@ -37,8 +55,45 @@ public class PollMapper {
                 poll.getStartAt(),
                 poll.getEndAt(),
                 status,
+                poll.getWeighting(),
                 totalVotes,
                 totalEligible,
+                totalWeightedVotes,
+                totalEligibleArea,
+                null,
+                null,
+                userVotedOptionId,
+                options
+        );
+    }
+
+    public PollResponse toResponse(PollResult result, Integer userVotedOptionId) {
+        boolean weighted = result.getWeighting() == PollWeighting.BY_AREA;
+
+        List<PollResponse.PollOptionResponse> options = result.getOptions().stream()
+                .map(opt -> new PollResponse.PollOptionResponse(
+                        opt.getOptionId(),
+                        opt.getOptionText(),
+                        opt.getVoteCount(),
+                        weighted ? ElectorateSnapshot.toArea(opt.getWeightedVotes()) : null
+                ))
+                .toList();
+
+        return new PollResponse(
+                result.getPollId(),
+                result.getCreatedByUserId(),
+                result.getTitle(),
+                result.getDescription(),
+                result.getStartAt(),
+                result.getEndAt(),
+                PollStatus.COMPLETED,
+                result.getWeighting(),
+                result.getTotalVotes(),
+                result.getEligibleVoters(),
+                weighted ? ElectorateSnapshot.toArea(result.getTotalWeightedVotes()) : null,
+                weighted ? ElectorateSnapshot.toArea(result.getEligibleWeight()) : null,
+                result.isQuorumReached(),
+                result.getWinningOptionId(),
                 userVotedOptionId,
                 options
         );
@@ -2,12 +2,17 @@ package com.smartentrance.backend.mapper;
 
 import com.smartentrance.backend.dto.finance.TransactionResponse;
 import com.smartentrance.backend.model.Transaction;
+import com.smartentrance.backend.security.SignedUrlService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class TransactionMapper {
 
+    private final SignedUrlService signedUrlService;
+
     @Value("${application.base-url}")
     private String baseUrl;
 
@@ -28,6 +33,26 @@ public class TransactionMapper {
         );
     }
 
+    /**
+     * Completes a row read by a projection query, whose document URLs are still the stored values.
+     */
+    public TransactionResponse withDocumentUrls(TransactionResponse row) {
+        return new TransactionResponse(
+                row.id(),
+                row.amount(),
+                row.type(),
+                row.fundType(),
+                row.paymentMethod(),
+                row.description(),
+                row.transactionStatus(),
+                resolveDocumentUrl(row.documentUrl()),
+                resolveDocumentUrl(row.externalDocumentUrl()),
+                row.createdAt(),
+                row.unitId(),
+                row.unitNumber()
+        );
+    }
+
     private String resolveDocumentUrl(String rawPath) {
         if (rawPath == null || rawPath.isBlank()) {
             return null;
@@ -37,6 +62,7 @@ public class TransactionMapper {
             return rawPath;
         }
 
-        return baseUrl + "/api/uploads/files/" + rawPath;
+        // Short-lived and self-authorizing, so viewing a receipt costs no session lookup
+        return baseUrl + signedUrlService.sign(rawPath);
     }
 }
\ No newline at end of file
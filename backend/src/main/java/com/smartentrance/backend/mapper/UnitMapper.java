@@ -1,14 +1,20 @@
 package com.smartentrance.backend.mapper;
 
 import com.smartentrance.backend.dto.unit.UnitResponse;
+import com.smartentrance.backend.dto.user.UserProfile;
 import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.service.UserLookup;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 
 @Component
+@RequiredArgsConstructor
 public class UnitMapper {
 
+    private final UserLookup userLookup;
+
     public UnitResponse toManagementResponse(Unit unit, BigDecimal balance, boolean hasPendingPayments) {
         return new UnitResponse(
                 unit.getId(),
@@ -45,11 +51,12 @@ public class UnitMapper {
         if (unit.getResponsibleUser() == null) {
             return null;
         }
+        UserProfile owner = userLookup.getProfile(unit.getResponsibleUser().getId());
         return new UnitResponse.OwnerInfo(
-                unit.getResponsibleUser().getId(),
-                unit.getResponsibleUser().getFirstName(),
-                unit.getResponsibleUser().getLastName(),
-                unit.getResponsibleUser().getEmail()
+                owner.id(),
+                owner.firstName(),
+                owner.lastName(),
+                owner.email()
         );
     }
 
@@ -1,5 +1,6 @@
 package com.smartentrance.backend.mapper;
 
+import com.smartentrance.backend.dto.user.UserProfile;
 import com.smartentrance.backend.dto.user.UserRegisterRequest;
 import com.smartentrance.backend.dto.user.UserResponse;
 import com.smartentrance.backend.model.User;
@@ -22,6 +23,20 @@ public class UserMapper {
         return response;
     }
 
+    public UserResponse toResponse(UserProfile profile) {
+        if (profile == null) {
+            return null;
+        }
+
+        UserResponse response = new UserResponse();
+        response.setId(profile.id());
+        response.setFirstName(profile.firstName());
+        response.setLastName(profile.lastName());
+        response.setEmail(profile.email());
+
+        return response;
+    }
+
     public User toEntity(UserRegisterRequest request) {
         if (request == null) {
             return null;
@@ -1,6 +1,8 @@
 package com.smartentrance.backend.model;
 
+import com.smartentrance.backend.caching.BuildingVersionListener;
 import com.smartentrance.backend.model.enums.DocumentType;
+import com.smartentrance.backend.search.SearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,7 +10,8 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "building_documents")
+@EntityListeners({BuildingVersionListener.class, SearchIndexListener.class})
+@Table(name = "building_documents", indexes = @Index(name = "idx_building_documents_building_created", columnList = "building_id, created_at"))
 @Data
 @NoArgsConstructor
 public class BuildingDocument {
@@ -0,0 +1,43 @@
+package com.smartentrance.backend.model;
+
+import com.smartentrance.backend.model.enums.ExtractionStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Text extracted from a building document's file for search. A document without a row has not been processed
+ * yet; {@link ExtractionStatus#SKIPPED} covers unsupported types and files over the size limit.
+ */
+@Entity
+@Table(name = "document_texts")
+@Data
+@NoArgsConstructor
+public class DocumentText {
+
+    @Id
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private BuildingDocument document;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExtractionStatus status;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "extracted_at", nullable = false)
+    private Instant extractedAt;
+}
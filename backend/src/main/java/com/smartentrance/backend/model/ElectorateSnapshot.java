@@ -0,0 +1,256 @@
+package com.smartentrance.backend.model;
+
+import com.smartentrance.backend.dto.poll.EligibleUnit;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The set of units allowed to vote in a poll, captured when the poll opens.
+ * <p>
+ * Unit ids are stored as a bitmap relative to the smallest id, so membership is a single array read. Ids come
+ * from a global sequence, so a building that gains units long after it was created can have ids too far apart
+ * for a bitmap to pay off; those electorates are stored as a sorted, delta-encoded id list and searched
+ * instead. Area-weighted polls also store one weight per eligible unit (in id order), in hundredths of m².
+ * <p>
+ * The snapshot has a table of its own and is read only when a vote is checked or counted; poll lists carry
+ * just its summary ({@link VotesPoll#getEligibleVotersCount()} and friends).
+ */
+@Entity
+@Table(name = "poll_electorates")
+@Data
+@NoArgsConstructor
+public class ElectorateSnapshot {
+
+    private static final int MAX_BITMAP_BYTES = 1 << 20;
+
+    @Id
+    @Column(name = "poll_id")
+    private Integer pollId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "poll_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private VotesPoll poll;
+
+    @Column(name = "base_unit_id")
+    private Long baseUnitId;
+
+    @Column(name = "unit_bitmap", length = MAX_BITMAP_BYTES)
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    private byte[] unitBitmap;
+
+    // Sorted ids as varint deltas from the base, when a bitmap would be larger; otherwise null
+    @Column(name = "unit_ids", length = MAX_BITMAP_BYTES * 4)
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    private byte[] unitIds;
+
+    @Column(name = "unit_weights", length = MAX_BITMAP_BYTES * 4)
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    private byte[] unitWeights;
+
+    @Column(name = "eligible_count")
+    private Integer eligibleCount;
+
+    @Column(name = "total_weight")
+    private Long totalWeight;
+
+    @Column(name = "frozen_at")
+    private Instant frozenAt;
+
+    // Decoded lazily from the columns above; rebuilt after every load
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private transient int[] rankIndex;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private transient long[] sortedIds;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private transient int[] weights;
+
+    public ElectorateSnapshot(Long baseUnitId, byte[] unitBitmap, byte[] unitIds, byte[] unitWeights,
+                              Integer eligibleCount, Long totalWeight, Instant frozenAt) {
+        this.baseUnitId = baseUnitId;
+        this.unitBitmap = unitBitmap;
+        this.unitIds = unitIds;
+        this.unitWeights = unitWeights;
+        this.eligibleCount = eligibleCount;
+        this.totalWeight = totalWeight;
+        this.frozenAt = frozenAt;
+    }
+
+    /**
+     * @param sortedUnits eligible units ordered by id
+     * @param weighted    whether to keep the per-unit area weights
+     */
+    public static ElectorateSnapshot of(List<EligibleUnit> sortedUnits, boolean weighted, Instant frozenAt) {
+        if (sortedUnits.isEmpty()) {
+            return new ElectorateSnapshot(0L, new byte[0], null, weighted ? new byte[0] : null, 0, weighted ? 0L : null, frozenAt);
+        }
+
+        long base = sortedUnits.getFirst().unitId();
+        long span = sortedUnits.getLast().unitId() - base + 1;
+        // A bitmap costs a bit per id in the span, the list up to a long per member
+        boolean sparse = span > (long) MAX_BITMAP_BYTES * 8 || (span + 7) / 8 > (long) sortedUnits.size() * Long.BYTES;
+
+        byte[] bitmap = sparse ? null : new byte[(int) ((span + 7) / 8)];
+        ByteArrayOutputStream ids = sparse ? new ByteArrayOutputStream(sortedUnits.size() * 2) : null;
+        ByteBuffer weights = weighted ? ByteBuffer.allocate(sortedUnits.size() * Integer.BYTES) : null;
+        long totalWeight = 0;
+        long previous = base;
+
+        for (EligibleUnit unit : sortedUnits) {
+            if (sparse) {
+                writeVarint(ids, unit.unitId() - previous);
+                previous = unit.unitId();
+            } else {
+                int offset = (int) (unit.unitId() - base);
+                bitmap[offset >>> 3] |= (byte) (1 << (offset & 7));
+            }
+
+            if (weighted) {
+                int weight = toWeight(unit.area());
+                weights.putInt(weight);
+                totalWeight += weight;
+            }
+        }
+
+        return new ElectorateSnapshot(base, bitmap, sparse ? ids.toByteArray() : null, weighted ? weights.array() : null,
+                sortedUnits.size(), weighted ? totalWeight : null, frozenAt);
+    }
+
+    /**
+     * Takes over the members and summary of a newer capture, keeping this row's identity.
+     */
+    public void replaceWith(ElectorateSnapshot newer) {
+        this.baseUnitId = newer.baseUnitId;
+        this.unitBitmap = newer.unitBitmap;
+        this.unitIds = newer.unitIds;
+        this.unitWeights = newer.unitWeights;
+        this.eligibleCount = newer.eligibleCount;
+        this.totalWeight = newer.totalWeight;
+        this.frozenAt = newer.frozenAt;
+        this.rankIndex = null;
+        this.sortedIds = null;
+        this.weights = null;
+    }
+
+    public boolean contains(Long unitId) {
+        return rankOf(unitId) >= 0;
+    }
+
+    /**
+     * Weight of an eligible unit in hundredths of m², or 0 when the poll is not weighted.
+     */
+    public long weightOf(Long unitId) {
+        int rank = rankOf(unitId);
+        if (rank < 0 || unitWeights == null) return 0;
+
+        return decodedWeights()[rank];
+    }
+
+    public boolean isFrozenAtOpening(Instant pollStartAt) {
+        return frozenAt != null && !frozenAt.isBefore(pollStartAt);
+    }
+
+    public static BigDecimal toArea(long weight) {
+        return BigDecimal.valueOf(weight, 2);
+    }
+
+    private static int toWeight(BigDecimal area) {
+        if (area == null || area.signum() <= 0) return 0;
+        return area.setScale(2, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+    }
+
+    // Position of the unit among the eligible ones, in id order, or -1 when it is not one of them
+    private int rankOf(Long unitId) {
+        if (unitId == null) return -1;
+        if (unitIds != null) {
+            int index = Arrays.binarySearch(decodedIds(), unitId);
+            return index >= 0 ? index : -1;
+        }
+        int offset = offsetOf(unitId);
+        return offset >= 0 ? rank(offset) : -1;
+    }
+
+    private int offsetOf(long unitId) {
+        if (unitBitmap == null) return -1;
+
+        long offset = unitId - baseUnitId;
+        if (offset < 0 || offset >= (long) unitBitmap.length * 8) return -1;
+
+        return (unitBitmap[(int) (offset >>> 3)] & (1 << (offset & 7))) != 0 ? (int) offset : -1;
+    }
+
+    private int rank(int offset) {
+        int[] index = rankIndex;
+        if (index == null) {
+            index = new int[unitBitmap.length];
+            int running = 0;
+            for (int i = 0; i < unitBitmap.length; i++) {
+                index[i] = running;
+                running += Integer.bitCount(unitBitmap[i] & 0xFF);
+            }
+            rankIndex = index;
+        }
+        int lowerBits = unitBitmap[offset >>> 3] & 0xFF & ((1 << (offset & 7)) - 1);
+        return index[offset >>> 3] + Integer.bitCount(lowerBits);
+    }
+
+    private long[] decodedIds() {
+        long[] decoded = sortedIds;
+        if (decoded == null) {
+            decoded = new long[eligibleCount];
+            long id = baseUnitId;
+            int pos = 0;
+            for (int i = 0; i < decoded.length; i++) {
+                long delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = unitIds[pos++];
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta;
+                decoded[i] = id;
+            }
+            sortedIds = decoded;
+        }
+        return decoded;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private int[] decodedWeights() {
+        int[] decoded = weights;
+        if (decoded == null) {
+            decoded = new int[unitWeights.length / Integer.BYTES];
+            ByteBuffer.wrap(unitWeights).asIntBuffer().get(decoded);
+            weights = decoded;
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,39 @@
+package com.smartentrance.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Public file name (as stored in proof, document and receipt URLs) mapped to the blob holding its bytes.
+ */
+@Entity
+@Table(name = "file_aliases", indexes = @Index(name = "idx_file_aliases_sha256", columnList = "sha256"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FileAlias {
+
+    @Id
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartentrance.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One physical file in the content-addressed store, shared by every name that points at the same bytes.
+ * Cold blobs are moved into a pack segment; {@code packId}/{@code packOffset} then locate their bytes.
+ */
+@Entity
+@Table(name = "file_blobs", indexes = @Index(name = "idx_file_blobs_pack", columnList = "pack_id"))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FileBlob {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    // Number of file_aliases rows pointing here; the blob is deleted when it drops to zero
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Written in batches from the reads seen since the last flush, so it may lag by a few minutes
+    @Column(name = "last_read_at")
+    private Instant lastReadAt;
+
+    @Column(name = "pack_id")
+    private Long packId;
+
+    // Position of the first content byte inside the segment
+    @Column(name = "pack_offset")
+    private Long packOffset;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
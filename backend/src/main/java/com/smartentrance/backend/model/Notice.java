@@ -1,12 +1,18 @@
 package com.smartentrance.backend.model;
 
+import com.smartentrance.backend.caching.BuildingVersionListener;
+import com.smartentrance.backend.search.SearchIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.Instant;
 
 @Entity
-@Table(name = "building_events")
+@EntityListeners({BuildingVersionListener.class, SearchIndexListener.class})
+@Table(name = "building_events", indexes = {
+        @Index(name = "idx_building_events_building_time", columnList = "building_id, eventDateTime"),
+        @Index(name = "idx_building_events_building_created", columnList = "building_id, created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
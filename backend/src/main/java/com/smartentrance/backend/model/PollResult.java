@@ -0,0 +1,101 @@
+package com.smartentrance.backend.model;
+
+import com.smartentrance.backend.caching.BuildingVersionListener;
+import com.smartentrance.backend.model.enums.PollWeighting;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Final outcome of a closed poll, written once by the finalization job and never updated.
+ * <p>
+ * It carries everything a history listing shows, so completed polls are served without touching
+ * {@code votes_polls}, {@code votes_options} or {@code user_votes}.
+ */
+@Entity
+@EntityListeners(BuildingVersionListener.class)
+@Immutable
+@Table(name = "poll_results", indexes = @Index(name = "idx_poll_results_building_end", columnList = "building_id, end_at"))
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PollResult {
+
+    @Id
+    @Column(name = "poll_id")
+    private Integer pollId;
+
+    @Column(name = "building_id", nullable = false)
+    private Integer buildingId;
+
+    @Column(name = "created_by_user_id")
+    private Long createdByUserId;
+
+    @Column(nullable = false)
+    private String title;
+
+    private String description;
+
+    @Column(name = "start_at", nullable = false)
+    private Instant startAt;
+
+    @Column(name = "end_at", nullable = false)
+    private Instant endAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PollWeighting weighting;
+
+    @Column(name = "total_votes", nullable = false)
+    private long totalVotes;
+
+    @Column(name = "eligible_voters", nullable = false)
+    private int eligibleVoters;
+
+    // Area figures in hundredths of m²; 0 for per-unit polls
+    @Column(name = "total_weighted_votes", nullable = false)
+    private long totalWeightedVotes;
+
+    @Column(name = "eligible_weight", nullable = false)
+    private long eligibleWeight;
+
+    @Column(name = "quorum_reached", nullable = false)
+    private boolean quorumReached;
+
+    // Null when quorum was missed, nobody voted, or the leading options tied
+    @Column(name = "winning_option_id")
+    private Integer winningOptionId;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "poll_result_options", joinColumns = @JoinColumn(name = "poll_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<OptionResult> options = new ArrayList<>();
+
+    @Column(name = "finalized_at", nullable = false)
+    private Instant finalizedAt;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OptionResult {
+
+        @Column(name = "option_id", nullable = false)
+        private Integer optionId;
+
+        @Column(name = "option_text", nullable = false)
+        private String optionText;
+
+        @Column(name = "vote_count", nullable = false)
+        private long voteCount;
+
+        @Column(name = "weighted_votes", nullable = false)
+        private long weightedVotes;
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartentrance.backend.model;
 
+import com.smartentrance.backend.caching.BuildingVersionListener;
 import com.smartentrance.backend.model.enums.*;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -11,7 +12,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "transactions")
+@EntityListeners(BuildingVersionListener.class)
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_unit_created", columnList = "unit_id, created_at"),
+        @Index(name = "idx_transactions_building_created", columnList = "building_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 public class Transaction {
@@ -24,6 +29,11 @@ public class Transaction {
     @JoinColumn(name = "unit_id", nullable = false)
     private Unit unit;
 
+    // The unit's building, kept on the row so building-wide queries such as the activity feed need no join
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "building_id", nullable = false)
+    private Building building;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "billable_user_id")
     private User responsibleUser;
@@ -68,4 +78,11 @@ public class Transaction {
 
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.building == null && this.unit != null) {
+            this.building = this.unit.getBuilding();
+        }
+    }
 }
\ No newline at end of file
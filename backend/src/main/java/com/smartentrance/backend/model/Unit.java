@@ -1,5 +1,6 @@
 package com.smartentrance.backend.model;
 
+import com.smartentrance.backend.caching.BuildingVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -9,6 +10,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(BuildingVersionListener.class)
 @Table(name = "units", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"building_id", "unit_number"}),
         @UniqueConstraint(columnNames = "access_code")
@@ -20,7 +22,8 @@ import java.time.Instant;
 public class Unit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "units_seq")
+    @SequenceGenerator(name = "units_seq", sequenceName = "units_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
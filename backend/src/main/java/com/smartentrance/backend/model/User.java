@@ -2,6 +2,7 @@ package com.smartentrance.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.service.UserProfileCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -12,6 +13,7 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserProfileCacheListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -46,6 +46,9 @@ public class UserVote {
     @ToString.Exclude
     private Unit unit;
 
+    // Option this unit had chosen before its latest re-vote; written by the upsert path
+    @Column(name = "previous_option_id")
+    private Integer previousOptionId;
 
     @Column(name = "voted_at", nullable = false)
     private Instant votedAt;
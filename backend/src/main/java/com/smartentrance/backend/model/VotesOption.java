@@ -33,6 +33,13 @@ public class VotesOption {
     @ToString.Exclude
     private VotesPoll poll;
 
+    @Column(name = "vote_count", nullable = false)
+    private long voteCount = 0;
+
+    // Sum of the area weights behind this option, in hundredths of m²; stays 0 for per-unit polls
+    @Column(name = "weighted_votes", nullable = false)
+    private long weightedVotes = 0;
+
     @OneToMany(mappedBy = "option", cascade = CascadeType.ALL)
     @JsonIgnore
     @ToString.Exclude
@@ -1,6 +1,8 @@
 package com.smartentrance.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.smartentrance.backend.caching.BuildingVersionListener;
+import com.smartentrance.backend.model.enums.PollWeighting;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,14 +10,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
-import org.hibernate.annotations.Formula;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "votes_polls")
+@EntityListeners(BuildingVersionListener.class)
+@Table(name = "votes_polls", indexes = {
+        @Index(name = "idx_votes_polls_building_created", columnList = "building_id, created_at"),
+        @Index(name = "idx_votes_polls_building_end", columnList = "building_id, end_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,9 +56,20 @@ public class VotesPoll {
     @ToString.Exclude
     private Building building;
 
-    @Formula("(SELECT COUNT(*) FROM units u WHERE u.building_id = id AND u.is_verified = true AND u.responsible_user_id IS NOT NULL)")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "weighting", nullable = false)
+    private PollWeighting weighting = PollWeighting.PER_UNIT;
+
+    // Summary of the electorate snapshot, which lives in its own table (see ElectorateSnapshot)
+    @Column(name = "eligible_count")
     private Integer eligibleVotersCount;
 
+    @Column(name = "electorate_total_weight")
+    private Long totalEligibleWeight;
+
+    @Column(name = "electorate_frozen_at")
+    private Instant electorateFrozenAt;
+
     @OneToMany(mappedBy = "poll", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<VotesOption> options = new ArrayList<>();
 
@@ -69,4 +85,10 @@ public class VotesPoll {
     protected void onCreate() {
         this.createdAt = Instant.now();
     }
+
+    public void summarize(ElectorateSnapshot electorate) {
+        this.eligibleVotersCount = electorate.getEligibleCount();
+        this.totalEligibleWeight = electorate.getTotalWeight();
+        this.electorateFrozenAt = electorate.getFrozenAt();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.smartentrance.backend.model.enums;
+
+public enum ExtractionStatus {
+    EXTRACTED,
+    SKIPPED,
+    FAILED
+}
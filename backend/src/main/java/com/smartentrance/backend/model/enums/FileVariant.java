@@ -0,0 +1,16 @@
+package com.smartentrance.backend.model.enums;
+
+import java.util.Locale;
+
+public enum FileVariant {
+    ORIGINAL,
+    THUMB;
+
+    public static FileVariant from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown file variant: " + value);
+        }
+    }
+}
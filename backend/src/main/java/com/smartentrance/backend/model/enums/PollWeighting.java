@@ -0,0 +1,6 @@
+package com.smartentrance.backend.model.enums;
+
+public enum PollWeighting {
+    PER_UNIT,
+    BY_AREA
+}
@@ -0,0 +1,31 @@
+package com.smartentrance.backend.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often a controller method can be called. The bucket holds {@code capacity} tokens
+ * and refills completely once per {@code period}, so short bursts are allowed while the long-run
+ * rate stays at {@code capacity / period}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    int capacity();
+
+    long period();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    RateLimitKey key() default RateLimitKey.USER;
+
+    /**
+     * When set, only multipart requests carrying a non-empty file under this part name are limited,
+     * so an endpoint with an optional upload can throttle the upload without throttling the rest.
+     */
+    String part() default "";
+}
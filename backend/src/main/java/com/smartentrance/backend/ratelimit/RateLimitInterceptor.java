@@ -0,0 +1,99 @@
+package com.smartentrance.backend.ratelimit;
+
+import com.smartentrance.backend.exception.RateLimitExceededException;
+import com.smartentrance.backend.security.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitProperties properties;
+    private final TokenBucketTable buckets;
+    private final Map<Method, RouteLimit> routeLimits = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(RateLimitProperties properties) {
+        this.properties = properties;
+        this.buckets = new TokenBucketTable(properties.getTableSize());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        RouteLimit limit = routeLimits.get(handlerMethod.getMethod());
+        if (limit == null) {
+            limit = routeLimits.computeIfAbsent(handlerMethod.getMethod(), RouteLimit::of);
+        }
+        if (limit == RouteLimit.NONE || (!limit.part.isEmpty() && !hasFile(request, limit.part))) {
+            return true;
+        }
+
+        long fingerprint = limit.routeHash ^ TokenBucketTable.mix(resolveKey(limit.key, request));
+        long waitNanos = buckets.tryAcquire(fingerprint, limit.intervalNanos, limit.burstNanos, System.nanoTime());
+
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+        return true;
+    }
+
+    private static boolean hasFile(HttpServletRequest request, String part) {
+        MultipartHttpServletRequest multipart = WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+        if (multipart == null) {
+            return false;
+        }
+        MultipartFile file = multipart.getFile(part);
+        return file != null && !file.isEmpty();
+    }
+
+    private long resolveKey(RateLimitKey key, HttpServletRequest request) {
+        return switch (key) {
+            case ROUTE -> 0L;
+            case IP -> TokenBucketTable.hash(request.getRemoteAddr());
+            case USER -> {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                if (auth != null && auth.getPrincipal() instanceof UserPrincipal principal && principal.user().getId() != null) {
+                    yield principal.user().getId();
+                }
+                yield TokenBucketTable.hash(request.getRemoteAddr()) ^ Long.MIN_VALUE;
+            }
+        };
+    }
+
+    private record RouteLimit(long routeHash, RateLimitKey key, long intervalNanos, long burstNanos, String part) {
+
+        private static final RouteLimit NONE = new RouteLimit(0, RateLimitKey.ROUTE, 0, 0, "");
+
+        private static RouteLimit of(Method method) {
+            RateLimit annotation = method.getAnnotation(RateLimit.class);
+            if (annotation == null) {
+                return NONE;
+            }
+            if (annotation.capacity() < 1 || annotation.period() < 1) {
+                throw new IllegalStateException("Invalid @RateLimit on " + method);
+            }
+
+            long intervalNanos = annotation.unit().toNanos(annotation.period()) / annotation.capacity();
+            long burstNanos = intervalNanos * (annotation.capacity() - 1);
+            long routeHash = TokenBucketTable.mix(TokenBucketTable.hash(method.toGenericString()));
+
+            return new RouteLimit(routeHash, annotation.key(), intervalNanos, burstNanos, annotation.part());
+        }
+    }
+}
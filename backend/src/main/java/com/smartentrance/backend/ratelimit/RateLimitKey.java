@@ -0,0 +1,10 @@
+package com.smartentrance.backend.ratelimit;
+
+public enum RateLimitKey {
+    /** One bucket per authenticated user. Anonymous callers fall back to their IP address. */
+    USER,
+    /** One bucket per client IP address. */
+    IP,
+    /** A single bucket shared by every caller of the route. */
+    ROUTE
+}
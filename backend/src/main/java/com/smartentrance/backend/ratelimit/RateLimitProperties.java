@@ -0,0 +1,13 @@
+package com.smartentrance.backend.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int tableSize = 65536;
+}
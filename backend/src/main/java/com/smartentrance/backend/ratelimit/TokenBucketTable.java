@@ -0,0 +1,127 @@
+package com.smartentrance.backend.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, lock-free table of token buckets addressed by a 64-bit key fingerprint.
+ * <p>
+ * Every bucket stores a single "theoretical arrival time" (the GCRA form of a token bucket), so
+ * refill is derived from the clock on each acquire and no sweeper thread is needed. Slots are
+ * grouped into small sets; when a set is full the most idle bucket (the one that would already be
+ * full again) is recycled, which keeps memory bounded however many distinct keys appear.
+ */
+public class TokenBucketTable {
+
+    private static final int WAYS = 4;
+
+    private final AtomicReferenceArray<Bucket> slots;
+    private final int setMask;
+
+    public TokenBucketTable(int size) {
+        int sets = Integer.highestOneBit(Math.max(size / WAYS, 1));
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * Takes one token from the bucket identified by {@code fingerprint}.
+     *
+     * @param intervalNanos time needed to refill a single token
+     * @param burstNanos    extra tokens allowed on top of the first one, expressed as refill time
+     * @return {@code 0} if the token was granted, otherwise nanoseconds until one becomes available
+     */
+    public long tryAcquire(long fingerprint, long intervalNanos, long burstNanos, long now) {
+        int base = (int) (mix(fingerprint) & setMask) * WAYS;
+
+        while (true) {
+            Bucket victim = null;
+            int victimIndex = -1;
+
+            for (int i = 0; i < WAYS; i++) {
+                int index = base + i;
+                Bucket bucket = slots.get(index);
+
+                if (bucket == null) {
+                    if (slots.compareAndSet(index, null, new Bucket(fingerprint, now + intervalNanos))) {
+                        return 0;
+                    }
+                    bucket = slots.get(index);
+                }
+
+                if (bucket.fingerprint == fingerprint) {
+                    return bucket.acquire(intervalNanos, burstNanos, now);
+                }
+
+                if (victim == null || bucket.arrival - victim.arrival < 0) {
+                    victim = bucket;
+                    victimIndex = index;
+                }
+            }
+
+            if (slots.compareAndSet(victimIndex, victim, new Bucket(fingerprint, now + intervalNanos))) {
+                return 0;
+            }
+        }
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /** Murmur3 finalizer; spreads the bits of a key so neighbouring IDs land in different sets. */
+    public static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /** 64-bit FNV-1a over the characters of {@code value}, without allocating. */
+    public static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Bucket {
+
+        private static final VarHandle ARRIVAL;
+
+        static {
+            try {
+                ARRIVAL = MethodHandles.lookup().findVarHandle(Bucket.class, "arrival", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long fingerprint;
+        private volatile long arrival;
+
+        private Bucket(long fingerprint, long arrival) {
+            this.fingerprint = fingerprint;
+            this.arrival = arrival;
+        }
+
+        private long acquire(long intervalNanos, long burstNanos, long now) {
+            while (true) {
+                long current = arrival;
+                long start = current - now > 0 ? current : now;
+                long wait = start - burstNanos - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (ARRIVAL.compareAndSet(this, current, start + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.finance.BuildingExpenseResponse;
 import com.smartentrance.backend.model.BuildingExpense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BuildingExpenseRepository extends JpaRepository<BuildingExpense, Long> {
 
@@ -22,7 +27,18 @@ public interface BuildingExpenseRepository extends JpaRepository<BuildingExpense
             "GROUP BY e.paymentMethod")
     List<Object[]> sumExpensesByMethod(@Param("buildingId") Integer buildingId);
 
-    List<BuildingExpense> findAllByBuildingIdOrderByExpenseDateDesc(Integer buildingId);
+    // Document URLs come back raw; BuildingExpenseMapper signs them
+    @Query("SELECT new com.smartentrance.backend.dto.finance.BuildingExpenseResponse(" +
+            "e.id, e.amount, e.description, e.fundType, e.documentUrl, e.expenseDate, " +
+            "COALESCE(CONCAT(u.firstName, ' ', u.lastName), 'System')) " +
+            "FROM BuildingExpense e LEFT JOIN e.createdBy u " +
+            "WHERE e.building.id = :buildingId " +
+            "ORDER BY e.expenseDate DESC")
+    List<BuildingExpenseResponse> findResponses(@Param("buildingId") Integer buildingId);
 
     boolean existsByDocumentUrl(String documentUrl);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.documentUrl FROM BuildingExpense e WHERE e.documentUrl IS NOT NULL")
+    Stream<String> streamDocumentUrls();
 }
\ No newline at end of file
@@ -1,13 +1,16 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.building.BuildingRow;
 import com.smartentrance.backend.model.Building;
 import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
@@ -19,7 +22,17 @@ public interface BuildingRepository extends JpaRepository<Building, Integer> {
 
     boolean existsByIdAndManagerId(Integer id, Long managerId);
 
-    List<Building> findAllByManagerId(Long managerId);
+    Optional<Building> findByGooglePlaceIdAndEntrance(String googlePlaceId, String entrance);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.building.BuildingRow(
+            b.id, b.name, b.address, b.entrance,
+            (SELECT COUNT(u) FROM Unit u WHERE u.building = b),
+            b.iban, b.manager.id)
+        FROM Building b
+        WHERE b.manager.id = :managerId
+    """)
+    List<BuildingRow> findManagedRows(@Param("managerId") Long managerId);
 
     @QueryHints(value = @QueryHint(name = HINT_FETCH_SIZE, value = "50"))
     @Query("SELECT b FROM Building b")
@@ -1,21 +1,70 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.activity.ActivityItem;
+import com.smartentrance.backend.dto.document.DocumentResponse;
 import com.smartentrance.backend.model.BuildingDocument;
 import com.smartentrance.backend.model.enums.DocumentType;
+import com.smartentrance.backend.search.IndexedDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DocumentRepository extends JpaRepository<BuildingDocument, Long> {
 
-    List<BuildingDocument> findAllByBuildingIdOrderByCreatedAtDesc(Integer buildingId);
-    List<BuildingDocument> findAllByBuildingIdAndTypeOrderByCreatedAtDesc(Integer buildingId, DocumentType type);
-
-    List<BuildingDocument> findAllByBuildingIdAndIsVisibleToResidentsTrueOrderByCreatedAtDesc(Integer buildingId);
-    List<BuildingDocument> findAllByBuildingIdAndTypeAndIsVisibleToResidentsTrueOrderByCreatedAtDesc(Integer buildingId, DocumentType type);
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.document.DocumentResponse(
+            d.id, d.title, d.description, d.type, d.fileUrl,
+            COALESCE(CONCAT(u.firstName, ' ', u.lastName), 'System'),
+            d.isVisibleToResidents, d.createdAt)
+        FROM BuildingDocument d
+        LEFT JOIN d.uploadedBy u
+        WHERE d.building.id = :buildingId
+        AND (:type IS NULL OR d.type = :type)
+        AND (:includeHidden = true OR d.isVisibleToResidents = true)
+        ORDER BY d.createdAt DESC
+    """)
+    List<DocumentResponse> findResponses(@Param("buildingId") Integer buildingId,
+                                         @Param("type") DocumentType type,
+                                         @Param("includeHidden") boolean includeHidden);
 
     Optional<BuildingDocument> findByFileUrl(String fileUrl);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.fileUrl FROM BuildingDocument d WHERE d.fileUrl IS NOT NULL")
+    Stream<String> streamFileUrls();
+
     List<BuildingDocument> findAllByBuildingIdAndType(Integer buildingId, DocumentType type);
-}
\ No newline at end of file
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.activity.ActivityItem(
+            com.smartentrance.backend.dto.enums.ActivityType.DOCUMENT, d.id, d.createdAt, d.title, d.description)
+        FROM BuildingDocument d
+        WHERE d.building.id = :buildingId
+        AND (:includeHidden = true OR d.isVisibleToResidents = true)
+        AND (d.createdAt < :cursorAt OR (d.createdAt = :cursorAt AND d.id < :cursorId))
+        ORDER BY d.createdAt DESC, d.id DESC
+    """)
+    List<ActivityItem> findActivityPage(@Param("buildingId") Integer buildingId,
+                                        @Param("includeHidden") boolean includeHidden,
+                                        @Param("cursorAt") Instant cursorAt,
+                                        @Param("cursorId") Long cursorId,
+                                        Limit limit);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.search.IndexedDocument(
+            com.smartentrance.backend.dto.enums.ActivityType.DOCUMENT, d.id, d.title, d.description, t.content, d.createdAt, d.isVisibleToResidents)
+        FROM BuildingDocument d
+        LEFT JOIN DocumentText t ON t.documentId = d.id
+        WHERE d.building.id = :buildingId
+    """)
+    List<IndexedDocument> findIndexedDocuments(@Param("buildingId") Integer buildingId);
+}
@@ -0,0 +1,19 @@
+package com.smartentrance.backend.repository;
+
+import com.smartentrance.backend.model.DocumentText;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface DocumentTextRepository extends JpaRepository<DocumentText, Long> {
+
+    // Oldest first, so a backlog drains in upload order
+    @Query("""
+        SELECT d.id FROM BuildingDocument d
+        WHERE NOT EXISTS (SELECT 1 FROM DocumentText t WHERE t.documentId = d.id)
+        ORDER BY d.id
+    """)
+    List<Long> findUnprocessedDocumentIds(Limit limit);
+}
@@ -0,0 +1,9 @@
+package com.smartentrance.backend.repository;
+
+import com.smartentrance.backend.model.ElectorateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ElectorateSnapshotRepository extends JpaRepository<ElectorateSnapshot, Integer> {
+}
@@ -0,0 +1,33 @@
+package com.smartentrance.backend.repository;
+
+import com.smartentrance.backend.dto.file.BlobRef;
+import com.smartentrance.backend.model.FileAlias;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface FileAliasRepository extends JpaRepository<FileAlias, String> {
+
+    @Query("SELECT a.sha256 FROM FileAlias a WHERE a.fileName = :fileName")
+    Optional<String> findSha256ByFileName(@Param("fileName") String fileName);
+
+    @Query("""
+            SELECT new com.smartentrance.backend.dto.file.BlobRef(b.sha256, b.size, b.packId, b.packOffset, b.createdAt)
+            FROM FileAlias a, FileBlob b
+            WHERE b.sha256 = a.sha256 AND a.fileName = :fileName
+            """)
+    Optional<BlobRef> findBlobRefByFileName(@Param("fileName") String fileName);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.fileName FROM FileAlias a WHERE a.createdAt < :cutoff")
+    Stream<String> streamNamesCreatedBefore(@Param("cutoff") Instant cutoff);
+}
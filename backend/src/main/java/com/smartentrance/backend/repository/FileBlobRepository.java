@@ -0,0 +1,68 @@
+package com.smartentrance.backend.repository;
+
+import com.smartentrance.backend.dto.file.BlobRef;
+import com.smartentrance.backend.model.FileBlob;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.sha256 FROM FileBlob b")
+    Stream<String> streamHashes();
+
+    @Query("""
+            SELECT new com.smartentrance.backend.dto.file.BlobRef(b.sha256, b.size, b.packId, b.packOffset, b.createdAt)
+            FROM FileBlob b WHERE b.sha256 = :sha256
+            """)
+    Optional<BlobRef> findBlobRef(@Param("sha256") String sha256);
+
+    // Keyset-paged by hash so blobs that cannot be packed are not picked up again on the next page
+    @Query("""
+            SELECT b.sha256 FROM FileBlob b
+            WHERE b.packId IS NULL AND b.size <= :maxSize AND b.sha256 > :after
+              AND b.createdAt < :cutoff AND (b.lastReadAt IS NULL OR b.lastReadAt < :cutoff)
+            ORDER BY b.sha256
+            """)
+    List<String> findColdLooseHashes(@Param("cutoff") Instant cutoff,
+                                     @Param("maxSize") long maxSize,
+                                     @Param("after") String after,
+                                     Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.smartentrance.backend.dto.file.BlobRef(b.sha256, b.size, b.packId, b.packOffset, b.createdAt)
+            FROM FileBlob b WHERE b.packId IS NOT NULL ORDER BY b.packId, b.packOffset
+            """)
+    Stream<BlobRef> streamPacked();
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.packId = :packId, b.packOffset = :offset WHERE b.sha256 = :sha256 AND b.packId IS NULL")
+    int assignPack(@Param("sha256") String sha256, @Param("packId") long packId, @Param("offset") long offset);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.lastReadAt = :at WHERE b.sha256 IN :hashes")
+    int markRead(@Param("hashes") Collection<String> hashes, @Param("at") Instant at);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + :delta WHERE b.sha256 = :sha256")
+    int adjustRefCount(@Param("sha256") String sha256, @Param("delta") int delta);
+
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.sha256 = :sha256 AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
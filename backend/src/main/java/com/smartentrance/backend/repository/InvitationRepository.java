@@ -3,6 +3,8 @@ package com.smartentrance.backend.repository;
 import com.smartentrance.backend.model.Invitation;
 import com.smartentrance.backend.model.enums.InvitationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -21,4 +23,7 @@ public interface InvitationRepository extends JpaRepository<Invitation, Long> {
     List<Invitation> findAllByUnitIdOrderByCreatedAtDesc(Long unitId);
 
     List<Invitation> findAllByStatusAndExpiresAtBefore(InvitationStatus status, Instant now);
+
+    @Query("SELECT i.invitationCode FROM Invitation i WHERE i.status = :status AND i.expiresAt > :now")
+    List<String> findCodesByStatusAndExpiresAtAfter(@Param("status") InvitationStatus status, @Param("now") Instant now);
 }
@@ -1,7 +1,14 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.activity.ActivityItem;
+import com.smartentrance.backend.dto.notice.NoticeRow;
+import com.smartentrance.backend.dto.notice.NoticeSummary;
 import com.smartentrance.backend.model.Notice;
+import com.smartentrance.backend.search.IndexedDocument;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -9,9 +16,105 @@ import java.util.List;
 
 @Repository
 public interface NoticeRepository extends JpaRepository<Notice, Integer> {
-    List<Notice> findAllByBuildingIdOrderByEventDateTimeDesc(Integer buildingId);
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.notice.NoticeRow(
+            n.id, n.createdBy.id, n.title, n.description, n.location, n.eventDateTime,
+            d.id, d.title, d.fileUrl, d.type)
+        FROM Notice n
+        LEFT JOIN n.document d
+        WHERE n.building.id = :buildingId
+        ORDER BY n.eventDateTime DESC
+    """)
+    List<NoticeRow> findRows(@Param("buildingId") Integer buildingId);
 
-    List<Notice> findAllByBuildingIdAndEventDateTimeAfterOrderByEventDateTimeAsc(Integer buildingId, Instant now);
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.notice.NoticeRow(
+            n.id, n.createdBy.id, n.title, n.description, n.location, n.eventDateTime,
+            d.id, d.title, d.fileUrl, d.type)
+        FROM Notice n
+        LEFT JOIN n.document d
+        WHERE n.building.id = :buildingId
+        AND n.eventDateTime > :now
+        ORDER BY n.eventDateTime ASC
+    """)
+    List<NoticeRow> findUpcomingRows(@Param("buildingId") Integer buildingId, @Param("now") Instant now);
 
-    List<Notice> findAllByBuildingIdAndEventDateTimeBeforeOrderByEventDateTimeDesc(Integer buildingId, Instant now);
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.notice.NoticeRow(
+            n.id, n.createdBy.id, n.title, n.description, n.location, n.eventDateTime,
+            d.id, d.title, d.fileUrl, d.type)
+        FROM Notice n
+        LEFT JOIN n.document d
+        WHERE n.building.id = :buildingId
+        AND n.eventDateTime < :now
+        ORDER BY n.eventDateTime DESC
+    """)
+    List<NoticeRow> findPastRows(@Param("buildingId") Integer buildingId, @Param("now") Instant now);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.notice.NoticeSummary(
+            n.id, n.title, n.location, n.eventDateTime,
+            CASE WHEN n.document.id IS NOT NULL THEN true ELSE false END)
+        FROM Notice n
+        WHERE n.building.id = :buildingId
+        AND (n.eventDateTime < :cursorAt OR (n.eventDateTime = :cursorAt AND n.id < :cursorId))
+        ORDER BY n.eventDateTime DESC, n.id DESC
+    """)
+    List<NoticeSummary> findSummaryPage(@Param("buildingId") Integer buildingId,
+                                        @Param("cursorAt") Instant cursorAt,
+                                        @Param("cursorId") Integer cursorId,
+                                        Limit limit);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.notice.NoticeSummary(
+            n.id, n.title, n.location, n.eventDateTime,
+            CASE WHEN n.document.id IS NOT NULL THEN true ELSE false END)
+        FROM Notice n
+        WHERE n.building.id = :buildingId
+        AND n.eventDateTime > :now
+        AND (n.eventDateTime > :cursorAt OR (n.eventDateTime = :cursorAt AND n.id > :cursorId))
+        ORDER BY n.eventDateTime ASC, n.id ASC
+    """)
+    List<NoticeSummary> findUpcomingSummaryPage(@Param("buildingId") Integer buildingId,
+                                                @Param("now") Instant now,
+                                                @Param("cursorAt") Instant cursorAt,
+                                                @Param("cursorId") Integer cursorId,
+                                                Limit limit);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.notice.NoticeSummary(
+            n.id, n.title, n.location, n.eventDateTime,
+            CASE WHEN n.document.id IS NOT NULL THEN true ELSE false END)
+        FROM Notice n
+        WHERE n.building.id = :buildingId
+        AND n.eventDateTime < :now
+        AND (n.eventDateTime < :cursorAt OR (n.eventDateTime = :cursorAt AND n.id < :cursorId))
+        ORDER BY n.eventDateTime DESC, n.id DESC
+    """)
+    List<NoticeSummary> findPastSummaryPage(@Param("buildingId") Integer buildingId,
+                                            @Param("now") Instant now,
+                                            @Param("cursorAt") Instant cursorAt,
+                                            @Param("cursorId") Integer cursorId,
+                                            Limit limit);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.activity.ActivityItem(
+            com.smartentrance.backend.dto.enums.ActivityType.NOTICE, CAST(n.id AS Long), n.createdAt, n.title, n.location)
+        FROM Notice n
+        WHERE n.building.id = :buildingId
+        AND (n.createdAt < :cursorAt OR (n.createdAt = :cursorAt AND n.id < :cursorId))
+        ORDER BY n.createdAt DESC, n.id DESC
+    """)
+    List<ActivityItem> findActivityPage(@Param("buildingId") Integer buildingId,
+                                        @Param("cursorAt") Instant cursorAt,
+                                        @Param("cursorId") Integer cursorId,
+                                        Limit limit);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.search.IndexedDocument(
+            com.smartentrance.backend.dto.enums.ActivityType.NOTICE, CAST(n.id AS Long), n.title, n.description, n.location, n.createdAt)
+        FROM Notice n
+        WHERE n.building.id = :buildingId
+    """)
+    List<IndexedDocument> findIndexedDocuments(@Param("buildingId") Integer buildingId);
 }
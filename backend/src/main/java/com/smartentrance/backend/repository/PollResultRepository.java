@@ -0,0 +1,25 @@
+package com.smartentrance.backend.repository;
+
+import com.smartentrance.backend.model.PollResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PollResultRepository extends JpaRepository<PollResult, Integer> {
+
+    @Query("""
+        SELECT DISTINCT r FROM PollResult r
+        LEFT JOIN FETCH r.options
+        WHERE r.buildingId = :buildingId
+        ORDER BY r.endAt DESC
+    """)
+    List<PollResult> findAllByBuildingId(@Param("buildingId") Integer buildingId);
+
+    @Query("SELECT r FROM PollResult r LEFT JOIN FETCH r.options WHERE r.pollId = :pollId")
+    Optional<PollResult> findWithOptionsById(@Param("pollId") Integer pollId);
+}
@@ -1,16 +1,24 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.activity.ActivityItem;
+import com.smartentrance.backend.dto.finance.TransactionResponse;
 import com.smartentrance.backend.model.Transaction;
 import com.smartentrance.backend.model.enums.FundType;
 import com.smartentrance.backend.model.enums.TransactionStatus;
 import com.smartentrance.backend.model.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
@@ -24,12 +32,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             "AND t.status = com.smartentrance.backend.model.enums.TransactionStatus.CONFIRMED")
     BigDecimal calculateUserBalance(@Param("unitId") Long unitId, @Param("userId") Long userId);
 
-    @Query("SELECT t FROM Transaction t " +
-            "WHERE t.unit.building.id = :buildingId " +
+    // Document URLs come back raw; TransactionMapper signs them
+    @Query("SELECT new com.smartentrance.backend.dto.finance.TransactionResponse(" +
+            "t.id, t.amount, t.type, t.fundType, t.paymentMethod, t.description, t.status, " +
+            "t.proofUrl, t.externalProofUrl, t.createdAt, u.id, u.unitNumber) " +
+            "FROM Transaction t JOIN t.unit u " +
+            "WHERE u.building.id = :buildingId " +
             "AND (:type IS NULL OR t.type = :type) " +
             "AND (:status IS NULL OR t.status = :status) " +
             "ORDER BY t.createdAt DESC")
-    List<Transaction> searchTransactions(
+    List<TransactionResponse> searchTransactions(
             @Param("buildingId") Integer buildingId,
             @Param("type") TransactionType type,
             @Param("status") TransactionStatus status
@@ -38,8 +50,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findAllByUnitIdOrderByCreatedAtDesc(Long unitId);
     List<Transaction> findAllByUnitIdAndTypeOrderByCreatedAtDesc(Long unitId, TransactionType type);
 
-    List<Transaction> findAllByUnitIdAndResponsibleUserIdOrderByCreatedAtDesc(Long unit_id, Long responsibleUser_id);
-    List<Transaction> findAllByUnitIdAndTypeAndResponsibleUserIdOrderByCreatedAtDesc(Long unit_id, TransactionType type, Long responsibleUser_id);
+    // A unit's history as seen by its current responsible user; earlier owners' payments are not theirs to see
+    @Query("SELECT new com.smartentrance.backend.dto.finance.TransactionResponse(" +
+            "t.id, t.amount, t.type, t.fundType, t.paymentMethod, t.description, t.status, " +
+            "t.proofUrl, t.externalProofUrl, t.createdAt, u.id, u.unitNumber) " +
+            "FROM Transaction t JOIN t.unit u " +
+            "WHERE u.id = :unitId " +
+            "AND t.responsibleUser = u.responsibleUser " +
+            "AND (:type IS NULL OR t.type = :type) " +
+            "ORDER BY t.createdAt DESC")
+    List<TransactionResponse> findUnitHistory(@Param("unitId") Long unitId, @Param("type") TransactionType type);
 
 
     @Query("SELECT ts.fundType, SUM(ts.amount) " +
@@ -99,4 +119,26 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     Optional<Transaction> findByReferenceId(String referenceId);
 
     Optional<Transaction> findByProofUrl(String url);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.proofUrl FROM Transaction t WHERE t.proofUrl IS NOT NULL")
+    Stream<String> streamProofUrls();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.externalProofUrl FROM Transaction t WHERE t.externalProofUrl IS NOT NULL")
+    Stream<String> streamExternalProofUrls();
+
+    // Residents see only the transactions they are responsible for, managers all of the building's
+    @Query("SELECT new com.smartentrance.backend.dto.activity.ActivityItem(" +
+            "com.smartentrance.backend.dto.enums.ActivityType.TRANSACTION, t.id, t.createdAt, t.description, t.amount) " +
+            "FROM Transaction t " +
+            "WHERE t.building.id = :buildingId " +
+            "AND (:userId IS NULL OR t.responsibleUser.id = :userId) " +
+            "AND (t.createdAt < :cursorAt OR (t.createdAt = :cursorAt AND t.id < :cursorId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<ActivityItem> findActivityPage(@Param("buildingId") Integer buildingId,
+                                        @Param("userId") Long userId,
+                                        @Param("cursorAt") Instant cursorAt,
+                                        @Param("cursorId") Long cursorId,
+                                        Limit limit);
+}
@@ -1,9 +1,13 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.poll.EligibleUnit;
 import com.smartentrance.backend.model.Unit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +18,12 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
 
     boolean existsByAccessCode(String accessCode);
 
+    @Query("SELECT u.accessCode FROM Unit u")
+    List<String> findAllAccessCodes();
+
+    @Query("SELECT u.accessCode FROM Unit u WHERE u.accessCode IN :codes")
+    List<String> findExistingAccessCodes(@Param("codes") Collection<String> codes);
+
     List<Unit> findAllByResponsibleUserId(Long userId);
 
     boolean existsByBuildingIdAndResponsibleUserId(Integer buildingId, Long userId);
@@ -21,4 +31,15 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
     List<Unit> findAllByBuildingIdOrderByUnitNumberAsc(Integer buildingId);
 
     List<Unit> findAllByBuildingId(Integer buildingId);
+
+    List<Unit> findAllByBuildingIdAndUnitNumberIn(Integer buildingId, Collection<Integer> unitNumbers);
+
+    long countByBuildingId(Integer buildingId);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.poll.EligibleUnit(u.id, u.area) FROM Unit u
+        WHERE u.building.id = :buildingId AND u.isVerified = true AND u.responsibleUser IS NOT NULL
+        ORDER BY u.id
+    """)
+    List<EligibleUnit> findEligibleUnits(@Param("buildingId") Integer buildingId);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.poll.CastBallot;
 import com.smartentrance.backend.model.UserVote;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -19,4 +20,7 @@ public interface UserVoteRepository extends JpaRepository<UserVote, Integer> {
 
     @Query("SELECT v FROM UserVote v WHERE v.user.id = :userId AND v.poll.building.id = :buildingId")
     List<UserVote> findAllByUserIdAndBuildingId(@Param("userId") Long userId, @Param("buildingId") Integer buildingId);
+
+    @Query("SELECT new com.smartentrance.backend.dto.poll.CastBallot(v.unit.id, v.option.id) FROM UserVote v WHERE v.poll.id = :pollId")
+    List<CastBallot> findBallotsByPollId(@Param("pollId") Integer pollId);
 }
@@ -1,12 +1,38 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.poll.OptionVoteCount;
 import com.smartentrance.backend.model.VotesOption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface VotesOptionRepository extends JpaRepository<VotesOption, Integer> {
     Optional<VotesOption> findByIdAndPollId(Integer optionId, Integer pollId);
+
+    @Query("SELECT new com.smartentrance.backend.dto.poll.OptionVoteCount(o.id, o.voteCount) FROM VotesOption o WHERE o.poll.id = :pollId ORDER BY o.id")
+    List<OptionVoteCount> findVoteCountsByPollId(@Param("pollId") Integer pollId);
+
+    @Modifying
+    @Query("UPDATE VotesOption o SET o.voteCount = o.voteCount + :countDelta, o.weightedVotes = o.weightedVotes + :weightDelta WHERE o.id = :optionId")
+    int adjustVoteTotals(@Param("optionId") Integer optionId,
+                         @Param("countDelta") long countDelta,
+                         @Param("weightDelta") long weightDelta);
+
+    @Modifying
+    @Query("UPDATE VotesOption o SET o.weightedVotes = :weightedVotes WHERE o.id = :optionId")
+    int setWeightedVotes(@Param("optionId") Integer optionId, @Param("weightedVotes") long weightedVotes);
+
+    @Modifying
+    @Query("UPDATE VotesOption o SET o.voteCount = (SELECT COUNT(v) FROM UserVote v WHERE v.option.id = o.id) WHERE o.poll.id = :pollId")
+    int rebuildVoteCounts(@Param("pollId") Integer pollId);
+
+    @Modifying
+    @Query("UPDATE VotesOption o SET o.voteCount = (SELECT COUNT(v) FROM UserVote v WHERE v.option.id = o.id)")
+    int rebuildAllVoteCounts();
 }
@@ -1,13 +1,20 @@
 package com.smartentrance.backend.repository;
 
+import com.smartentrance.backend.dto.activity.ActivityItem;
+import com.smartentrance.backend.dto.poll.PollSummary;
+import com.smartentrance.backend.dto.poll.VoteTarget;
+import com.smartentrance.backend.model.enums.PollWeighting;
 import com.smartentrance.backend.model.VotesPoll;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VotesPollRepository extends JpaRepository<VotesPoll, Integer> {
@@ -15,6 +22,67 @@ public interface VotesPollRepository extends JpaRepository<VotesPoll, Integer> {
     @Query("SELECT DISTINCT p FROM VotesPoll p LEFT JOIN FETCH p.options WHERE p.building.id = :buildingId ORDER BY p.createdAt DESC")
     List<VotesPoll> findAllByBuildingIdOrderByCreatedAtDesc(@Param("buildingId") Integer buildingId);
 
+    // Keyset pages of summaries; none of these touch options beyond the vote counter sum
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.poll.PollSummary(
+            p.id, p.title, p.createdAt, p.startAt, p.endAt,
+            CASE WHEN p.startAt > :now THEN com.smartentrance.backend.dto.enums.PollStatus.PLANNED
+                 WHEN p.endAt < :now THEN com.smartentrance.backend.dto.enums.PollStatus.COMPLETED
+                 ELSE com.smartentrance.backend.dto.enums.PollStatus.ACTIVE END,
+            (SELECT COALESCE(SUM(o.voteCount), 0) FROM VotesOption o WHERE o.poll = p),
+            p.eligibleVotersCount)
+        FROM VotesPoll p
+        WHERE p.building.id = :buildingId
+        AND (p.createdAt < :cursorAt OR (p.createdAt = :cursorAt AND p.id < :cursorId))
+        ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<PollSummary> findSummaryPage(@Param("buildingId") Integer buildingId,
+                                      @Param("now") Instant now,
+                                      @Param("cursorAt") Instant cursorAt,
+                                      @Param("cursorId") Integer cursorId,
+                                      Limit limit);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.poll.PollSummary(
+            p.id, p.title, p.createdAt, p.startAt, p.endAt,
+            CASE WHEN p.startAt > :now THEN com.smartentrance.backend.dto.enums.PollStatus.PLANNED
+                 WHEN p.endAt < :now THEN com.smartentrance.backend.dto.enums.PollStatus.COMPLETED
+                 ELSE com.smartentrance.backend.dto.enums.PollStatus.ACTIVE END,
+            (SELECT COALESCE(SUM(o.voteCount), 0) FROM VotesOption o WHERE o.poll = p),
+            p.eligibleVotersCount)
+        FROM VotesPoll p
+        WHERE p.building.id = :buildingId
+        AND :now BETWEEN p.startAt AND p.endAt
+        AND (p.endAt > :cursorAt OR (p.endAt = :cursorAt AND p.id > :cursorId))
+        ORDER BY p.endAt ASC, p.id ASC
+    """)
+    List<PollSummary> findActiveSummaryPage(@Param("buildingId") Integer buildingId,
+                                            @Param("now") Instant now,
+                                            @Param("cursorAt") Instant cursorAt,
+                                            @Param("cursorId") Integer cursorId,
+                                            Limit limit);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.poll.PollSummary(
+            p.id, p.title, p.createdAt, p.startAt, p.endAt,
+            CASE WHEN p.startAt > :now THEN com.smartentrance.backend.dto.enums.PollStatus.PLANNED
+                 WHEN p.endAt < :now THEN com.smartentrance.backend.dto.enums.PollStatus.COMPLETED
+                 ELSE com.smartentrance.backend.dto.enums.PollStatus.ACTIVE END,
+            (SELECT COALESCE(SUM(o.voteCount), 0) FROM VotesOption o WHERE o.poll = p),
+            p.eligibleVotersCount)
+        FROM VotesPoll p
+        WHERE p.building.id = :buildingId
+        AND p.endAt < :now
+        AND (p.endAt < :cursorAt OR (p.endAt = :cursorAt AND p.id < :cursorId))
+        ORDER BY p.endAt DESC, p.id DESC
+    """)
+    List<PollSummary> findHistorySummaryPage(@Param("buildingId") Integer buildingId,
+                                             @Param("now") Instant now,
+                                             @Param("cursorAt") Instant cursorAt,
+                                             @Param("cursorId") Integer cursorId,
+                                             Limit limit);
+
     @Query("""
         SELECT DISTINCT p FROM VotesPoll p
         LEFT JOIN FETCH p.options
@@ -24,12 +92,80 @@ public interface VotesPollRepository extends JpaRepository<VotesPoll, Integer> {
     """)
     List<VotesPoll> findAllActive(@Param("buildingId") Integer buildingId, @Param("now") Instant now);
 
+    // Ended polls the finalization job has not reached yet; normally empty
     @Query("""
         SELECT DISTINCT p FROM VotesPoll p
         LEFT JOIN FETCH p.options
         WHERE p.building.id = :buildingId
         AND p.endAt < :now
+        AND NOT EXISTS (SELECT 1 FROM PollResult r WHERE r.pollId = p.id)
         ORDER BY p.endAt DESC
     """)
-    List<VotesPoll> findAllHistory(@Param("buildingId") Integer buildingId, @Param("now") Instant now);
-}
\ No newline at end of file
+    List<VotesPoll> findAllUnfinalizedHistory(@Param("buildingId") Integer buildingId, @Param("now") Instant now);
+
+    @Query("""
+        SELECT p.id FROM VotesPoll p
+        WHERE p.endAt < :now
+        AND NOT EXISTS (SELECT 1 FROM PollResult r WHERE r.pollId = p.id)
+        ORDER BY p.endAt
+    """)
+    List<Integer> findUnfinalizedEndedPollIds(@Param("now") Instant now);
+
+    @Query("SELECT p.id FROM VotesPoll p WHERE :now BETWEEN p.startAt AND p.endAt")
+    List<Integer> findActivePollIds(@Param("now") Instant now);
+
+    @Query("SELECT p.endAt FROM VotesPoll p WHERE p.id = :pollId")
+    Optional<Instant> findEndAtById(@Param("pollId") Integer pollId);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.poll.VoteTarget(
+            p.id, p.startAt, p.endAt, p.building.id,
+            u.id, u.unitNumber, u.building.id, u.responsibleUser.id, u.isVerified,
+            o.id)
+        FROM VotesPoll p
+        JOIN Unit u ON u.id = :unitId
+        LEFT JOIN VotesOption o ON o.poll = p AND o.id = :optionId
+        WHERE p.id = :pollId
+    """)
+    Optional<VoteTarget> findVoteTarget(@Param("pollId") Integer pollId,
+                                        @Param("unitId") Long unitId,
+                                        @Param("optionId") Integer optionId);
+
+    @Query("""
+        SELECT p.id FROM VotesPoll p
+        WHERE p.startAt <= :now AND p.endAt >= :now
+        AND (p.electorateFrozenAt IS NULL OR p.electorateFrozenAt < p.startAt)
+    """)
+    List<Integer> findOpenPollIdsWithoutFrozenElectorate(@Param("now") Instant now);
+
+    @Query("SELECT p.id FROM VotesPoll p WHERE p.weighting = :weighting")
+    List<Integer> findIdsByWeighting(@Param("weighting") PollWeighting weighting);
+
+    // Only the first caller after opening wins; a concurrent freeze updates nothing and re-reads
+    @Modifying
+    @Query("""
+        UPDATE VotesPoll p
+        SET p.eligibleVotersCount = :eligibleCount,
+            p.totalEligibleWeight = :totalWeight,
+            p.electorateFrozenAt = :frozenAt
+        WHERE p.id = :pollId
+        AND (p.electorateFrozenAt IS NULL OR p.electorateFrozenAt < p.startAt)
+    """)
+    int freezeElectorate(@Param("pollId") Integer pollId,
+                         @Param("eligibleCount") Integer eligibleCount,
+                         @Param("totalWeight") Long totalWeight,
+                         @Param("frozenAt") Instant frozenAt);
+
+    @Query("""
+        SELECT new com.smartentrance.backend.dto.activity.ActivityItem(
+            com.smartentrance.backend.dto.enums.ActivityType.POLL, CAST(p.id AS Long), p.createdAt, p.title, p.description)
+        FROM VotesPoll p
+        WHERE p.building.id = :buildingId
+        AND (p.createdAt < :cursorAt OR (p.createdAt = :cursorAt AND p.id < :cursorId))
+        ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<ActivityItem> findActivityPage(@Param("buildingId") Integer buildingId,
+                                        @Param("cursorAt") Instant cursorAt,
+                                        @Param("cursorId") Integer cursorId,
+                                        Limit limit);
+}
@@ -0,0 +1,29 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.security.CodeLookupGuard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bloom filters cannot forget rotated or used codes, so they are rebuilt periodically to keep
+ * the false-positive rate down. Stale brute-force counters are dropped at the same time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CodeFilterRefreshScheduler {
+
+    private final CodeLookupGuard codeLookupGuard;
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 3_600_000)
+    public void refreshCodeFilters() {
+        try {
+            codeLookupGuard.rebuild();
+            codeLookupGuard.evictStaleFailures();
+        } catch (Exception e) {
+            log.error("FAILED: Code filter rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.service.DiskSpaceMonitor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DiskSpaceRefreshScheduler {
+
+    private final DiskSpaceMonitor diskSpaceMonitor;
+
+    @Scheduled(fixedDelay = 30_000)
+    public void refresh() {
+        try {
+            diskSpaceMonitor.refresh();
+        } catch (Exception e) {
+            log.error("FAILED: Disk space refresh failed: {}", e.getMessage(), e);
+        }
+    }
+}
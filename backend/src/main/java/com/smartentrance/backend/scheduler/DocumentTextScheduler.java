@@ -0,0 +1,25 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.service.DocumentTextService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentTextScheduler {
+
+    private final DocumentTextService documentTextService;
+
+    @Scheduled(fixedDelay = 60_000)
+    public void enqueueBacklog() {
+        try {
+            int queued = documentTextService.enqueueBacklog();
+            if (queued > 0) log.info("Queued {} documents for text extraction", queued);
+        } catch (Exception e) {
+            log.error("FAILED: Text extraction sweep failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,75 +1,287 @@
 package com.smartentrance.backend.scheduler;
 
 import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.dto.file.CleanupReport;
 import com.smartentrance.backend.repository.BuildingExpenseRepository;
 import com.smartentrance.backend.repository.DocumentRepository;
+import com.smartentrance.backend.repository.FileAliasRepository;
+import com.smartentrance.backend.repository.FileBlobRepository;
 import com.smartentrance.backend.repository.TransactionRepository;
-import lombok.RequiredArgsConstructor;
+import com.smartentrance.backend.service.ContentAddressedStore;
+import com.smartentrance.backend.service.DiskSpaceMonitor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+/**
+ * Nightly removal of stored files nothing refers to any more.
+ * <p>
+ * Every referenced name is streamed out of the database once into a {@link FileNameSet}; the upload directory
+ * is then walked in parallel and matched in memory, so the database cost does not grow with the number of
+ * files on disk. Anything younger than {@link #GRACE} is left alone: it may belong to an upload whose record
+ * has not been saved yet.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class FileCleanupService {
 
-    private final FileStorageProperties fileStorageProperties;
+    private static final Duration GRACE = Duration.ofHours(24);
+    private static final String OBJECTS_DIR = "objects";
+    private static final int DELETE_BATCH = 1000;
+    private static final Pattern SHA256_NAME = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern DERIVATIVE_NAME = Pattern.compile("([0-9a-f]{64})\\..+");
+
+    private final Path root;
+    private final boolean dryRunByDefault;
     private final TransactionRepository transactionRepository;
     private final BuildingExpenseRepository expenseRepository;
     private final DocumentRepository documentRepository;
+    private final FileAliasRepository aliasRepository;
+    private final FileBlobRepository blobRepository;
+    private final ContentAddressedStore contentStore;
+    private final DiskSpaceMonitor diskSpaceMonitor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public FileCleanupService(FileStorageProperties fileStorageProperties,
+                              TransactionRepository transactionRepository,
+                              BuildingExpenseRepository expenseRepository,
+                              DocumentRepository documentRepository,
+                              FileAliasRepository aliasRepository,
+                              FileBlobRepository blobRepository,
+                              ContentAddressedStore contentStore,
+                              DiskSpaceMonitor diskSpaceMonitor,
+                              PlatformTransactionManager transactionManager) {
+        this.root = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+        this.dryRunByDefault = fileStorageProperties.isCleanupDryRun();
+        this.transactionRepository = transactionRepository;
+        this.expenseRepository = expenseRepository;
+        this.documentRepository = documentRepository;
+        this.aliasRepository = aliasRepository;
+        this.blobRepository = blobRepository;
+        this.contentStore = contentStore;
+        this.diskSpaceMonitor = diskSpaceMonitor;
+        // Repository streams need an open transaction for as long as they are consumed
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     @Scheduled(cron = "0 0 3 * * ?")
     public void cleanupOrphanedFiles() {
-        System.out.println("Starting orphan file cleanup...");
+        try {
+            cleanup(dryRunByDefault);
+        } catch (Exception e) {
+            log.error("FAILED: Orphan file cleanup failed: {}", e.getMessage(), e);
+        }
+    }
 
-        Path uploadDir = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+    /**
+     * Finds and, unless {@code dryRun}, removes unreferenced aliases, blobs without a row and their
+     * thumbnails, unreferenced files left in the flat legacy layout and abandoned partial writes.
+     */
+    public CleanupReport cleanup(boolean dryRun) {
+        long started = System.nanoTime();
+        Instant cutoff = Instant.now().minus(GRACE);
 
-        try (Stream<Path> files = Files.list(uploadDir)) {
-            files.forEach(this::checkAndDeleteFile);
-        } catch (IOException e) {
-            System.err.println("Error reading upload directory: " + e.getMessage());
+        FileNameSet referenced = readOnlyTransaction.execute(status -> loadReferencedNames());
+
+        List<String> orphanedAliases = readOnlyTransaction.execute(status -> {
+            try (Stream<String> names = aliasRepository.streamNamesCreatedBefore(cutoff)) {
+                return names.filter(name -> !referenced.contains(name)).toList();
+            }
+        });
+        if (!dryRun) {
+            for (String name : orphanedAliases) {
+                try {
+                    contentStore.release(name);
+                } catch (Exception e) {
+                    log.error("FAILED: Could not release orphaned file {}: {}", name, e.getMessage());
+                }
+            }
+        }
+
+        // Read after the releases above so the blobs they just dropped do not show up as orphans
+        FileNameSet knownBlobs = readOnlyTransaction.execute(status -> {
+            try (Stream<String> hashes = blobRepository.streamHashes()) {
+                return collect(hashes);
+            }
+        });
+
+        List<Orphan> orphans = new ArrayList<>();
+        orphans.addAll(scanObjects(cutoff, knownBlobs));
+        orphans.addAll(scanLegacy(cutoff, referenced));
+
+        long reclaimed = dryRun ? orphans.stream().mapToLong(Orphan::size).sum() : delete(orphans);
+        if (!dryRun && reclaimed > 0) {
+            diskSpaceMonitor.refresh();
         }
+
+        CleanupReport report = new CleanupReport(
+                dryRun,
+                referenced.size(),
+                orphanedAliases.size(),
+                count(orphans, Kind.BLOB),
+                count(orphans, Kind.DERIVATIVE),
+                count(orphans, Kind.LEGACY),
+                count(orphans, Kind.PARTIAL),
+                reclaimed,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        log.info("Orphan file cleanup{}: {}", dryRun ? " (dry run)" : "", report);
+        return report;
     }
 
-    private void checkAndDeleteFile(Path filePath) {
-        try {
-            BasicFileAttributes attrs = Files.readAttributes(filePath, BasicFileAttributes.class);
-            Instant fileTime = attrs.creationTime().toInstant();
+    /**
+     * Reduces a stored reference to the bare file name. Receipts store the name itself, notices
+     * {@code /api/uploads/files/<name>} and client-supplied links may be absolute URLs with a query string.
+     */
+    public static String toFileName(String url) {
+        if (url == null) return null;
 
-            if (fileTime.isAfter(Instant.now().minus(24, ChronoUnit.HOURS))) {
-                return;
-            }
+        int end = url.length();
+        int query = url.indexOf('?');
+        if (query >= 0) end = query;
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && fragment < end) end = fragment;
 
-            String fileName = filePath.getFileName().toString();
+        String name = url.substring(url.lastIndexOf('/', end - 1) + 1, end).strip();
+        return name.isEmpty() ? null : name;
+    }
 
-            boolean isUsed = isFileUsedInDatabase(fileName);
+    private FileNameSet loadReferencedNames() {
+        FileNameSet.Builder names = FileNameSet.builder();
+        addFileNames(names, transactionRepository.streamProofUrls());
+        addFileNames(names, transactionRepository.streamExternalProofUrls());
+        addFileNames(names, expenseRepository.streamDocumentUrls());
+        addFileNames(names, documentRepository.streamFileUrls());
+        return names.build();
+    }
 
-            if (!isUsed) {
-                Files.delete(filePath);
-                System.out.println("Deleted orphaned file: " + fileName);
-            }
+    private static void addFileNames(FileNameSet.Builder names, Stream<String> urls) {
+        try (urls) {
+            urls.map(FileCleanupService::toFileName).filter(name -> name != null).forEach(names::add);
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Failed to process file: " + filePath);
+    private static FileNameSet collect(Stream<String> names) {
+        FileNameSet.Builder set = FileNameSet.builder();
+        names.forEach(set::add);
+        return set.build();
+    }
+
+    // objects/ab/cd/<hash>: the 256 top-level shards are walked concurrently
+    private List<Orphan> scanObjects(Instant cutoff, FileNameSet knownBlobs) {
+        Path objectsRoot = root.resolve(OBJECTS_DIR);
+        if (!Files.isDirectory(objectsRoot)) return List.of();
+
+        try (Stream<Path> shards = Files.list(objectsRoot)) {
+            return shards.toList().parallelStream()
+                    .filter(Files::isDirectory)
+                    .flatMap(shard -> walk(shard, cutoff, name -> {
+                        if (name.endsWith(".part")) return Kind.PARTIAL;
+                        if (SHA256_NAME.matcher(name).matches()) {
+                            return knownBlobs.contains(name) ? null : Kind.BLOB;
+                        }
+                        // Thumbnails outliving their blob, e.g. rendered while it was being released
+                        Matcher derivative = DERIVATIVE_NAME.matcher(name);
+                        if (derivative.matches()) {
+                            return knownBlobs.contains(derivative.group(1)) ? null : Kind.DERIVATIVE;
+                        }
+                        return null;
+                    }).stream())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private boolean isFileUsedInDatabase(String fileName) {
+    // Files written before the content store, still addressed by their public name
+    private List<Orphan> scanLegacy(Instant cutoff, FileNameSet referenced) {
+        if (!Files.isDirectory(root)) return List.of();
+
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> classify(file, cutoff, name -> {
+                        if (name.startsWith(".upload-") && name.endsWith(".part")) return Kind.PARTIAL;
+                        if (name.startsWith(".")) return null;
+                        return referenced.contains(name) ? null : Kind.LEGACY;
+                    }))
+                    .filter(orphan -> orphan != null)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        if (transactionRepository.findByProofUrl(fileName).isPresent()) return true;
+    private List<Orphan> walk(Path dir, Instant cutoff, Classifier classifier) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> classify(file, cutoff, classifier))
+                    .filter(orphan -> orphan != null)
+                    .toList();
+        } catch (IOException e) {
+            log.error("FAILED: Could not scan {}: {}", dir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Orphan classify(Path file, Instant cutoff, Classifier classifier) {
+        Kind kind = classifier.classify(file.getFileName().toString());
+        if (kind == null) return null;
+
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attrs.lastModifiedTime().toInstant().isAfter(cutoff)) return null;
+            return new Orphan(file, attrs.size(), kind);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long delete(List<Orphan> orphans) {
+        AtomicLong reclaimed = new AtomicLong();
+        for (int from = 0; from < orphans.size(); from += DELETE_BATCH) {
+            List<Orphan> batch = orphans.subList(from, Math.min(from + DELETE_BATCH, orphans.size()));
+            batch.parallelStream().forEach(orphan -> {
+                try {
+                    boolean deleted = orphan.kind() == Kind.BLOB
+                            ? contentStore.deleteOrphanedBlob(orphan.path().getFileName().toString())
+                            : Files.deleteIfExists(orphan.path());
+                    if (deleted) reclaimed.addAndGet(orphan.size());
+                } catch (IOException e) {
+                    log.error("FAILED: Could not delete orphaned file {}: {}", orphan.path(), e.getMessage());
+                }
+            });
+            log.debug("Deleted orphan batch {}-{} of {}", from, from + batch.size(), orphans.size());
+        }
+        return reclaimed.get();
+    }
+
+    private static int count(List<Orphan> orphans, Kind kind) {
+        return (int) orphans.stream().filter(orphan -> orphan.kind() == kind).count();
+    }
 
-        if (expenseRepository.existsByDocumentUrl(fileName)) return true;
+    private enum Kind { BLOB, DERIVATIVE, LEGACY, PARTIAL }
 
-        if (documentRepository.findByFileUrl(fileName).isPresent()) return true;
+    private record Orphan(Path path, long size, Kind kind) {}
 
-        return false;
+    @FunctionalInterface
+    private interface Classifier {
+        Kind classify(String name);
     }
-}
\ No newline at end of file
+}
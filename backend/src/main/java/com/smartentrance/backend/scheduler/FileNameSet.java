@@ -0,0 +1,71 @@
+package com.smartentrance.backend.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Read-only set of file names kept as a sorted array of 64-bit hashes: about 8 bytes per name instead of a
+ * {@code HashSet<String>} entry's ~100, so a million references fit in 8 MB.
+ * <p>
+ * A hash collision can only make {@link #contains} answer true for a name that was never added, which makes
+ * the cleanup keep a file it could have deleted - never the other way round.
+ */
+final class FileNameSet {
+
+    private final long[] hashes;
+
+    private FileNameSet(long[] hashes) {
+        this.hashes = hashes;
+    }
+
+    boolean contains(String name) {
+        return Arrays.binarySearch(hashes, hash(name)) >= 0;
+    }
+
+    int size() {
+        return hashes.length;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+
+        private long[] hashes = new long[1024];
+        private int size;
+
+        Builder add(String name) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = hash(name);
+            return this;
+        }
+
+        FileNameSet build() {
+            long[] sorted = Arrays.copyOf(hashes, size);
+            Arrays.sort(sorted);
+
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) sorted[distinct++] = sorted[i];
+            }
+            return new FileNameSet(Arrays.copyOf(sorted, distinct));
+        }
+    }
+
+    // FNV-1a over the UTF-16 chars, then the MurmurHash3 finalizer to spread short, similar names
+    private static long hash(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            h ^= name.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
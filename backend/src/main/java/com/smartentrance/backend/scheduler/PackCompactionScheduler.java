@@ -0,0 +1,37 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.service.ContentAddressedStore;
+import com.smartentrance.backend.service.PackCompactor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PackCompactionScheduler {
+
+    private final ContentAddressedStore contentStore;
+    private final PackCompactor packCompactor;
+
+    @Scheduled(fixedDelay = 300_000)
+    public void flushReads() {
+        try {
+            contentStore.flushReads();
+        } catch (Exception e) {
+            log.error("FAILED: Could not record file reads: {}", e.getMessage(), e);
+        }
+    }
+
+    // Sunday night, after the orphan cleanup, so released blobs are not packed first
+    @Scheduled(cron = "0 30 4 * * SUN")
+    public void compactAndVerify() {
+        try {
+            packCompactor.compactCold();
+            packCompactor.verify();
+        } catch (Exception e) {
+            log.error("FAILED: Pack compaction failed: {}", e.getMessage(), e);
+        }
+    }
+}
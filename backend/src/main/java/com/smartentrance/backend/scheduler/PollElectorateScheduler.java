@@ -0,0 +1,25 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.service.ElectorateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PollElectorateScheduler {
+
+    private final ElectorateService electorateService;
+
+    @Scheduled(fixedDelay = 60_000)
+    public void freezeOpenedPolls() {
+        try {
+            electorateService.freezeOpenedPolls();
+            electorateService.evictEndedPolls();
+        } catch (Exception e) {
+            log.error("FAILED: Electorate freeze failed: {}", e.getMessage(), e);
+        }
+    }
+}
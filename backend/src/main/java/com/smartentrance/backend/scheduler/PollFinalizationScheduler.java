@@ -0,0 +1,24 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.service.PollResultService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PollFinalizationScheduler {
+
+    private final PollResultService pollResultService;
+
+    @Scheduled(fixedDelay = 60_000)
+    public void finalizeEndedPolls() {
+        try {
+            pollResultService.finalizeEndedPolls();
+        } catch (Exception e) {
+            log.error("FAILED: Poll finalization failed: {}", e.getMessage(), e);
+        }
+    }
+}
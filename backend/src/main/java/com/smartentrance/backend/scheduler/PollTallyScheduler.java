@@ -0,0 +1,33 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.service.PollTallyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PollTallyScheduler {
+
+    private final PollTallyService pollTallyService;
+
+    @Scheduled(fixedDelay = 1000)
+    public void broadcastTallies() {
+        try {
+            pollTallyService.broadcastChanges();
+        } catch (Exception e) {
+            log.error("FAILED: Poll tally broadcast failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 30_000)
+    public void refreshTallies() {
+        try {
+            pollTallyService.refreshActiveTallies();
+        } catch (Exception e) {
+            log.error("FAILED: Poll tally refresh failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.smartentrance.backend.search;
+
+import com.smartentrance.backend.dto.search.SearchHit;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * The inverted index of one building: term to postings (document and term frequency), ranked with Okapi BM25.
+ * <p>
+ * Title terms count {@value #TITLE_WEIGHT} times, so a match in the title outranks one in the text. The last
+ * query term also matches as a prefix, which lets results follow the user while they type.
+ */
+final class BuildingIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    static final int TITLE_WEIGHT = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score)
+            .thenComparing(scored -> scored.entry().document.at())
+            .thenComparing(scored -> scored.entry().document.id());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Map<Entry, Integer>> postings = new TreeMap<>();
+    private long totalLength;
+    private boolean loaded;
+
+    /**
+     * Fills the index from the database the first time it is used. Writes committed meanwhile are either in
+     * what the loader reads or applied after it under the same lock, so none is lost.
+     */
+    void load(Supplier<List<IndexedDocument>> loader) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) return;
+            for (IndexedDocument document : loader.get()) {
+                putLocked(document);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes {@code document}. Metadata updates carry no file text; the text already indexed for it is kept.
+     */
+    void put(IndexedDocument document) {
+        lock.writeLock().lock();
+        try {
+            putLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putText(String key, String content) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) putLocked(entry.document.withContent(content));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<SearchHit> search(String query, boolean includeHidden, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.terms(query)));
+        if (terms.isEmpty()) return List.of();
+        // A query still being typed ends inside a word
+        boolean prefixLast = Character.isLetterOrDigit(query.codePointBefore(query.length()));
+
+        lock.readLock().lock();
+        try {
+            if (entries.isEmpty()) return List.of();
+            double averageLength = (double) totalLength / entries.size();
+
+            Map<Entry, Double> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                Map<Entry, Double> best = new HashMap<>();
+                for (Map<Entry, Integer> postingList : matches(term, prefixLast && i == terms.size() - 1)) {
+                    double idf = Math.log(1 + (entries.size() - postingList.size() + 0.5) / (postingList.size() + 0.5));
+                    postingList.forEach((entry, frequency) -> {
+                        if (!includeHidden && !entry.document.visibleToResidents()) return;
+                        double norm = K1 * (1 - B + B * entry.length / averageLength);
+                        best.merge(entry, idf * frequency * (K1 + 1) / (frequency + norm), Math::max);
+                    });
+                }
+                best.forEach((entry, score) -> scores.merge(entry, score, Double::sum));
+            }
+
+            // Keeps the best hits in a min-heap of size limit instead of sorting every match
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, RANKING);
+            scores.forEach((entry, score) -> {
+                top.add(new Scored(entry, score));
+                if (top.size() > limit) top.poll();
+            });
+
+            List<SearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Scored scored = top.poll();
+                IndexedDocument document = scored.entry().document;
+                hits.add(new SearchHit(document.type(), document.id(), document.title(), document.at(), scored.score()));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Map<Entry, Integer>> matches(String term, boolean prefix) {
+        if (!prefix) {
+            Map<Entry, Integer> exact = postings.get(term);
+            return exact != null ? List.of(exact) : List.of();
+        }
+        List<Map<Entry, Integer>> expanded = new ArrayList<>();
+        for (Map<Entry, Integer> postingList : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            expanded.add(postingList);
+            if (expanded.size() == MAX_PREFIX_EXPANSIONS) break;
+        }
+        return expanded;
+    }
+
+    private void putLocked(IndexedDocument document) {
+        Entry previous = entries.get(document.key());
+        if (document.content() == null && previous != null && previous.document.content() != null) {
+            document = document.withContent(previous.document.content());
+        }
+        removeLocked(document.key());
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : TextAnalyzer.terms(document.title())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String text : new String[]{document.description(), document.detail(), document.content()}) {
+            for (String term : TextAnalyzer.terms(text)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+        }
+
+        int length = 0;
+        for (int frequency : frequencies.values()) length += frequency;
+        Entry entry = new Entry(document, frequencies, length);
+        entries.put(document.key(), entry);
+        totalLength += length;
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(entry, frequency));
+    }
+
+    private void removeLocked(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return;
+        totalLength -= entry.length;
+        for (String term : entry.frequencies.keySet()) {
+            Map<Entry, Integer> postingList = postings.get(term);
+            postingList.remove(entry);
+            if (postingList.isEmpty()) postings.remove(term);
+        }
+    }
+
+    // Compared by identity: a re-indexed document is a new entry
+    private static final class Entry {
+        final IndexedDocument document;
+        final Map<String, Integer> frequencies;
+        final int length;
+
+        Entry(IndexedDocument document, Map<String, Integer> frequencies, int length) {
+            this.document = document;
+            this.frequencies = frequencies;
+            this.length = length;
+        }
+    }
+
+    private record Scored(Entry entry, double score) {}
+}
@@ -0,0 +1,40 @@
+package com.smartentrance.backend.search;
+
+import com.smartentrance.backend.dto.enums.ActivityType;
+
+import java.time.Instant;
+
+/**
+ * The searchable text of a notice or building document. {@code detail} is the notice location, {@code content}
+ * the text extracted from a document's file; hidden documents are only matched for managers.
+ */
+public record IndexedDocument(
+        ActivityType type,
+        Long id,
+        String title,
+        String description,
+        String detail,
+        String content,
+        Instant at,
+        boolean visibleToResidents
+) {
+    public IndexedDocument(ActivityType type, Long id, String title, String description, String detail, Instant at) {
+        this(type, id, title, description, detail, null, at, true);
+    }
+
+    public IndexedDocument(ActivityType type, Long id, String title, String description, String content, Instant at, boolean visibleToResidents) {
+        this(type, id, title, description, null, content, at, visibleToResidents);
+    }
+
+    IndexedDocument withContent(String content) {
+        return new IndexedDocument(type, id, title, description, detail, content, at, visibleToResidents);
+    }
+
+    String key() {
+        return key(type, id);
+    }
+
+    static String key(ActivityType type, Long id) {
+        return type.name() + ":" + id;
+    }
+}
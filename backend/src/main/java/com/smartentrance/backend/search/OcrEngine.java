@@ -0,0 +1,17 @@
+package com.smartentrance.backend.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+
+/**
+ * Optional hook for reading text from scanned images. None ships with the backend; declaring a bean (for
+ * example around a Tesseract installation) makes {@link TextExtractor} index uploaded images as well.
+ */
+public interface OcrEngine {
+
+    /**
+     * The recognized text, giving up and returning what it has once {@code deadline} passes.
+     */
+    String recognize(InputStream image, String contentType, Instant deadline) throws IOException;
+}
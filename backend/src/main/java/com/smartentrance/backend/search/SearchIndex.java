@@ -0,0 +1,89 @@
+package com.smartentrance.backend.search;
+
+import com.smartentrance.backend.dto.enums.ActivityType;
+import com.smartentrance.backend.dto.search.SearchHit;
+import com.smartentrance.backend.repository.DocumentRepository;
+import com.smartentrance.backend.repository.NoticeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory full-text index of notices and building documents, one {@link BuildingIndex} per building.
+ * <p>
+ * A building is read from the database on its first search and kept current by {@link SearchIndexListener}
+ * after each commit. {@link #rebuild} drops it, so the next search reads it afresh. The index lives in this
+ * instance only; other instances build their own.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndex {
+
+    private final NoticeRepository noticeRepository;
+    private final DocumentRepository documentRepository;
+
+    private final Map<Integer, BuildingIndex> indexes = new ConcurrentHashMap<>();
+
+    public List<SearchHit> search(Integer buildingId, String query, boolean includeHidden, int limit) {
+        BuildingIndex index = indexes.computeIfAbsent(buildingId, id -> new BuildingIndex());
+        index.load(() -> read(buildingId));
+        return index.search(query, includeHidden, limit);
+    }
+
+    public void rebuild(Integer buildingId) {
+        indexes.remove(buildingId);
+    }
+
+    /**
+     * Indexes {@code document} once the current transaction commits. Buildings nobody has searched yet are
+     * skipped; they are read from the database when they are.
+     */
+    public void put(Integer buildingId, IndexedDocument document) {
+        afterCommit(() -> {
+            BuildingIndex index = indexes.get(buildingId);
+            if (index != null) index.put(document);
+        });
+    }
+
+    /**
+     * Adds the text extracted from a document's file to its index entry once the current transaction commits.
+     */
+    public void putText(Integer buildingId, Long documentId, String content) {
+        afterCommit(() -> {
+            BuildingIndex index = indexes.get(buildingId);
+            if (index != null) index.putText(IndexedDocument.key(ActivityType.DOCUMENT, documentId), content);
+        });
+    }
+
+    public void remove(Integer buildingId, ActivityType type, Long id) {
+        afterCommit(() -> {
+            BuildingIndex index = indexes.get(buildingId);
+            if (index != null) index.remove(IndexedDocument.key(type, id));
+        });
+    }
+
+    private List<IndexedDocument> read(Integer buildingId) {
+        List<IndexedDocument> documents = new ArrayList<>(noticeRepository.findIndexedDocuments(buildingId));
+        documents.addAll(documentRepository.findIndexedDocuments(buildingId));
+        return documents;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.smartentrance.backend.search;
+
+import com.smartentrance.backend.dto.enums.ActivityType;
+import com.smartentrance.backend.model.BuildingDocument;
+import com.smartentrance.backend.model.Notice;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on notices and building documents that keeps {@link SearchIndex} in step with every save and delete.
+ */
+@Component
+public class SearchIndexListener {
+
+    private final SearchIndex searchIndex;
+
+    public SearchIndexListener(@Lazy SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        switch (entity) {
+            case Notice notice -> searchIndex.put(notice.getBuilding().getId(), new IndexedDocument(ActivityType.NOTICE,
+                    notice.getId().longValue(), notice.getTitle(), notice.getDescription(), notice.getLocation(), notice.getCreatedAt()));
+            case BuildingDocument document -> searchIndex.put(document.getBuilding().getId(), new IndexedDocument(ActivityType.DOCUMENT,
+                    document.getId(), document.getTitle(), document.getDescription(), null, document.getCreatedAt(), document.isVisibleToResidents()));
+            default -> {}
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        switch (entity) {
+            case Notice notice -> searchIndex.remove(notice.getBuilding().getId(), ActivityType.NOTICE, notice.getId().longValue());
+            case BuildingDocument document -> searchIndex.remove(document.getBuilding().getId(), ActivityType.DOCUMENT, document.getId());
+            default -> {}
+        }
+    }
+}
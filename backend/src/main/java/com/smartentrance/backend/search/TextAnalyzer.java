@@ -0,0 +1,40 @@
+package com.smartentrance.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into lower-case terms: runs of letters and digits in any script, so Cyrillic and Latin
+ * are treated alike. Single letters are dropped; single digits are kept for entrance and floor numbers.
+ */
+final class TextAnalyzer {
+
+    static final int MAX_TERM_LENGTH = 40;
+
+    private TextAnalyzer() {}
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) return terms;
+
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                if (term.length() < MAX_TERM_LENGTH) term.appendCodePoint(Character.toLowerCase(cp));
+            } else {
+                flush(term, terms);
+            }
+        }
+        flush(term, terms);
+        return terms;
+    }
+
+    private static void flush(StringBuilder term, List<String> terms) {
+        if (term.length() > 1 || (term.length() == 1 && Character.isDigit(term.charAt(0)))) {
+            terms.add(term.toString());
+        }
+        term.setLength(0);
+    }
+}
@@ -0,0 +1,105 @@
+package com.smartentrance.backend.search;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.smartentrance.backend.config.FileStorageProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the text of stored files for search: PDFs page by page, plain text as it is, and images through an
+ * {@link OcrEngine} when one is configured.
+ * <p>
+ * Output is capped at {@code maxChars} and PDFs at {@code maxPages} and {@code maxFileSize}. The time limit is
+ * checked between pages, so a slow file yields the pages read until then rather than nothing.
+ */
+@Component
+public class TextExtractor {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ObjectProvider<OcrEngine> ocrEngine;
+    private final FileStorageProperties.TextExtraction limits;
+
+    public TextExtractor(ObjectProvider<OcrEngine> ocrEngine, FileStorageProperties fileStorageProperties) {
+        this.ocrEngine = ocrEngine;
+        this.limits = fileStorageProperties.getTextExtraction();
+    }
+
+    /**
+     * The text of a file of {@code contentType}, or empty when that type cannot be read.
+     */
+    public Optional<String> extract(InputStream in, String contentType) throws IOException {
+        if (contentType == null) return Optional.empty();
+        Instant deadline = Instant.now().plus(limits.getTimeout());
+
+        if (MediaType.APPLICATION_PDF_VALUE.equals(contentType)) {
+            return Optional.of(pdf(in, deadline));
+        }
+        if (contentType.startsWith("text/")) {
+            return Optional.of(plain(in));
+        }
+        if (contentType.startsWith("image/")) {
+            OcrEngine engine = ocrEngine.getIfAvailable();
+            return engine != null ? Optional.of(normalize(engine.recognize(in, contentType, deadline))) : Optional.empty();
+        }
+        return Optional.empty();
+    }
+
+    private String pdf(InputStream in, Instant deadline) throws IOException {
+        // PdfReader buffers the whole stream before parsing, so bound it first
+        long maxBytes = limits.getMaxFileSize().toBytes();
+        byte[] bytes = in.readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE - 8));
+        if (bytes.length > maxBytes) {
+            throw new IOException("PDF larger than " + limits.getMaxFileSize());
+        }
+        PdfReader reader;
+        try {
+            reader = new PdfReader(bytes);
+        } catch (RuntimeException e) {
+            throw new IOException("Unreadable PDF: " + e.getMessage(), e);
+        }
+        try {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            int pages = Math.min(reader.getNumberOfPages(), limits.getMaxPages());
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= pages && text.length() < limits.getMaxChars(); page++) {
+                if (page > 1 && Instant.now().isAfter(deadline)) break;
+                text.append(extractor.getTextFromPage(page)).append('\n');
+            }
+            return normalize(text);
+        } catch (RuntimeException e) {
+            throw new IOException("Unreadable PDF: " + e.getMessage(), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private String plain(InputStream in) throws IOException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while (text.length() < limits.getMaxChars() && (read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, read);
+        }
+        return normalize(text);
+    }
+
+    // Layout whitespace only inflates the stored text; the analyzer splits on it either way
+    private String normalize(CharSequence text) {
+        if (text == null) return "";
+        String collapsed = WHITESPACE.matcher(text).replaceAll(" ").strip();
+        return collapsed.length() > limits.getMaxChars() ? collapsed.substring(0, limits.getMaxChars()) : collapsed;
+    }
+}
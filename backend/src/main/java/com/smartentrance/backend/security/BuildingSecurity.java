@@ -59,18 +59,9 @@ public class BuildingSecurity {
                 .orElse(false);
     }
 
-    public boolean canVote(Integer pollId, Long unitId, User user) {
-        return pollRepository.findById(pollId)
-                .map(poll -> unitRepository.findById(unitId)
-                        .map(unit -> {
-                            boolean isResponsible = unit.getResponsibleUser() != null
-                                    && unit.getResponsibleUser().getId().equals(user.getId());
-
-                            boolean sameBuilding = unit.getBuilding().getId().equals(poll.getBuilding().getId());
-
-                            return isResponsible && sameBuilding && unit.isVerified();
-                        })
-                        .orElse(false))
+    public boolean hasAccessByNoticeId(Integer noticeId, User user) {
+        return noticeRepository.findById(noticeId)
+                .map(notice -> hasAccess(notice.getBuilding().getId(), user))
                 .orElse(false);
     }
 
@@ -0,0 +1,184 @@
+package com.smartentrance.backend.security;
+
+import com.smartentrance.backend.exception.RateLimitExceededException;
+import com.smartentrance.backend.model.enums.InvitationStatus;
+import com.smartentrance.backend.repository.InvitationRepository;
+import com.smartentrance.backend.repository.UnitRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front door for access-code and invitation-code lookups.
+ * <p>
+ * Live codes are mirrored into in-memory Bloom filters, so a guess that was never issued is rejected
+ * without touching the database. Every miss counts against the caller (user, or IP when anonymous);
+ * after {@link #FREE_FAILURES} misses each further one doubles the lockout, up to {@link #MAX_LOCKOUT_MS}.
+ * <p>
+ * Until the first {@link #rebuild()} completes the filters answer "maybe" and callers fall back to the DB.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CodeLookupGuard {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final int FREE_FAILURES = 5;
+    private static final long MAX_LOCKOUT_MS = TimeUnit.MINUTES.toMillis(15);
+    private static final long FAILURE_MEMORY_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final UnitRepository unitRepository;
+    private final InvitationRepository invitationRepository;
+
+    private final Map<String, FailureState> failures = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter accessCodes = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+    private volatile BloomFilter invitationCodes = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+    private volatile Set<String> registeredDuringRebuild;
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean mightBeAccessCode(String code) {
+        return code != null && (!loaded || accessCodes.mightContain(code));
+    }
+
+    public boolean mightBeInvitationCode(String code) {
+        return code != null && (!loaded || invitationCodes.mightContain(code));
+    }
+
+    public void registerAccessCode(String code) {
+        register(code, true);
+    }
+
+    public void registerInvitationCode(String code) {
+        register(code, false);
+    }
+
+    /**
+     * Rebuilds both filters from the database and swaps them in. Codes registered while the
+     * queries run are replayed into the new filters, so nothing issued concurrently is lost.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        registeredDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            List<String> units = unitRepository.findAllAccessCodes();
+            List<String> invitations = invitationRepository.findCodesByStatusAndExpiresAtAfter(InvitationStatus.PENDING, Instant.now());
+
+            BloomFilter nextAccess = new BloomFilter(Math.max(MIN_CAPACITY, units.size() * 2L), FALSE_POSITIVE_RATE);
+            units.forEach(nextAccess::put);
+
+            BloomFilter nextInvitations = new BloomFilter(Math.max(MIN_CAPACITY, invitations.size() * 2L), FALSE_POSITIVE_RATE);
+            invitations.forEach(nextInvitations::put);
+
+            accessCodes = nextAccess;
+            invitationCodes = nextInvitations;
+
+            for (String entry : registeredDuringRebuild) {
+                (entry.charAt(0) == 'A' ? nextAccess : nextInvitations).put(entry.substring(1));
+            }
+            loaded = true;
+            log.debug("Code filters rebuilt: {} access codes, {} pending invitations", units.size(), invitations.size());
+        } finally {
+            registeredDuringRebuild = null;
+        }
+    }
+
+    public void checkNotLocked() {
+        String source = resolveSource();
+        if (source == null) return;
+
+        FailureState state = failures.get(source);
+        long now = System.currentTimeMillis();
+        if (state != null && state.lockedUntil > now) {
+            throw new RateLimitExceededException(Math.max(1, (state.lockedUntil - now + 999) / 1000));
+        }
+    }
+
+    public void recordFailure() {
+        String source = resolveSource();
+        if (source == null) return;
+
+        long now = System.currentTimeMillis();
+        failures.compute(source, (key, previous) -> {
+            int count = previous == null || now - previous.lastFailureAt > FAILURE_MEMORY_MS ? 1 : previous.count + 1;
+            long lockedUntil = 0;
+            if (count > FREE_FAILURES) {
+                int exponent = Math.min(count - FREE_FAILURES - 1, 20);
+                lockedUntil = now + Math.min(MAX_LOCKOUT_MS, 1000L << exponent);
+            }
+            return new FailureState(count, now, lockedUntil);
+        });
+    }
+
+    public void evictStaleFailures() {
+        long now = System.currentTimeMillis();
+        failures.values().removeIf(state -> now - state.lastFailureAt > FAILURE_MEMORY_MS && state.lockedUntil < now);
+    }
+
+    private void register(String code, boolean accessCode) {
+        if (code == null) return;
+
+        addToFilter(code, accessCode);
+
+        // A rebuild that started before this transaction commits may not see the row yet
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToFilter(code, accessCode);
+                }
+            });
+        }
+    }
+
+    private void addToFilter(String code, boolean accessCode) {
+        BloomFilter filter = accessCode ? accessCodes : invitationCodes;
+        filter.put(code);
+
+        Set<String> pending = registeredDuringRebuild;
+        if (pending != null) {
+            pending.add((accessCode ? "A" : "I") + code);
+
+            // The swap may have happened after our first read, and the replay may already have run
+            BloomFilter current = accessCode ? accessCodes : invitationCodes;
+            if (current != filter) {
+                current.put(code);
+            }
+        }
+    }
+
+    private String resolveSource() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserPrincipal principal && principal.user().getId() != null) {
+            return "user:" + principal.user().getId();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return "ip:" + request.getRemoteAddr();
+        }
+        return null;
+    }
+
+    private record FailureState(int count, long lastFailureAt, long lockedUntil) {}
+}
@@ -1,5 +1,6 @@
 package com.smartentrance.backend.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,6 +21,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final SignedUrlFilter signedUrlFilter;
     private final AuthenticationProvider authenticationProvider;
     private final DelegatedAuthenticationEntryPoint authEntryPoint;
 
@@ -31,6 +33,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable) // For the purposes of this project, csrf is disabled.
 
                 .authorizeHttpRequests(auth -> auth
+                        // Long-lived responses (SSE) re-enter the chain on async dispatch; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/invitations/validate",
@@ -47,6 +51,9 @@ public class SecurityConfig {
 
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
 
+                // Signed download links are checked first, so they skip JWT parsing altogether
+                .addFilterBefore(signedUrlFilter, JwtAuthenticationFilter.class)
+
                 .exceptionHandling(exc -> exc.authenticationEntryPoint(authEntryPoint));
 
         return http.build();
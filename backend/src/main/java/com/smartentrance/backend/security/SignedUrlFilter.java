@@ -0,0 +1,64 @@
+package com.smartentrance.backend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Lets a download through on a valid {@link SignedUrlService} signature alone, ahead of the JWT filter.
+ * A missing, expired or forged signature authenticates nothing and the request falls back to the session cookie.
+ */
+@Component
+@RequiredArgsConstructor
+public class SignedUrlFilter extends OncePerRequestFilter {
+
+    private final SignedUrlService signedUrlService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method))
+                || !request.getRequestURI().startsWith(request.getContextPath() + SignedUrlService.FILES_PATH)
+                || request.getParameter(SignedUrlService.SIGNATURE_PARAM) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String fileName = request.getRequestURI()
+                .substring(request.getContextPath().length() + SignedUrlService.FILES_PATH.length());
+        long expires = parseExpires(request.getParameter(SignedUrlService.EXPIRES_PARAM));
+        String signature = request.getParameter(SignedUrlService.SIGNATURE_PARAM);
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null
+                && signedUrlService.verify(fileName, expires, signature, System.currentTimeMillis() / 1000)) {
+            // Grants nothing beyond this request: the signature names the file and the chain ends at the download
+            SecurityContextHolder.getContext().setAuthentication(
+                    new PreAuthenticatedAuthenticationToken(fileName, null, AuthorityUtils.NO_AUTHORITIES));
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static long parseExpires(String value) {
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.smartentrance.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Short-lived download links: {@code /api/uploads/files/<name>?expires=<epoch seconds>&signature=<HMAC>}.
+ * <p>
+ * The HMAC covers the file name and the expiry, so a link opens exactly one file until it expires, with no
+ * database lookup or JWT parsing. Verification reuses a per-thread {@link Mac} and buffers and compares in
+ * constant time.
+ */
+@Service
+public class SignedUrlService {
+
+    public static final String FILES_PATH = "/api/uploads/files/";
+    public static final String EXPIRES_PARAM = "expires";
+    public static final String SIGNATURE_PARAM = "signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    // Unpadded base64url of 32 bytes
+    private static final int SIGNATURE_LENGTH = 43;
+    // Expiries are rounded up to this step, so lists fetched a few seconds apart link to the same URLs
+    // and the browser cache keeps working
+    private static final long EXPIRY_STEP_SECONDS = 300;
+
+    private static final byte[] BASE64URL_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Buffers> buffers;
+
+    public SignedUrlService(@Value("${application.security.jwt.secret-key}") String jwtSecret,
+                            @Value("${application.security.signed-urls.ttl:15m}") Duration ttl) {
+        // A key of its own, derived from the JWT secret, so a leaked link says nothing about session tokens
+        this.key = new SecretKeySpec(hmac(jwtSecret.getBytes(StandardCharsets.UTF_8),
+                "signed-download-urls".getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+        this.ttl = ttl;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(newMac(key)));
+    }
+
+    /**
+     * The signed path of a stored file, relative to the API base URL.
+     */
+    public String sign(String fileName) {
+        return sign(fileName, Instant.now());
+    }
+
+    /**
+     * Signs a link as stored on documents, {@code /api/uploads/files/<name>}. Anything else, such as an
+     * external URL, is returned as it is.
+     */
+    public String signStoredUrl(String storedUrl) {
+        String plain = stripSignature(storedUrl);
+        if (plain == null || !plain.startsWith(FILES_PATH) || plain.length() == FILES_PATH.length()) {
+            return storedUrl;
+        }
+        return sign(plain.substring(FILES_PATH.length()));
+    }
+
+    /**
+     * The stored form of a link a client sends back, which may still carry the signature it was handed.
+     */
+    public static String stripSignature(String url) {
+        if (url == null || !url.startsWith(FILES_PATH)) {
+            return url;
+        }
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+
+    String sign(String fileName, Instant now) {
+        long expires = Math.ceilDiv(now.plus(ttl).getEpochSecond(), EXPIRY_STEP_SECONDS) * EXPIRY_STEP_SECONDS;
+        Buffers local = buffers.get();
+        computeMac(local, fileName, expires);
+        String signature = Base64.getUrlEncoder().withoutPadding().encodeToString(local.expected);
+        return FILES_PATH + fileName + "?" + EXPIRES_PARAM + "=" + expires + "&" + SIGNATURE_PARAM + "=" + signature;
+    }
+
+    /**
+     * True when {@code signature} was issued for {@code fileName} and {@code expires} has not passed.
+     */
+    public boolean verify(String fileName, long expires, String signature, long nowEpochSecond) {
+        if (expires < nowEpochSecond || signature == null || signature.length() != SIGNATURE_LENGTH) {
+            return false;
+        }
+        Buffers local = buffers.get();
+        if (!decode(signature, local.presented)) {
+            return false;
+        }
+        computeMac(local, fileName, expires);
+        return MessageDigest.isEqual(local.expected, local.presented);
+    }
+
+    private static void computeMac(Buffers local, String fileName, long expires) {
+        Mac mac = local.mac;
+        boolean ascii = true;
+        for (int i = 0; i < fileName.length() && ascii; i++) {
+            ascii = fileName.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            for (int i = 0; i < fileName.length(); i++) {
+                mac.update((byte) fileName.charAt(i));
+            }
+        } else {
+            mac.update(fileName.getBytes(StandardCharsets.UTF_8));
+        }
+        mac.update((byte) 0);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            mac.update((byte) (expires >>> shift));
+        }
+        try {
+            mac.doFinal(local.expected, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Decodes 43 base64url characters into 32 bytes; false on any character outside the alphabet
+    private static boolean decode(String signature, byte[] out) {
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        int invalid = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            char c = signature.charAt(i);
+            int value = c < 128 ? BASE64URL_VALUES[c] : -1;
+            invalid |= value;
+            bits = (bits << 6) | (value & 0x3f);
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                if (written < MAC_LENGTH) out[written++] = (byte) (bits >>> bitCount);
+            }
+        }
+        return invalid >= 0;
+    }
+
+    private static byte[] hmac(byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Buffers {
+        final Mac mac;
+        final byte[] expected = new byte[MAC_LENGTH];
+        final byte[] presented = new byte[MAC_LENGTH];
+
+        Buffers(Mac mac) {
+            this.mac = mac;
+        }
+    }
+}
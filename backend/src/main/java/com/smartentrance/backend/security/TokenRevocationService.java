@@ -2,6 +2,7 @@ package com.smartentrance.backend.security;
 
 import com.smartentrance.backend.model.RevocationEntry;
 import com.smartentrance.backend.repository.RevocationRepository;
+import com.smartentrance.backend.service.UserProfileCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,7 @@ public class TokenRevocationService {
 
     private final Map<Long, Long> revocationMap = new ConcurrentHashMap<>();
     private final RevocationRepository revocationRepository;
+    private final UserProfileCache userProfileCache;
 
     @Value("${application.security.jwt.remember-me.expiration}")
     private long rememberMeExpiration;
@@ -23,6 +25,7 @@ public class TokenRevocationService {
         long now = System.currentTimeMillis();
 
         revocationMap.put(userId, now);
+        userProfileCache.invalidate(userId);
 
         RevocationEntry entry = new RevocationEntry(userId, now);
         revocationRepository.save(entry);
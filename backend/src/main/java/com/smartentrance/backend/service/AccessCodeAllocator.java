@@ -0,0 +1,83 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.security.CodeLookupGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hands out unit access codes that are not yet in use.
+ * <p>
+ * Bulk allocation draws a batch of candidates, drops the ones already in use with a single
+ * {@code IN} query, and tops up with fresh candidates until enough are free. Collisions
+ * inside the batch itself are resolved in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccessCodeAllocator {
+
+    private static final String ALPHABET = "ABCDEFGHJKMNPQRSTUVWXYZ23456789";
+    private static final int CODE_LENGTH = 8;
+    private static final int MAX_ROUNDS = 10;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final UnitRepository unitRepository;
+    private final CodeLookupGuard codeLookupGuard;
+
+    public String allocate() {
+        String code;
+        do {
+            code = randomCode();
+        } while (codeLookupGuard.isLoaded()
+                ? codeLookupGuard.mightBeAccessCode(code)
+                : unitRepository.existsByAccessCode(code));
+
+        codeLookupGuard.registerAccessCode(code);
+        return code;
+    }
+
+    public List<String> allocate(int count) {
+        Set<String> allocated = new LinkedHashSet<>(count);
+        boolean filterLoaded = codeLookupGuard.isLoaded();
+
+        for (int round = 0; allocated.size() < count; round++) {
+            if (round == MAX_ROUNDS) {
+                throw new IllegalStateException("Could not allocate " + count + " unique access codes");
+            }
+
+            int missing = count - allocated.size();
+            Set<String> candidates = new LinkedHashSet<>();
+            while (candidates.size() < missing + Math.max(4, missing / 8)) {
+                String code = randomCode();
+                if (!allocated.contains(code) && !(filterLoaded && codeLookupGuard.mightBeAccessCode(code))) {
+                    candidates.add(code);
+                }
+            }
+
+            Set<String> taken = new HashSet<>(unitRepository.findExistingAccessCodes(candidates));
+            for (String code : candidates) {
+                if (allocated.size() == count) break;
+                if (!taken.contains(code)) allocated.add(code);
+            }
+        }
+
+        allocated.forEach(codeLookupGuard::registerAccessCode);
+        return new ArrayList<>(allocated);
+    }
+
+    private static String randomCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code[i] = ALPHABET.charAt(RANDOM.nextInt(ALPHABET.length()));
+        }
+        return new String(code);
+    }
+}
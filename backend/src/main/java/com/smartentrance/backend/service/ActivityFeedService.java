@@ -0,0 +1,137 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.activity.ActivityItem;
+import com.smartentrance.backend.dto.common.CursorPage;
+import com.smartentrance.backend.dto.common.PageCursor;
+import com.smartentrance.backend.dto.enums.ActivityType;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.repository.DocumentRepository;
+import com.smartentrance.backend.repository.NoticeRepository;
+import com.smartentrance.backend.repository.TransactionRepository;
+import com.smartentrance.backend.repository.VotesPollRepository;
+import com.smartentrance.backend.security.BuildingSecurity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+
+/**
+ * A building's notices, polls, documents and transactions as one feed, newest first.
+ * <p>
+ * Each source is read with its own keyset cursor, at most one page plus one row per page, and the four sorted
+ * runs are merged by timestamp. The returned cursor carries the position reached in every source, so the next
+ * page picks each of them up exactly where this one stopped.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityFeedService {
+
+    private static final ActivityType[] SOURCES = ActivityType.values();
+
+    // Newest first; equal timestamps are ordered by source, then by id descending like each source query
+    private static final Comparator<ActivityItem> FEED_ORDER = Comparator.comparing(ActivityItem::at).reversed()
+            .thenComparing(ActivityItem::type)
+            .thenComparing(Comparator.comparing(ActivityItem::id).reversed());
+
+    private final NoticeRepository noticeRepository;
+    private final VotesPollRepository pollRepository;
+    private final DocumentRepository documentRepository;
+    private final TransactionRepository transactionRepository;
+    private final BuildingSecurity buildingSecurity;
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("@buildingSecurity.hasAccess(#buildingId, principal.user)")
+    public CursorPage<ActivityItem> getFeed(Integer buildingId, String cursor, Integer limit, User user) {
+        int pageSize = CursorPage.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        Map<ActivityType, PageCursor> positions = decode(cursor);
+
+        // Residents see documents shared with them and only their own transactions
+        boolean isManager = buildingSecurity.isManager(buildingId, user);
+
+        Map<ActivityType, List<ActivityItem>> runs = new EnumMap<>(ActivityType.class);
+        for (ActivityType source : SOURCES) {
+            PageCursor after = positions.get(source);
+            runs.put(source, switch (source) {
+                case NOTICE -> noticeRepository.findActivityPage(buildingId, after.at(), toIntId(after), fetch);
+                case POLL -> pollRepository.findActivityPage(buildingId, after.at(), toIntId(after), fetch);
+                case DOCUMENT -> documentRepository.findActivityPage(buildingId, isManager, after.at(), after.id(), fetch);
+                case TRANSACTION -> transactionRepository.findActivityPage(buildingId, isManager ? null : user.getId(),
+                        after.at(), after.id(), fetch);
+            });
+        }
+
+        List<ActivityItem> items = merge(runs, pageSize + 1);
+        if (items.size() <= pageSize) {
+            return new CursorPage<>(items, null);
+        }
+
+        List<ActivityItem> page = List.copyOf(items.subList(0, pageSize));
+        for (ActivityItem item : page) {
+            positions.put(item.type(), new PageCursor(item.at(), item.id()));
+        }
+        return new CursorPage<>(page, encode(positions));
+    }
+
+    // Heads of the sorted runs in a priority queue; takes at most limit items overall
+    private static List<ActivityItem> merge(Map<ActivityType, List<ActivityItem>> runs, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(SOURCES.length, Comparator.comparing(Head::item, FEED_ORDER));
+        runs.forEach((source, run) -> {
+            if (!run.isEmpty()) heads.add(new Head(run, 0));
+        });
+
+        List<ActivityItem> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            merged.add(head.item());
+            if (head.index() + 1 < head.run().size()) {
+                heads.add(new Head(head.run(), head.index() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private static Map<ActivityType, PageCursor> decode(String cursor) {
+        Map<ActivityType, PageCursor> positions = new EnumMap<>(ActivityType.class);
+        if (cursor == null || cursor.isBlank()) {
+            for (ActivityType source : SOURCES) positions.put(source, PageCursor.START_DESCENDING);
+            return positions;
+        }
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != SOURCES.length) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        for (ActivityType source : SOURCES) {
+            positions.put(source, PageCursor.decode(parts[source.ordinal()], PageCursor.START_DESCENDING));
+        }
+        return positions;
+    }
+
+    // One encoded PageCursor per source, in declaration order; base64url never contains the dot
+    private static String encode(Map<ActivityType, PageCursor> positions) {
+        StringJoiner joined = new StringJoiner(".");
+        for (ActivityType source : SOURCES) {
+            joined.add(positions.get(source).encode());
+        }
+        return joined.toString();
+    }
+
+    private static int toIntId(PageCursor cursor) {
+        return (int) Math.min(cursor.id(), Integer.MAX_VALUE);
+    }
+
+    private record Head(List<ActivityItem> run, int index) {
+        ActivityItem item() {
+            return run.get(index);
+        }
+    }
+}
@@ -28,6 +28,7 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final InvitationService invitationService;
+    private final UserLookup userLookup;
 
     public LoginResponse register(UserRegisterRequest request) {
         User user = userMapper.toEntity(request);
@@ -72,8 +73,7 @@ public class AuthenticationService {
 
         try {
             Long userId = principal.user().getId();
-            User user = userService.getUserById(userId);
-            return userMapper.toResponse(user);
+            return userMapper.toResponse(userLookup.getProfile(userId));
         } catch (EntityNotFoundException e) {
             throw new BadCredentialsException("User session invalid");
         }
@@ -9,6 +9,7 @@ import com.smartentrance.backend.model.enums.DocumentType;
 import com.smartentrance.backend.repository.BuildingRepository;
 import com.smartentrance.backend.repository.DocumentRepository;
 import com.smartentrance.backend.security.BuildingSecurity;
+import com.smartentrance.backend.security.SignedUrlService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,27 +25,16 @@ public class BuildingDocumentService {
     private final DocumentRepository documentRepository;
     private final BuildingRepository buildingRepository;
     private final BuildingSecurity buildingSecurity;
+    private final DocumentTextService documentTextService;
+    private final SignedUrlService signedUrlService;
 
     @PreAuthorize("@buildingSecurity.hasAccess(#buildingId, principal.user)")
     public List<DocumentResponse> getDocumentsForBuilding(Integer buildingId, DocumentType type, User user) {
-        List<BuildingDocument> docs;
+        // Residents only see documents marked visible to them
         boolean isManager = buildingSecurity.isManager(buildingId, user);
-
-        if (isManager) {
-            if (type != null) {
-                docs = documentRepository.findAllByBuildingIdAndTypeOrderByCreatedAtDesc(buildingId, type);
-            } else {
-                docs = documentRepository.findAllByBuildingIdOrderByCreatedAtDesc(buildingId);
-            }
-        } else {
-            if (type != null) {
-                docs = documentRepository.findAllByBuildingIdAndTypeAndIsVisibleToResidentsTrueOrderByCreatedAtDesc(buildingId, type);
-            } else {
-                docs = documentRepository.findAllByBuildingIdAndIsVisibleToResidentsTrueOrderByCreatedAtDesc(buildingId);
-            }
-        }
-
-        return docs.stream().map(this::mapToResponse).toList();
+        return documentRepository.findResponses(buildingId, type, isManager).stream()
+                .map(this::withSignedUrl)
+                .toList();
     }
 
     @Transactional
@@ -63,6 +53,7 @@ public class BuildingDocumentService {
         doc.setVisibleToResidents(req.isVisibleToResidents());
 
         documentRepository.save(doc);
+        documentTextService.schedule(doc);
     }
 
     @PreAuthorize("@buildingSecurity.canManageDocument(#documentId, principal.user)")
@@ -71,14 +62,9 @@ public class BuildingDocumentService {
         documentRepository.deleteById(documentId);
     }
 
-    private DocumentResponse mapToResponse(BuildingDocument doc) {
-        String uploaderName = (doc.getUploadedBy() != null)
-                ? doc.getUploadedBy().getFirstName() + " " + doc.getUploadedBy().getLastName()
-                : "System";
-
-        return new DocumentResponse(
-                doc.getId(), doc.getTitle(), doc.getDescription(), doc.getType(),
-                doc.getFileUrl(), uploaderName, doc.isVisibleToResidents(), doc.getCreatedAt()
-        );
+    // Short-lived and self-authorizing, like receipt links, so opening a PDF costs no session lookup
+    private DocumentResponse withSignedUrl(DocumentResponse row) {
+        return new DocumentResponse(row.id(), row.title(), row.description(), row.type(),
+                signedUrlService.signStoredUrl(row.fileUrl()), row.uploaderName(), row.isVisible(), row.createdAt());
     }
-}
\ No newline at end of file
+}
@@ -11,6 +11,7 @@ import com.smartentrance.backend.model.User;
 import com.smartentrance.backend.model.enums.DocumentType;
 import com.smartentrance.backend.repository.BuildingRepository;
 import com.smartentrance.backend.repository.DocumentRepository;
+import com.smartentrance.backend.security.SignedUrlService;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -32,6 +33,7 @@ public class BuildingService {
     private final UnitService unitService;
     private final UserService userService;
     private final DocumentRepository documentRepository;
+    private final SignedUrlService signedUrlService;
 
     @Transactional
     @PreAuthorize("isAuthenticated()")
@@ -54,12 +56,13 @@ public class BuildingService {
 
         building = buildingRepository.save(building);
 
-        List<Unit> skeletonUnits = new ArrayList<>();
+        List<String> accessCodes = unitService.generateUniqueAccessCodes(request.totalUnits());
+        List<Unit> skeletonUnits = new ArrayList<>(request.totalUnits());
         for (int i = 1; i <= request.totalUnits(); i++) {
             skeletonUnits.add(Unit.builder()
                     .building(building)
                     .unitNumber(i)
-                    .accessCode(unitService.generateUniqueAccessCode())
+                    .accessCode(accessCodes.get(i - 1))
                     .residentsCount(0)
                     .area(BigDecimal.ZERO)
                     .build());
@@ -85,7 +88,8 @@ public class BuildingService {
             doc.setTitle("Budget Protocol");
             doc.setDescription("Monthly budget protocol document.");
             doc.setType(DocumentType.PROTOCOL);
-            doc.setFileUrl(req.protocolFileUrl());
+            // The form sends back the signed link it was given
+            doc.setFileUrl(SignedUrlService.stripSignature(req.protocolFileUrl()));
             doc.setVisibleToResidents(true);
 
             documentRepository.save(doc);
@@ -112,7 +116,7 @@ public class BuildingService {
                 .orElseThrow(() -> new EntityNotFoundException("Building not found"));
 
         String protocolUrl = (building.getBudgetProtocol() != null)
-                ? building.getBudgetProtocol().getFileUrl()
+                ? signedUrlService.signStoredUrl(building.getBudgetProtocol().getFileUrl())
                 : null;
 
         return new UpdateBudgetRequest(
@@ -125,7 +129,7 @@ public class BuildingService {
     @Transactional(readOnly = true)
     @PreAuthorize("isAuthenticated()")
     public List<BuildingResponse> getManagedBuildings(User user) {
-        return buildingRepository.findAllByManagerId(user.getId())
+        return buildingRepository.findManagedRows(user.getId())
                 .stream().map(buildingMapper::toResponse).toList();
     }
 
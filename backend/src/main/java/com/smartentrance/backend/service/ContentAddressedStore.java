@@ -0,0 +1,426 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.dto.file.BlobRef;
+import com.smartentrance.backend.model.FileAlias;
+import com.smartentrance.backend.model.FileBlob;
+import com.smartentrance.backend.repository.FileAliasRepository;
+import com.smartentrance.backend.repository.FileBlobRepository;
+import com.smartentrance.backend.storage.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Stores file bytes once per SHA-256 under the key {@code objects/ab/cd/<hash>} of the configured
+ * {@link BlobStore}: the upload directory by default, or an S3 bucket shared by several nodes.
+ * <p>
+ * Public file names (UUIDs, receipt names) are aliases pointing at a blob; the blob keeps a reference
+ * count of its aliases and is removed with the last one. Two hex levels give 65,536 leaf directories,
+ * so even millions of blobs leave each directory with a few dozen entries. Files written before this
+ * store existed stay readable at their flat path until {@link #migrateLegacyFiles()} moves them in.
+ * Cold blobs may later live in a pack segment instead (see {@link PackCompactor}); {@link #locate} covers both.
+ */
+@Service
+@Slf4j
+public class ContentAddressedStore {
+
+    private static final String OBJECTS_DIR = "objects";
+    // Renditions kept beside a blob as <hash><suffix>; removed together with it
+    static final List<String> DERIVATIVE_SUFFIXES = List.of(".thumb.jpg", ".thumb.pdf");
+    private static final int LOCK_STRIPES = 64;
+    private static final int READ_BATCH = 500;
+
+    private final Path root;
+    private final FileBlobRepository blobRepository;
+    private final FileAliasRepository aliasRepository;
+    private final DiskSpaceMonitor diskSpaceMonitor;
+    private final PackSegmentStore segments;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+
+    // Hashes located since the last flush; a set, so a hot file costs one row update per flush
+    private final Set<String> recentReads = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The bytes of a stored file: a whole loose file, or {@code length} bytes at {@code offset} of a pack
+     * segment when {@code packId} is set. {@code file} is null when the bytes live in a remote store under
+     * {@code key}; {@code sha256} is null for files outside the store.
+     */
+    public record Location(String sha256, String key, Path file, Long packId, long offset, long length, Instant lastModified) {
+
+        public static Location ofFile(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Location(null, null, file, null, 0, attributes.size(), attributes.lastModifiedTime().toInstant());
+        }
+    }
+
+    // Serializes commits of the same hash so the blob row and file are created exactly once
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public ContentAddressedStore(FileStorageProperties fileStorageProperties,
+                                 FileBlobRepository blobRepository,
+                                 FileAliasRepository aliasRepository,
+                                 DiskSpaceMonitor diskSpaceMonitor,
+                                 PackSegmentStore segments,
+                                 BlobStore blobStore,
+                                 PlatformTransactionManager transactionManager) {
+        this.root = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+        this.blobRepository = blobRepository;
+        this.aliasRepository = aliasRepository;
+        this.diskSpaceMonitor = diskSpaceMonitor;
+        this.segments = segments;
+        this.blobStore = blobStore;
+        // Store bookkeeping commits on its own, independent of the caller's transaction, so the lock below
+        // covers the whole write; references left behind by a rolled-back caller are reclaimed by cleanup
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+    }
+
+    /**
+     * Files {@code source} under its hash and points {@code fileName} at it. A blob that already exists
+     * only gains a reference and {@code source} is discarded, so duplicates take no extra space.
+     *
+     * @param moveSource move the source into the store (true) or copy it and leave the source alone
+     */
+    public void commit(Path source, String sha256, long size, String contentType, String fileName, boolean moveSource) {
+        String previous;
+        synchronized (lockFor(sha256)) {
+            previous = aliasRepository.findSha256ByFileName(fileName).orElse(null);
+            if (!sha256.equals(previous)) {
+                Boolean created;
+                try {
+                    created = transactionTemplate.execute(status -> link(source, sha256, size, contentType, fileName, moveSource));
+                } catch (DataIntegrityViolationException e) {
+                    // Another node stored the same bytes at the same moment; its row exists now, so this is a plain reference
+                    created = transactionTemplate.execute(status -> link(source, sha256, size, contentType, fileName, moveSource));
+                }
+
+                if (Boolean.TRUE.equals(created) && blobStore.isLocal()) {
+                    diskSpaceMonitor.consumed(size);
+                }
+            }
+        }
+        if (moveSource) {
+            deleteQuietly(source);
+        }
+        // The name used to point at other bytes (a regenerated receipt); drop that reference under its own lock
+        if (previous != null && !previous.equals(sha256)) {
+            releaseReference(previous);
+        }
+    }
+
+    /**
+     * Where the bytes of a stored name are, or empty when the name is unknown to the store. Counts as a
+     * read for deciding which blobs are cold.
+     */
+    public Optional<Location> locate(String fileName) {
+        return aliasRepository.findBlobRefByFileName(fileName).map(blob -> {
+            recentReads.add(blob.sha256());
+            return locationOf(blob);
+        });
+    }
+
+    /**
+     * Content of a blob wherever it is kept, or empty when the hash is unknown.
+     */
+    public Optional<InputStream> openBlob(String sha256) throws IOException {
+        Optional<BlobRef> blob = blobRepository.findBlobRef(sha256);
+        return blob.isPresent() ? Optional.of(open(locationOf(blob.get()))) : Optional.empty();
+    }
+
+    public InputStream open(Location location) throws IOException {
+        return open(location, 0, location.length());
+    }
+
+    /**
+     * Streams {@code length} bytes of a located file starting {@code start} bytes into it.
+     */
+    public InputStream open(Location location, long start, long length) throws IOException {
+        if (location.packId() != null) {
+            return new MappedBlobResource.ByteBufferInputStream(
+                    segments.read(location.packId(), location.offset() + start, length));
+        }
+        if (location.file() == null) {
+            return blobStore.open(location.key(), start, length);
+        }
+        InputStream in = Files.newInputStream(location.file());
+        in.skipNBytes(start);
+        return in;
+    }
+
+    /**
+     * A packed or remote blob as a resource; packed ones are backed by the segment mapping.
+     */
+    public Resource asResource(Location location, String fileName) {
+        if (location.packId() != null) {
+            return new MappedBlobResource(segments.read(location.packId(), location.offset(), location.length()), fileName);
+        }
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "stored blob [" + fileName + "]";
+            }
+
+            @Override
+            public long contentLength() {
+                return location.length();
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return open(location);
+            }
+        };
+    }
+
+    /**
+     * A rendition stored beside a blob, or empty when it has not been made yet.
+     */
+    Optional<Location> derivative(String sha256, String suffix) throws IOException {
+        String key = blobKey(sha256) + suffix;
+        Optional<BlobStore.BlobStat> stat = blobStore.stat(key);
+        return stat.map(found -> new Location(null, key, blobStore.localFile(key).orElse(null), null, 0,
+                found.size(), found.lastModified()));
+    }
+
+    void putDerivative(String sha256, String suffix, Path rendered) throws IOException {
+        blobStore.put(blobKey(sha256) + suffix, rendered, true);
+    }
+
+    /**
+     * Scratch space for files on their way into the store, on the same disk as local blobs.
+     */
+    Path tempDir() {
+        return root;
+    }
+
+    /**
+     * True when blobs are plain files on this node, which packing and the disk scan of the cleanup rely on.
+     */
+    public boolean isLocal() {
+        return blobStore.isLocal();
+    }
+
+    /**
+     * Writes out which blobs were read since the last call, in batches of {@value #READ_BATCH}.
+     */
+    public void flushReads() {
+        List<String> batch = new ArrayList<>(READ_BATCH);
+        Instant now = Instant.now();
+        Iterator<String> reads = recentReads.iterator();
+        while (reads.hasNext()) {
+            batch.add(reads.next());
+            reads.remove();
+            if (batch.size() == READ_BATCH || !reads.hasNext()) {
+                List<String> hashes = List.copyOf(batch);
+                transactionTemplate.executeWithoutResult(status -> blobRepository.markRead(hashes, now));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Points a blob at its copy in a pack segment and drops the loose file. False when the blob is gone
+     * or was packed meanwhile; the appended copy is then dead space in the segment.
+     */
+    boolean adoptPacked(String sha256, PackSegmentStore.Slot slot) {
+        synchronized (lockFor(sha256)) {
+            Integer updated = transactionTemplate.execute(status ->
+                    blobRepository.assignPack(sha256, slot.packId(), slot.offset()));
+            if (updated == null || updated == 0) return false;
+
+            deleteQuietly(blobPath(sha256));
+            return true;
+        }
+    }
+
+    /**
+     * Drops a name; the blob and its file go when no other name refers to them.
+     */
+    public void release(String fileName) {
+        aliasRepository.findSha256ByFileName(fileName).ifPresent(sha256 -> {
+            synchronized (lockFor(sha256)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (aliasRepository.findSha256ByFileName(fileName).filter(sha256::equals).isPresent()) {
+                        aliasRepository.deleteById(fileName);
+                        aliasRepository.flush();
+                        dropReference(sha256);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Deletes a blob file that has no row, e.g. one left by a crash between placing the file and committing.
+     * Checked again under the hash's lock so a concurrent commit of the same bytes keeps its file.
+     */
+    public boolean deleteOrphanedBlob(String sha256) throws IOException {
+        synchronized (lockFor(sha256)) {
+            if (blobRepository.existsById(sha256) || blobStore.stat(blobKey(sha256)).isEmpty()) return false;
+            blobStore.delete(blobKey(sha256));
+            return true;
+        }
+    }
+
+    /**
+     * Moves files from the flat upload directory into the store, keeping their names as aliases.
+     * Each file stays readable at its old path until its alias is committed.
+     */
+    @Async
+    public void migrateLegacyFiles() {
+        int migrated = 0;
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!Files.isRegularFile(file) || name.startsWith(".")) continue;
+
+                try {
+                    String sha256 = hash(file);
+                    commit(file, sha256, Files.size(file), null, name, false);
+                    Files.deleteIfExists(file);
+                    migrated++;
+                } catch (Exception e) {
+                    log.error("FAILED: Could not migrate {} into the content store: {}", name, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("FAILED: Could not list {}: {}", root, e.getMessage());
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} legacy files into the content store", migrated);
+        }
+    }
+
+    private Location locationOf(BlobRef blob) {
+        if (blob.packed()) {
+            return new Location(blob.sha256(), null, segments.segmentPath(blob.packId()), blob.packId(),
+                    blob.packOffset(), blob.size(), blob.createdAt());
+        }
+        String key = blobKey(blob.sha256());
+        return new Location(blob.sha256(), key, blobStore.localFile(key).orElse(null), null, 0, blob.size(), blob.createdAt());
+    }
+
+    static String blobKey(String sha256) {
+        return OBJECTS_DIR + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    // Where a blob sits when the store is the local disk
+    Path blobPath(String sha256) {
+        return root.resolve(blobKey(sha256));
+    }
+
+    // Returns whether the blob is new; runs in the store's own transaction
+    private boolean link(Path source, String sha256, long size, String contentType, String fileName, boolean moveSource) {
+        boolean newBlob = blobRepository.adjustRefCount(sha256, 1) == 0;
+        if (newBlob) {
+            place(source, sha256, moveSource);
+            blobRepository.save(FileBlob.builder()
+                    .sha256(sha256)
+                    .size(size)
+                    .contentType(contentType)
+                    .refCount(1)
+                    .build());
+        }
+        aliasRepository.save(new FileAlias(fileName, sha256, null));
+        return newBlob;
+    }
+
+    private void place(Path source, String sha256, boolean moveSource) {
+        try {
+            blobStore.put(blobKey(sha256), source, moveSource);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store blob " + sha256, e);
+        }
+    }
+
+    private void releaseReference(String sha256) {
+        synchronized (lockFor(sha256)) {
+            transactionTemplate.executeWithoutResult(status -> dropReference(sha256));
+        }
+    }
+
+    // Caller holds the hash's lock, which is kept until after commit, so no commit can revive the blob in between
+    private void dropReference(String sha256) {
+        blobRepository.adjustRefCount(sha256, -1);
+        if (blobRepository.deleteIfUnreferenced(sha256) == 0) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                String key = blobKey(sha256);
+                long size = blobStore.isLocal() ? sizeOf(blobPath(sha256)) : 0;
+                deleteKeyQuietly(key);
+                diskSpaceMonitor.consumed(-size);
+                for (String suffix : DERIVATIVE_SUFFIXES) {
+                    deleteKeyQuietly(key + suffix);
+                }
+            }
+        });
+    }
+
+    private void deleteKeyQuietly(String key) {
+        try {
+            blobStore.delete(key);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Object lockFor(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String hash(Path file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), sha256)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left for the nightly orphan cleanup
+        }
+    }
+}
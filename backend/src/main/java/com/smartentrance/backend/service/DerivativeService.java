@@ -0,0 +1,278 @@
+package com.smartentrance.backend.service;
+
+import com.lowagie.text.pdf.PRStream;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfNumber;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfStamper;
+import com.smartentrance.backend.model.FileBlob;
+import com.smartentrance.backend.repository.FileAliasRepository;
+import com.smartentrance.backend.repository.FileBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Small renditions of stored files for list views and phones: a JPEG no larger than {@value #THUMB_EDGE}px
+ * for images and, for PDFs, the first page alone with its scanned images downscaled.
+ * <p>
+ * A derivative is stored beside its blob as {@code <hash>.thumb.jpg} / {@code <hash>.thumb.pdf}, so it is made
+ * once per distinct content however many names point at it, and goes with the blob when that is deleted.
+ * Uploads get theirs generated in the background; anything else is rendered on first request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DerivativeService {
+
+    static final int THUMB_EDGE = 320;
+    static final int PAGE_IMAGE_EDGE = 1024;
+    private static final double MAX_PDF_PREVIEW_RATIO = 0.75;
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final int MAX_NO_DERIVATIVE = 10_000;
+
+    private final ContentAddressedStore contentStore;
+    private final FileAliasRepository aliasRepository;
+    private final FileBlobRepository blobRepository;
+
+    // Content that failed to render, or needs no derivative, is not read and parsed again on every request
+    private final Set<String> noDerivative = ConcurrentHashMap.newKeySet();
+
+    public record Derivative(String sha256, ContentAddressedStore.Location location, MediaType contentType, String extension) {}
+
+    @Async
+    public void generate(String sha256, String contentType) {
+        try {
+            render(sha256, contentType);
+        } catch (Exception e) {
+            log.warn("Could not create thumbnail for {}: {}", sha256, e.getMessage());
+        }
+    }
+
+    /**
+     * The thumbnail of a stored name, rendered now if it does not exist yet. Empty when the original is
+     * already small enough to be its own thumbnail, the type has none, or the name predates the content store.
+     */
+    public Optional<Derivative> thumbnail(String fileName) {
+        return aliasRepository.findSha256ByFileName(fileName).flatMap(sha256 -> {
+            String contentType = blobRepository.findById(sha256)
+                    .map(FileBlob::getContentType)
+                    .orElseGet(() -> MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(null));
+            try {
+                return render(sha256, contentType);
+            } catch (Exception e) {
+                log.warn("Could not create thumbnail for {}: {}", fileName, e.getMessage());
+                return Optional.empty();
+            }
+        });
+    }
+
+    private Optional<Derivative> render(String sha256, String contentType) throws IOException {
+        if (contentType == null || noDerivative.contains(sha256)) return Optional.empty();
+
+        boolean pdf = MediaType.APPLICATION_PDF_VALUE.equals(contentType);
+        if (!pdf && !contentType.startsWith("image/")) return Optional.empty();
+
+        String extension = pdf ? ".pdf" : ".jpg";
+        String suffix = ".thumb" + extension;
+        MediaType mediaType = pdf ? MediaType.APPLICATION_PDF : MediaType.IMAGE_JPEG;
+        Optional<ContentAddressedStore.Location> existing = contentStore.derivative(sha256, suffix);
+        if (existing.isPresent()) return Optional.of(new Derivative(sha256, existing.get(), mediaType, extension));
+
+        Optional<InputStream> content = contentStore.openBlob(sha256);
+        if (content.isEmpty()) return Optional.empty();
+
+        // Rendered to a temp file and handed to the store whole, so readers never see a half-written derivative
+        Path partial = Files.createTempFile(contentStore.tempDir(), ".upload-", ".thumb.part");
+        try {
+            boolean written;
+            try (InputStream in = content.get(); OutputStream out = Files.newOutputStream(partial)) {
+                written = pdf ? pdfPreview(in, out) : downscale(in, out);
+            } catch (IOException | RuntimeException e) {
+                rememberNoDerivative(sha256);
+                throw e;
+            }
+            if (!written) {
+                rememberNoDerivative(sha256);
+                return Optional.empty();
+            }
+
+            contentStore.putDerivative(sha256, suffix, partial);
+            return contentStore.derivative(sha256, suffix).map(stored -> new Derivative(sha256, stored, mediaType, extension));
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private void rememberNoDerivative(String sha256) {
+        if (noDerivative.size() >= MAX_NO_DERIVATIVE) {
+            Iterator<String> hashes = noDerivative.iterator();
+            if (hashes.hasNext()) {
+                hashes.next();
+                hashes.remove();
+            }
+        }
+        noDerivative.add(sha256);
+    }
+
+    /**
+     * Decodes the image subsampled to about twice the thumbnail size, so a 12 MP photo never has to be
+     * held in memory at full resolution, then scales the rest of the way with bilinear filtering.
+     */
+    private static boolean downscale(InputStream source, OutputStream out) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            BufferedImage thumb = scaledDown(in, THUMB_EDGE, BufferedImage.TYPE_INT_RGB);
+            if (thumb == null) return false;
+            writeJpeg(thumb, out);
+            return true;
+        }
+    }
+
+    // Null when the image is no larger than edge already
+    private static BufferedImage scaledDown(ImageInputStream in, int edge, int imageType) throws IOException {
+        Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+        if (readers == null || !readers.hasNext()) throw new IOException("Unsupported image format");
+
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            int longest = Math.max(width, height);
+            if (longest <= edge) return null;
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            int step = Math.max(1, longest / (2 * edge));
+            param.setSourceSubsampling(step, step, 0, 0);
+            BufferedImage decoded = reader.read(0, param);
+
+            double scale = (double) edge / longest;
+            int scaledWidth = Math.max(1, (int) Math.round(width * scale));
+            int scaledHeight = Math.max(1, (int) Math.round(height * scale));
+
+            // JPEG has no alpha; transparent areas of a PNG become white rather than black
+            BufferedImage scaled = new BufferedImage(scaledWidth, scaledHeight, imageType);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, scaledWidth, scaledHeight);
+                g.drawImage(decoded, 0, 0, scaledWidth, scaledHeight, null);
+            } finally {
+                g.dispose();
+            }
+            return scaled;
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * The first page alone, with its JPEG images re-encoded at no more than {@value #PAGE_IMAGE_EDGE}px: in a
+     * scanned protocol those images are nearly all of the weight, and one page is all a list view shows.
+     * Single-page files go through the same path. Nothing is written unless the result is clearly smaller,
+     * since a PDF of text and vector drawings is already about as small as its first page gets.
+     */
+    private static boolean pdfPreview(InputStream source, OutputStream out) throws IOException {
+        byte[] original = source.readAllBytes();
+        PdfReader reader = new PdfReader(original);
+        try {
+            // Later pages go with everything only they referenced: their fonts, images and content streams
+            if (reader.getNumberOfPages() > 1) {
+                reader.selectPages("1");
+                reader.removeUnusedObjects();
+            }
+            for (int i = 0; i < reader.getXrefSize(); i++) {
+                if (reader.getPdfObject(i) instanceof PRStream stream) shrinkImage(stream);
+            }
+
+            ByteArrayOutputStream preview = new ByteArrayOutputStream();
+            PdfStamper stamper = new PdfStamper(reader, preview);
+            stamper.setFullCompression();
+            stamper.close();
+            if (preview.size() > original.length * MAX_PDF_PREVIEW_RATIO) return false;
+
+            preview.writeTo(out);
+            return true;
+        } catch (com.lowagie.text.DocumentException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Replaces a large JPEG image with a smaller one in place; the page still draws it into the same box.
+     * Images in other encodings, with a decode array, or in colour spaces ImageIO cannot read (CMYK) keep
+     * their bytes.
+     */
+    private static void shrinkImage(PRStream stream) throws IOException {
+        if (!PdfName.IMAGE.equals(stream.getAsName(PdfName.SUBTYPE))
+                || !PdfName.DCTDECODE.equals(stream.getAsName(PdfName.FILTER))
+                || stream.get(PdfName.DECODE) != null) {
+            return;
+        }
+        PdfNumber width = stream.getAsNumber(PdfName.WIDTH);
+        PdfNumber height = stream.getAsNumber(PdfName.HEIGHT);
+        if (width == null || height == null || Math.max(width.intValue(), height.intValue()) <= PAGE_IMAGE_EDGE) return;
+
+        boolean gray = PdfName.DEVICEGRAY.equals(stream.getAsName(PdfName.COLORSPACE));
+        BufferedImage scaled;
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(PdfReader.getStreamBytesRaw(stream)))) {
+            scaled = scaledDown(in, PAGE_IMAGE_EDGE, gray ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+        } catch (IOException | IllegalArgumentException e) {
+            return;
+        }
+        if (scaled == null) return;
+
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        writeJpeg(scaled, jpeg);
+        stream.setData(jpeg.toByteArray(), false);
+        stream.put(PdfName.FILTER, PdfName.DCTDECODE);
+        stream.remove(PdfName.DECODEPARMS);
+        stream.put(PdfName.WIDTH, new PdfNumber(scaled.getWidth()));
+        stream.put(PdfName.HEIGHT, new PdfNumber(scaled.getHeight()));
+        stream.put(PdfName.BITSPERCOMPONENT, new PdfNumber(8));
+        stream.put(PdfName.COLORSPACE, gray ? PdfName.DEVICEGRAY : PdfName.DEVICERGB);
+    }
+}
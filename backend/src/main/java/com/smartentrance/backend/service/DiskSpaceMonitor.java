@@ -0,0 +1,52 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.config.FileStorageProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached view of the free space on the upload volume.
+ * <p>
+ * Asking the file store is a syscall per upload; instead the figure is refreshed periodically and
+ * debited locally for every stored file in between, so it only errs on the cautious side.
+ */
+@Component
+@Slf4j
+public class DiskSpaceMonitor {
+
+    private final Path uploadDir;
+    private final long minFreeBytes;
+    private final AtomicLong usableBytes = new AtomicLong(Long.MAX_VALUE);
+
+    public DiskSpaceMonitor(FileStorageProperties fileStorageProperties) {
+        this.uploadDir = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+        this.minFreeBytes = fileStorageProperties.getMinFreeSpace().toBytes();
+        refresh();
+    }
+
+    public void refresh() {
+        try {
+            Files.createDirectories(uploadDir);
+            FileStore store = Files.getFileStore(uploadDir);
+            usableBytes.set(store.getUsableSpace());
+        } catch (IOException e) {
+            // Keep the last known figure; uploads fail on their own if the disk is really gone
+            log.warn("Could not check disk space of {}: {}", uploadDir, e.getMessage());
+        }
+    }
+
+    public boolean hasRoomFor(long bytes) {
+        return usableBytes.get() - bytes >= minFreeBytes;
+    }
+
+    public void consumed(long bytes) {
+        usableBytes.addAndGet(-bytes);
+    }
+}
@@ -0,0 +1,253 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.model.BuildingDocument;
+import com.smartentrance.backend.model.DocumentText;
+import com.smartentrance.backend.model.FileBlob;
+import com.smartentrance.backend.model.enums.ExtractionStatus;
+import com.smartentrance.backend.repository.DocumentRepository;
+import com.smartentrance.backend.repository.DocumentTextRepository;
+import com.smartentrance.backend.repository.FileBlobRepository;
+import com.smartentrance.backend.scheduler.FileCleanupService;
+import com.smartentrance.backend.search.SearchIndex;
+import com.smartentrance.backend.search.TextExtractor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Extracts the text of uploaded building documents in the background and hands it to search.
+ * <p>
+ * New documents are queued once their transaction commits, on a fixed pool with a bounded queue, so uploads
+ * never wait for extraction. A document without a {@link DocumentText} row is still to do: when the queue is
+ * full, or after a restart, the periodic sweep ({@link #enqueueBacklog}) finds it again. The number of
+ * documents queued or in progress is published as the {@value #BACKLOG_METRIC} gauge, and the number of
+ * timed-out parses still running as {@value #ABANDONED_METRIC}.
+ */
+@Service
+@Slf4j
+public class DocumentTextService {
+
+    static final String BACKLOG_METRIC = "documents.text.extraction.backlog";
+    static final String ABANDONED_METRIC = "documents.text.extraction.abandoned";
+
+    private static final int RUNNING = 0;
+    private static final int FINISHED = 1;
+    private static final int ABANDONED = 2;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentTextRepository textRepository;
+    private final FileBlobRepository blobRepository;
+    private final ContentAddressedStore contentStore;
+    private final FileStorageService fileStorageService;
+    private final TextExtractor textExtractor;
+    private final SearchIndex searchIndex;
+    private final FileStorageProperties.TextExtraction limits;
+
+    private final ThreadPoolExecutor workers;
+    // Parses run here so a worker can give up on one that ignores the time limit. One thread per worker: a parse
+    // that ignores interruption as well keeps its thread until it ends, and is not replaced by another
+    private final ThreadPoolExecutor parsers;
+    // Parses given up on that are still holding a parser thread
+    private final AtomicInteger abandonedParses = new AtomicInteger();
+    // Documents queued or being extracted, so the sweep does not queue them twice
+    private final Set<Long> backlog = ConcurrentHashMap.newKeySet();
+
+    public DocumentTextService(DocumentRepository documentRepository,
+                               DocumentTextRepository textRepository,
+                               FileBlobRepository blobRepository,
+                               ContentAddressedStore contentStore,
+                               FileStorageService fileStorageService,
+                               TextExtractor textExtractor,
+                               SearchIndex searchIndex,
+                               FileStorageProperties fileStorageProperties,
+                               MeterRegistry meterRegistry) {
+        this.documentRepository = documentRepository;
+        this.textRepository = textRepository;
+        this.blobRepository = blobRepository;
+        this.contentStore = contentStore;
+        this.fileStorageService = fileStorageService;
+        this.textExtractor = textExtractor;
+        this.searchIndex = searchIndex;
+        this.limits = fileStorageProperties.getTextExtraction();
+        this.workers = new ThreadPoolExecutor(limits.getWorkers(), limits.getWorkers(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(limits.getQueueCapacity()),
+                Thread.ofPlatform().daemon().name("text-extract-", 0).factory());
+        this.parsers = new ThreadPoolExecutor(limits.getWorkers(), limits.getWorkers(), 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                Thread.ofPlatform().daemon().name("text-parse-", 0).factory());
+
+        Gauge.builder(BACKLOG_METRIC, backlog, Set::size)
+                .description("Building documents waiting for or undergoing text extraction")
+                .register(meterRegistry);
+        Gauge.builder(ABANDONED_METRIC, abandonedParses, AtomicInteger::get)
+                .description("Timed-out text parses still holding a parser thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    /**
+     * Queues the document's file for extraction once the current transaction commits.
+     */
+    public void schedule(BuildingDocument document) {
+        Long documentId = document.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(documentId);
+                }
+            });
+        } else {
+            submit(documentId);
+        }
+    }
+
+    /**
+     * Queues documents that were never extracted, as many as the queue has room for. Returns how many were queued.
+     */
+    public int enqueueBacklog() {
+        int room = workers.getQueue().remainingCapacity();
+        if (room == 0) return 0;
+
+        // Those already in flight have no row yet either; ask for enough to skip past them
+        List<Long> unprocessed = textRepository.findUnprocessedDocumentIds(Limit.of(room + backlog.size()));
+        int queued = 0;
+        for (Long documentId : unprocessed) {
+            if (queued == room) break;
+            if (submit(documentId)) queued++;
+        }
+        return queued;
+    }
+
+    private boolean submit(Long documentId) {
+        if (!backlog.add(documentId)) return false;
+        try {
+            workers.execute(() -> {
+                try {
+                    extract(documentId);
+                } catch (Exception e) {
+                    log.warn("Text extraction of document {} failed: {}", documentId, e.getMessage());
+                } finally {
+                    backlog.remove(documentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Queue full; the next sweep picks the document up
+            backlog.remove(documentId);
+            return false;
+        }
+    }
+
+    /**
+     * Extracts, stores and indexes the text of one document. Files that are missing, too large or of a type
+     * without an extractor are recorded as skipped; unreadable ones, and those still parsing at twice the time
+     * limit, as failed. Neither is retried. While every parser thread is held by an abandoned parse the document
+     * is left as it is, for a later sweep.
+     */
+    public void extract(Long documentId) {
+        Optional<BuildingDocument> found = documentRepository.findById(documentId);
+        if (found.isEmpty()) return;
+        BuildingDocument document = found.get();
+
+        ExtractionStatus status = ExtractionStatus.SKIPPED;
+        String content = null;
+
+        String fileName = FileCleanupService.toFileName(document.getFileUrl());
+        Optional<ContentAddressedStore.Location> location = fileName != null ? fileStorageService.findStoredFile(fileName) : Optional.empty();
+        if (location.isPresent() && location.get().length() <= limits.getMaxFileSize().toBytes()) {
+            ContentAddressedStore.Location file = location.get();
+            String contentType = contentTypeOf(file, fileName);
+            // RUNNING until the parse ends or is given up on; whichever comes second settles the abandoned count
+            AtomicInteger state = new AtomicInteger(RUNNING);
+            Future<Optional<String>> parse;
+            try {
+                parse = parsers.submit(() -> {
+                    try (InputStream in = contentStore.open(file)) {
+                        return textExtractor.extract(in, contentType);
+                    } finally {
+                        if (!state.compareAndSet(RUNNING, FINISHED)) abandonedParses.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("All {} text parsers are held by abandoned parses; document {} waits for the next sweep",
+                        abandonedParses.get(), documentId);
+                return;
+            }
+            try {
+                Optional<String> text = parse.get(hardTimeoutMillis(), TimeUnit.MILLISECONDS);
+                if (text.isPresent()) {
+                    status = ExtractionStatus.EXTRACTED;
+                    content = text.get();
+                }
+            } catch (TimeoutException e) {
+                abandonedParses.incrementAndGet();
+                if (!state.compareAndSet(RUNNING, ABANDONED)) abandonedParses.decrementAndGet();
+                parse.cancel(true);
+                log.warn("Text extraction of document {} ({}) timed out; {} abandoned parses hold parser threads",
+                        documentId, fileName, abandonedParses.get());
+                status = ExtractionStatus.FAILED;
+            } catch (ExecutionException e) {
+                log.warn("Could not extract text of document {} ({}): {}", documentId, fileName, e.getCause().getMessage());
+                status = ExtractionStatus.FAILED;
+            } catch (InterruptedException e) {
+                // Shutting down; without a row the document is picked up again after the restart
+                parse.cancel(true);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        DocumentText text = new DocumentText();
+        text.setDocument(document);
+        text.setStatus(status);
+        text.setContent(content);
+        text.setExtractedAt(Instant.now());
+        try {
+            textRepository.save(text);
+        } catch (DataIntegrityViolationException e) {
+            // The document was deleted meanwhile
+            return;
+        }
+
+        if (content != null && !content.isEmpty()) {
+            searchIndex.putText(document.getBuilding().getId(), documentId, content);
+        }
+    }
+
+    // The extractor stops at the time limit between pages on its own; this catches a single page that never ends
+    private long hardTimeoutMillis() {
+        return limits.getTimeout().multipliedBy(2).toMillis();
+    }
+
+    // The type sniffed at upload; names older than the content store fall back to their extension
+    private String contentTypeOf(ContentAddressedStore.Location location, String fileName) {
+        return Optional.ofNullable(location.sha256())
+                .flatMap(blobRepository::findById)
+                .map(FileBlob::getContentType)
+                .or(() -> MediaTypeFactory.getMediaType(fileName).map(MediaType::toString))
+                .orElse(null);
+    }
+}
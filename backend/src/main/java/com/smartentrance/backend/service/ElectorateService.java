@@ -0,0 +1,128 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.model.ElectorateSnapshot;
+import com.smartentrance.backend.model.VotesPoll;
+import com.smartentrance.backend.model.enums.PollWeighting;
+import com.smartentrance.backend.repository.ElectorateSnapshotRepository;
+import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.repository.VotesPollRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures and answers questions about poll electorates.
+ * <p>
+ * A provisional snapshot is taken when a poll is created; it is re-taken and frozen the moment the poll
+ * opens (by the scheduler, or by the first vote if that comes sooner). Frozen snapshots are cached until
+ * the poll ends, so eligibility checks during voting do not touch the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ElectorateService {
+
+    private final VotesPollRepository pollRepository;
+    private final ElectorateSnapshotRepository electorateRepository;
+    private final UnitRepository unitRepository;
+
+    private final Map<Integer, FrozenElectorate> frozen = new ConcurrentHashMap<>();
+
+    public ElectorateSnapshot capture(Integer buildingId, PollWeighting weighting) {
+        return ElectorateSnapshot.of(unitRepository.findEligibleUnits(buildingId),
+                weighting == PollWeighting.BY_AREA, Instant.now());
+    }
+
+    /**
+     * Takes the provisional snapshot of a newly saved poll.
+     */
+    public ElectorateSnapshot attach(VotesPoll poll) {
+        ElectorateSnapshot snapshot = capture(poll.getBuilding().getId(), poll.getWeighting());
+        snapshot.setPoll(poll);
+        poll.summarize(snapshot);
+        return electorateRepository.save(snapshot);
+    }
+
+    /**
+     * Returns the electorate of an open poll, freezing it first if nobody has yet.
+     */
+    @Transactional
+    public ElectorateSnapshot electorateOf(Integer pollId) {
+        FrozenElectorate cached = frozen.get(pollId);
+        if (cached != null) {
+            return cached.snapshot();
+        }
+
+        VotesPoll poll = pollRepository.findById(pollId)
+                .orElseThrow(() -> new EntityNotFoundException("Poll not found"));
+
+        if (Instant.now().isBefore(poll.getStartAt())) {
+            // Not open yet: the provisional snapshot may still change, so it is not cached
+            return electorateRepository.findById(pollId)
+                    .orElseGet(() -> capture(poll.getBuilding().getId(), poll.getWeighting()));
+        }
+
+        ElectorateSnapshot snapshot = electorateRepository.findById(pollId)
+                .filter(stored -> stored.isFrozenAtOpening(poll.getStartAt()))
+                .orElseGet(() -> freeze(poll));
+        cacheAfterCommit(pollId, new FrozenElectorate(snapshot, poll.getEndAt()));
+        return snapshot;
+    }
+
+    @Transactional
+    public void freezeOpenedPolls() {
+        for (Integer pollId : pollRepository.findOpenPollIdsWithoutFrozenElectorate(Instant.now())) {
+            ElectorateSnapshot snapshot = electorateOf(pollId);
+            log.info("Electorate of poll {} frozen with {} eligible units", pollId, snapshot.getEligibleCount());
+        }
+    }
+
+    public void evictEndedPolls() {
+        Instant now = Instant.now();
+        frozen.values().removeIf(entry -> entry.endAt().isBefore(now));
+    }
+
+    private ElectorateSnapshot freeze(VotesPoll poll) {
+        ElectorateSnapshot snapshot = capture(poll.getBuilding().getId(), poll.getWeighting());
+
+        int updated = pollRepository.freezeElectorate(poll.getId(),
+                snapshot.getEligibleCount(), snapshot.getTotalWeight(), snapshot.getFrozenAt());
+
+        if (updated == 0) {
+            // Someone else froze it first; theirs is the legal electorate
+            return electorateRepository.findById(poll.getId()).orElse(snapshot);
+        }
+        // Replaces the provisional snapshot in place; polls created without one get theirs now
+        Optional<ElectorateSnapshot> provisional = electorateRepository.findById(poll.getId());
+        if (provisional.isPresent()) {
+            provisional.get().replaceWith(snapshot);
+            return provisional.get();
+        }
+        snapshot.setPoll(poll);
+        return electorateRepository.save(snapshot);
+    }
+
+    private void cacheAfterCommit(Integer pollId, FrozenElectorate entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            frozen.put(pollId, entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                frozen.put(pollId, entry);
+            }
+        });
+    }
+
+    private record FrozenElectorate(ElectorateSnapshot snapshot, Instant endAt) {}
+}
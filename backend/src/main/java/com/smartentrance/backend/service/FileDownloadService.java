@@ -0,0 +1,198 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.model.enums.FileVariant;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Streams stored files with HTTP caching and single-range support.
+ * Packed files are served as their byte range of the pack segment.
+ * <p>
+ * Bodies go through Tomcat's sendfile when the connector offers it, so the kernel copies the file straight
+ * to the socket; otherwise they are pushed with {@link FileChannel#transferTo} without a heap copy per chunk.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileDownloadService {
+
+    // Tomcat request attributes for handing the body to the connector (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Uploads are stored under a random UUID and never rewritten, so clients may cache them indefinitely
+    private static final Pattern IMMUTABLE_NAME = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(\\.\\w+)?");
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}(\\.[\\w.]+)?");
+    private static final String IMMUTABLE_CACHE = "private, max-age=31536000, immutable";
+    private static final String REVALIDATE_CACHE = "private, no-cache";
+
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final ContentAddressedStore contentStore;
+    private final DerivativeService derivativeService;
+
+    /**
+     * Streams {@code fileName}, or its thumbnail for {@link FileVariant#THUMB}. Files without one (small
+     * images, PDFs a preview would not make smaller, legacy names) are served as they are.
+     */
+    public void serve(String fileName, FileVariant variant, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ContentAddressedStore.Location location = fileStorageService.locateStoredFile(fileName);
+        // The requested name carries the extension; the blob on disk does not
+        MediaType contentType = MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        String downloadName = fileName;
+        String derivativeOf = null;
+
+        if (variant == FileVariant.THUMB) {
+            Optional<DerivativeService.Derivative> thumbnail = derivativeService.thumbnail(fileName);
+            if (thumbnail.isPresent()) {
+                derivativeOf = thumbnail.get().sha256();
+                location = thumbnail.get().location();
+                contentType = thumbnail.get().contentType();
+                downloadName = StringUtils.stripFilenameExtension(fileName) + "-thumb" + thumbnail.get().extension();
+            }
+        }
+
+        Path path = location.file();
+        long length = location.length();
+        long lastModified = location.lastModified().toEpochMilli();
+        // Blobs are named by the content's SHA-256, which makes a natural strong validator; it also survives the
+        // blob moving into a pack segment or another storage backend. A thumbnail is other bytes of the same
+        // content, so its validator carries the variant as well
+        String blobName = path != null
+                ? path.getFileName().toString()
+                : location.key().substring(location.key().lastIndexOf('/') + 1);
+        String etag = derivativeOf != null
+                ? "\"" + derivativeOf + "-" + variant.name().toLowerCase(Locale.ROOT) + "\""
+                : location.sha256() != null
+                ? "\"" + location.sha256() + "\""
+                : CONTENT_HASH.matcher(blobName).matches()
+                ? "\"" + blobName + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                IMMUTABLE_NAME.matcher(fileName).matches() ? IMMUTABLE_CACHE : REVALIDATE_CACHE);
+
+        // Sets ETag/Last-Modified and answers 304 (or 412) by itself when the client copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + downloadName + "\"");
+
+        long start = 0;
+        long end = length - 1;
+
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            if (length == 0 || !isSatisfiable(range, length)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(Math.max(count, 0));
+        if (count <= 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        // Remote blobs are relayed as a ranged stream; only files on this node can go through the kernel
+        if (path == null) {
+            try (InputStream in = contentStore.open(location, start, count)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, location.offset() + start);
+            request.setAttribute(SENDFILE_END, location.offset() + end + 1);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = location.offset() + start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Returns the single range to serve, or null for the whole file. Multiple ranges and stale
+     * {@code If-Range} validators fall back to a full response, which RFC 9110 allows.
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag) && !matchesDate(request, lastModified)) {
+            return null;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.getFirst() : null;
+    }
+
+    private static boolean matchesDate(HttpServletRequest request, long lastModified) {
+        try {
+            long ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return ifRangeDate != -1 && lastModified / 1000 <= ifRangeDate / 1000;
+        } catch (IllegalArgumentException e) {
+            // A weak or foreign ETag; never a match for a strong validator
+            return false;
+        }
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length) < length;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
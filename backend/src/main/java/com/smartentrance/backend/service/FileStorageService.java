@@ -1,42 +1,52 @@
 package com.smartentrance.backend.service;
 
 import com.smartentrance.backend.config.FileStorageProperties;
-import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.dto.file.StoredUpload;
+import jakarta.persistence.EntityNotFoundException;
 import org.apache.tika.Tika;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.file.*;
-import java.time.Instant;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class FileStorageService {
 
     private final Path fileStorageLocation;
+    private final long maxFileBytes;
+    private final DiskSpaceMonitor diskSpaceMonitor;
+    private final ContentAddressedStore contentStore;
+    private final DerivativeService derivativeService;
     private final Tika tika = new Tika();
 
-    private final Map<Long, Instant> uploadRateLimit = new ConcurrentHashMap<>();
-
-    private static final int UPLOAD_COOLDOWN_SECONDS = 10;
-
-    private static final long MIN_FREE_SPACE_BYTES = 500 * 1024 * 1024;
+    // The first chunk doubles as the sniffing prefix; every supported type is identified by its leading bytes
+    private static final int CHUNK_BYTES = 64 * 1024;
 
     private static final List<String> ALLOWED_MIME_TYPES = Arrays.asList(
             "application/pdf", "image/jpeg", "image/png", "image/jpg"
     );
 
-    public FileStorageService(FileStorageProperties fileStorageProperties) {
+    public FileStorageService(FileStorageProperties fileStorageProperties,
+                              DiskSpaceMonitor diskSpaceMonitor,
+                              ContentAddressedStore contentStore,
+                              DerivativeService derivativeService) {
         this.fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir())
                 .toAbsolutePath().normalize();
+        this.maxFileBytes = fileStorageProperties.getMaxFileSize().toBytes();
+        this.diskSpaceMonitor = diskSpaceMonitor;
+        this.contentStore = contentStore;
+        this.derivativeService = derivativeService;
         try {
             Files.createDirectories(this.fileStorageLocation);
         } catch (Exception ex) {
@@ -49,60 +59,108 @@ public class FileStorageService {
         if (!fileName.toLowerCase().endsWith(".pdf")) {
             throw new RuntimeException("System Error: Internal file generation must be PDF.");
         }
-        Path targetLocation = getSecurePath(fileName);
+        getSecurePath(fileName);
+        Path tempFile = null;
         try {
-            Files.write(targetLocation, content, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            tempFile = Files.createTempFile(this.fileStorageLocation, ".upload-", ".part");
+            Files.write(tempFile, content);
+
+            // Regenerating a receipt re-points the same name; identical bytes are not stored again
+            contentStore.commit(tempFile, sha256, content.length, "application/pdf", fileName, true);
+            tempFile = null;
             return fileName;
-        } catch (IOException ex) {
+        } catch (IOException | NoSuchAlgorithmException ex) {
             throw new RuntimeException("Could not store file " + fileName, ex);
+        } finally {
+            deleteQuietly(tempFile);
         }
     }
 
     @PreAuthorize("isAuthenticated()")
-    public String storeFile(MultipartFile file, User user) {
-        Instant lastUpload = uploadRateLimit.get(user.getId());
-        if (lastUpload != null && lastUpload.plusSeconds(UPLOAD_COOLDOWN_SECONDS).isAfter(Instant.now())) {
-            throw new RuntimeException("Rate Limit Exceeded: Please wait " + UPLOAD_COOLDOWN_SECONDS + " seconds between uploads.");
-        }
-        uploadRateLimit.put(user.getId(), Instant.now());
+    public String storeFile(MultipartFile file) {
+        return storeUpload(file).fileName();
+    }
 
-        try {
-            long freeSpace = Files.getFileStore(this.fileStorageLocation).getUsableSpace();
-            if (freeSpace < MIN_FREE_SPACE_BYTES) {
-                throw new RuntimeException("Server Error: Not enough disk space. Please contact support.");
-            }
-        } catch (IOException e) {
-            System.err.println("Could not check disk space: " + e.getMessage());
+    /**
+     * Stores an upload in a single pass: the type is sniffed from the first chunk, the SHA-256 is computed
+     * and the size limit enforced while streaming to a temp file, which is then handed to the content store.
+     * The returned name is new every time, even when the bytes were already stored.
+     */
+    @PreAuthorize("isAuthenticated()")
+    public StoredUpload storeUpload(MultipartFile file) {
+        if (file.isEmpty()) throw new RuntimeException("Empty file.");
+        if (file.getSize() > maxFileBytes) throw new RuntimeException("File is larger than " + maxFileBytes / 1024 / 1024 + " MB.");
+
+        if (!diskSpaceMonitor.hasRoomFor(file.getSize())) {
+            throw new RuntimeException("Server Error: Not enough disk space. Please contact support.");
         }
 
         String originalFileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        if (file.isEmpty()) throw new RuntimeException("Empty file.");
+        String fileExtension = "";
+        int lastDotIndex = originalFileName.lastIndexOf(".");
+        if (lastDotIndex > 0) fileExtension = originalFileName.substring(lastDotIndex);
 
-        try {
-            String detectedType = tika.detect(file.getInputStream());
+        Path tempFile = null;
+        try (InputStream in = file.getInputStream()) {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            int read = in.readNBytes(chunk, 0, chunk.length);
+
+            String detectedType = tika.detect(Arrays.copyOf(chunk, read));
             if (!ALLOWED_MIME_TYPES.contains(detectedType)) {
                 throw new RuntimeException("Security Error: Invalid file type: " + detectedType);
             }
 
-            String fileExtension = "";
-            int lastDotIndex = originalFileName.lastIndexOf(".");
-            if (lastDotIndex > 0) fileExtension = originalFileName.substring(lastDotIndex);
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+
+            // Same directory as the target, so the final move is a rename on one file system
+            tempFile = Files.createTempFile(this.fileStorageLocation, ".upload-", ".part");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                while (read > 0) {
+                    size += read;
+                    if (size > maxFileBytes) {
+                        throw new RuntimeException("File is larger than " + maxFileBytes / 1024 / 1024 + " MB.");
+                    }
+                    sha256.update(chunk, 0, read);
+                    out.write(chunk, 0, read);
+                    read = in.read(chunk);
+                }
+            }
 
+            String hash = HexFormat.of().formatHex(sha256.digest());
             String newFileName = UUID.randomUUID() + fileExtension;
-            Path targetLocation = getSecurePath(newFileName);
+            contentStore.commit(tempFile, hash, size, detectedType, newFileName, true);
+            tempFile = null;
+            derivativeService.generate(hash, detectedType);
 
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            return newFileName;
+            return new StoredUpload(newFileName, detectedType, size, hash);
 
-        } catch (IOException ex) {
+        } catch (IOException | NoSuchAlgorithmException ex) {
             throw new RuntimeException("Upload failed.", ex);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left for the nightly orphan cleanup
         }
     }
 
     @PreAuthorize("isAuthenticated()")
     public Resource loadFileAsResource(String fileName) {
+        Optional<ContentAddressedStore.Location> stored = contentStore.locate(fileName);
+        // Cold files are served straight from the memory-mapped pack segment, remote ones from the object store
+        if (stored.isPresent() && (stored.get().packId() != null || stored.get().file() == null)) {
+            return contentStore.asResource(stored.get(), fileName);
+        }
         try {
-            Path filePath = getSecurePath(fileName);
+            Path filePath = stored.map(ContentAddressedStore.Location::file).orElseGet(() -> getSecurePath(fileName));
             Resource resource = new UrlResource(filePath.toUri());
             if(resource.exists()) return resource;
             else throw new RuntimeException("File not found " + fileName);
@@ -111,6 +169,44 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Locates a stored file for streaming; unlike {@link #loadFileAsResource} a missing file is a 404.
+     */
+    @PreAuthorize("isAuthenticated()")
+    public ContentAddressedStore.Location locateStoredFile(String fileName) {
+        return findStoredFile(fileName).orElseThrow(() -> new EntityNotFoundException("File not found " + fileName));
+    }
+
+    /**
+     * Locates a stored file without a caller to authorize, for background work; empty when the file is missing.
+     */
+    public Optional<ContentAddressedStore.Location> findStoredFile(String fileName) {
+        Optional<ContentAddressedStore.Location> stored = contentStore.locate(fileName);
+        if (stored.isPresent() && (stored.get().file() == null || stored.get().packId() != null
+                || Files.isRegularFile(stored.get().file()))) {
+            return stored;
+        }
+        // Names written before the content store existed still live flat in the upload directory
+        Path filePath = getSecurePath(fileName);
+        if (!Files.isRegularFile(filePath)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(ContentAddressedStore.Location.ofFile(filePath));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The file holding a stored name's bytes; for a packed name that is its whole segment,
+     * see {@link #locateStoredFile} for the offset. Null when the blob is kept in a remote store.
+     */
+    @PreAuthorize("isAuthenticated()")
+    public Path resolveStoredFile(String fileName) {
+        return locateStoredFile(fileName).file();
+    }
+
     private Path getSecurePath(String fileName) {
         String cleanFileName = StringUtils.cleanPath(fileName);
         if (cleanFileName.contains("..")) {
@@ -122,12 +218,4 @@ public class FileStorageService {
         }
         return targetLocation;
     }
-    @Scheduled(fixedRate = 600000)
-    public void cleanUpRateLimitCache() {
-        Instant now = Instant.now();
-        uploadRateLimit.entrySet().removeIf(entry ->
-                entry.getValue().plusSeconds(60).isBefore(now)
-        );
-    }
-
 }
\ No newline at end of file
@@ -246,23 +246,17 @@ public class FinanceService {
 
     @PreAuthorize("@buildingSecurity.isManager(#buildingId, principal.user)")
     public List<TransactionResponse> getBuildingTransactions(Integer buildingId, TransactionType type, TransactionStatus status) {
-        return transactionRepository.searchTransactions(buildingId, type, status).stream().map(transactionMapper::toResponse).toList();
+        return transactionRepository.searchTransactions(buildingId, type, status).stream().map(transactionMapper::withDocumentUrls).toList();
     }
 
     @PreAuthorize("@buildingSecurity.canAccessUnitFinance(#unitId, principal.user)")
     public List<TransactionResponse> getTransactionHistory(Long unitId, TransactionType type) {
-        Unit unit = unitService.findById(unitId).orElseThrow();
-
-        List<Transaction> transactions = (type != null)
-                ? transactionRepository.findAllByUnitIdAndTypeAndResponsibleUserIdOrderByCreatedAtDesc(unitId, type, unit.getResponsibleUser().getId())
-                : transactionRepository.findAllByUnitIdAndResponsibleUserIdOrderByCreatedAtDesc(unitId, unit.getResponsibleUser().getId());
-
-        return transactions.stream().map(transactionMapper::toResponse).toList();
+        return transactionRepository.findUnitHistory(unitId, type).stream().map(transactionMapper::withDocumentUrls).toList();
     }
 
     @PreAuthorize("@buildingSecurity.hasAccess(#buildingId, principal.user)")
     public List<BuildingExpenseResponse> getBuildingExpenses(Integer buildingId) {
-        return expenseRepository.findAllByBuildingIdOrderByExpenseDateDesc(buildingId).stream().map(expenseMapper::toResponse).toList();
+        return expenseRepository.findResponses(buildingId).stream().map(expenseMapper::withDocumentUrl).toList();
     }
 
     private Transaction createBaseTransaction(Long unitId, BigDecimal amount, TransactionType type, PaymentMethod method,
@@ -270,6 +264,7 @@ public class FinanceService {
         Unit unit = unitService.findById(unitId).orElseThrow();
         Transaction t = new Transaction();
         t.setUnit(unit);
+        t.setBuilding(unit.getBuilding());
         t.setAmount(amount);
         t.setType(type);
         t.setPaymentMethod(method);
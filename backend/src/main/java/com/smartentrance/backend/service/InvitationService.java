@@ -8,6 +8,7 @@ import com.smartentrance.backend.model.Unit;
 import com.smartentrance.backend.model.User;
 import com.smartentrance.backend.model.enums.InvitationStatus;
 import com.smartentrance.backend.repository.InvitationRepository;
+import com.smartentrance.backend.security.CodeLookupGuard;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +29,7 @@ public class InvitationService {
     private final UnitService unitService;
     private final EmailSender emailService;
     private final InvitationMapper invitationMapper;
+    private final CodeLookupGuard codeLookupGuard;
 
     private static final int INVITATION_EXPIRY_DAYS = 7;
 
@@ -48,6 +50,7 @@ public class InvitationService {
                 .build();
 
         invitation = invitationRepository.save(invitation);
+        codeLookupGuard.registerInvitationCode(invitationCode);
         log.info("Invitation created with code: {} for email: {}", invitationCode, request.inviteeEmail());
 
         try {
@@ -65,8 +68,18 @@ public class InvitationService {
     }
 
     public InvitationResponse validateInvitation(String invitationCode, String email) {
+        codeLookupGuard.checkNotLocked();
+
+        if (!codeLookupGuard.mightBeInvitationCode(invitationCode)) {
+            codeLookupGuard.recordFailure();
+            throw new EntityNotFoundException("Invalid invitation code or email");
+        }
+
         Invitation invitation = invitationRepository.findByInvitationCodeAndInviteeEmail(invitationCode, email)
-                .orElseThrow(() -> new EntityNotFoundException("Invalid invitation code or email"));
+                .orElseThrow(() -> {
+                    codeLookupGuard.recordFailure();
+                    return new EntityNotFoundException("Invalid invitation code or email");
+                });
 
         if (invitation.getStatus() != InvitationStatus.PENDING) {
             throw new IllegalStateException("Invitation has already been " + invitation.getStatus().name().toLowerCase());
@@ -83,6 +96,10 @@ public class InvitationService {
 
     @Transactional
     public InvitationResponse acceptInvitation(String invitationCode, User acceptedBy) {
+        if (!codeLookupGuard.mightBeInvitationCode(invitationCode)) {
+            throw new EntityNotFoundException("Invalid invitation code or you are not the intended recipient");
+        }
+
         Invitation invitation = invitationRepository.findByInvitationCodeAndInviteeEmail(invitationCode, acceptedBy.getEmail())
                 .orElseThrow(() -> new EntityNotFoundException("Invalid invitation code or you are not the intended recipient"));
 
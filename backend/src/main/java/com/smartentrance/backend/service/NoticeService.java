@@ -1,8 +1,12 @@
 package com.smartentrance.backend.service;
 
+import com.smartentrance.backend.dto.common.CursorPage;
+import com.smartentrance.backend.dto.common.PageCursor;
 import com.smartentrance.backend.dto.enums.FilterType;
 import com.smartentrance.backend.dto.notice.NoticeCreateRequest;
 import com.smartentrance.backend.dto.notice.NoticeResponse;
+import com.smartentrance.backend.dto.notice.NoticeRow;
+import com.smartentrance.backend.dto.notice.NoticeSummary;
 import com.smartentrance.backend.dto.notice.NoticeUpdateRequest;
 import com.smartentrance.backend.mapper.NoticeMapper;
 import com.smartentrance.backend.model.BuildingDocument;
@@ -13,6 +17,7 @@ import com.smartentrance.backend.repository.DocumentRepository;
 import com.smartentrance.backend.repository.NoticeRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +35,7 @@ public class NoticeService {
     private final NoticeMapper noticeMapper;
     private final FileStorageService fileStorageService;
     private final DocumentRepository documentRepository;
+    private final DocumentTextService documentTextService;
 
     @Transactional
     @PreAuthorize("@buildingSecurity.isManager(#buildingId, principal.user)")
@@ -39,7 +45,7 @@ public class NoticeService {
         // Handle document upload if provided
         if (documentFile != null && !documentFile.isEmpty()) {
             // Upload file
-            String fileName = fileStorageService.storeFile(documentFile, currentUser);
+            String fileName = fileStorageService.storeFile(documentFile);
             String fileUrl = "/api/uploads/files/" + fileName;
 
             // Create BuildingDocument entity
@@ -54,6 +60,7 @@ public class NoticeService {
 
             // Save document
             document = documentRepository.save(document);
+            documentTextService.schedule(document);
         }
 
         // Create notice
@@ -75,14 +82,45 @@ public class NoticeService {
     @PreAuthorize("@buildingSecurity.hasAccess(#buildingId, principal.user)")
     public List<NoticeResponse> getNotices(Integer buildingId, FilterType filter) {
         Instant now = Instant.now();
-        List<Notice> notices;
-        switch (filter) {
-            case FilterType.ACTIVE -> notices = noticeRepository.findAllByBuildingIdAndEventDateTimeAfterOrderByEventDateTimeAsc(buildingId, now);
-            case FilterType.HISTORY -> notices = noticeRepository.findAllByBuildingIdAndEventDateTimeBeforeOrderByEventDateTimeDesc(buildingId, now);
-            default -> notices = noticeRepository.findAllByBuildingIdOrderByEventDateTimeDesc(buildingId);
-        }
+        List<NoticeRow> rows = switch (filter) {
+            case ACTIVE -> noticeRepository.findUpcomingRows(buildingId, now);
+            case HISTORY -> noticeRepository.findPastRows(buildingId, now);
+            default -> noticeRepository.findRows(buildingId);
+        };
+
+        return rows.stream().map(noticeMapper::toResponse).toList();
+    }
+
+    /**
+     * Keyset-paginated notice summaries without the attached document; see {@link #getNotice} for detail.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("@buildingSecurity.hasAccess(#buildingId, principal.user)")
+    public CursorPage<NoticeSummary> getNoticeSummaries(Integer buildingId, FilterType filter, String cursor, Integer limit) {
+        Instant now = Instant.now();
+        int pageSize = CursorPage.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+
+        PageCursor start = filter == FilterType.ACTIVE ? PageCursor.START_ASCENDING : PageCursor.START_DESCENDING;
+        PageCursor after = PageCursor.decode(cursor, start);
+        int afterId = (int) Math.min(after.id(), Integer.MAX_VALUE);
+
+        List<NoticeSummary> rows = switch (filter) {
+            case ACTIVE -> noticeRepository.findUpcomingSummaryPage(buildingId, now, after.at(), afterId, fetch);
+            case HISTORY -> noticeRepository.findPastSummaryPage(buildingId, now, after.at(), afterId, fetch);
+            default -> noticeRepository.findSummaryPage(buildingId, after.at(), afterId, fetch);
+        };
+
+        return CursorPage.of(rows, pageSize, s -> new PageCursor(s.noticeDateTime(), s.id()));
+    }
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("@buildingSecurity.hasAccessByNoticeId(#noticeId, principal.user)")
+    public NoticeResponse getNotice(Integer noticeId) {
+        Notice notice = noticeRepository.findById(noticeId)
+                .orElseThrow(() -> new EntityNotFoundException("Notice not found"));
 
-        return notices.stream().map(noticeMapper::toResponse).toList();
+        return noticeMapper.toResponse(notice);
     }
 
     @Transactional
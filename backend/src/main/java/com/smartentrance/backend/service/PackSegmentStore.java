@@ -0,0 +1,175 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.dto.file.BlobRef;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only segment files under {@code <upload-dir>/packs} that hold many cold blobs each, so millions of
+ * old receipts cost a handful of inodes instead of one each.
+ * <p>
+ * A record is {@code magic | sha-256 | length | content}. {@code file_blobs} keeps the offset of the content;
+ * the header only serves the verification pass and recovery by hand. Segments are read through one cached
+ * read-only memory mapping each, so a packed read is a slice of memory the page cache already holds.
+ */
+@Service
+public class PackSegmentStore {
+
+    private static final String PACKS_DIR = "packs";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("pack-(\\d{8})\\.seg");
+    private static final int MAGIC = 0x50414b31; // "PAK1"
+    private static final int HASH_BYTES = 32;
+    static final int HEADER_BYTES = Integer.BYTES + HASH_BYTES + Long.BYTES;
+
+    private final Path packsRoot;
+    private final long segmentSize;
+    private final Map<Long, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    public PackSegmentStore(FileStorageProperties fileStorageProperties) {
+        this.packsRoot = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize().resolve(PACKS_DIR);
+        this.segmentSize = Math.min(fileStorageProperties.getPack().getSegmentSize().toBytes(), Integer.MAX_VALUE);
+    }
+
+    public Path segmentPath(long packId) {
+        return packsRoot.resolve(String.format("pack-%08d.seg", packId));
+    }
+
+    /**
+     * Read-only view of a packed blob's content.
+     */
+    public ByteBuffer read(long packId, long offset, long length) {
+        long end = offset + length;
+        MappedByteBuffer mapping = mappings.get(packId);
+        if (mapping == null || end > mapping.capacity()) {
+            // The newest segment grows while it is being filled; map it again once a read reaches past the old end
+            mapping = mappings.compute(packId, (id, current) ->
+                    current != null && end <= current.capacity() ? current : map(id));
+        }
+        return mapping.slice((int) offset, (int) length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Checks the record header and that the content still hashes to the blob's name.
+     */
+    public boolean verify(BlobRef blob) {
+        try {
+            ByteBuffer header = read(blob.packId(), blob.packOffset() - HEADER_BYTES, HEADER_BYTES);
+            byte[] hash = new byte[HASH_BYTES];
+            if (header.getInt() != MAGIC) return false;
+            header.get(hash);
+            if (header.getLong() != blob.size() || !HexFormat.of().formatHex(hash).equals(blob.sha256())) return false;
+
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(read(blob.packId(), blob.packOffset(), blob.size()));
+            return HexFormat.of().formatHex(sha256.digest()).equals(blob.sha256());
+        } catch (RuntimeException | NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the newest segment for appending, or a new one when it is full. Callers make sure only one
+     * writer exists at a time.
+     */
+    public Writer openWriter() throws IOException {
+        Files.createDirectories(packsRoot);
+        long newest = 0;
+        try (Stream<Path> segments = Files.list(packsRoot)) {
+            for (Path segment : (Iterable<Path>) segments::iterator) {
+                Matcher name = SEGMENT_NAME.matcher(segment.getFileName().toString());
+                if (name.matches()) newest = Math.max(newest, Long.parseLong(name.group(1)));
+            }
+        }
+        if (newest == 0 || Files.size(segmentPath(newest)) >= segmentSize) {
+            newest++;
+        }
+        return new Writer(newest);
+    }
+
+    private MappedByteBuffer map(long packId) {
+        try (FileChannel channel = FileChannel.open(segmentPath(packId), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map pack segment " + packId, e);
+        }
+    }
+
+    public record Slot(long packId, long offset, long length) {}
+
+    public final class Writer implements Closeable {
+
+        private long packId;
+        private FileChannel channel;
+
+        private Writer(long packId) throws IOException {
+            open(packId);
+        }
+
+        /**
+         * Appends a loose blob and returns where its content landed, or null when the file no longer
+         * hashes to {@code sha256}. Nothing is durable until {@link #sync()}.
+         */
+        public Slot append(String sha256, Path source) throws IOException {
+            byte[] content = Files.readAllBytes(source);
+            byte[] hash;
+            try {
+                hash = MessageDigest.getInstance("SHA-256").digest(content);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            if (!HexFormat.of().formatHex(hash).equals(sha256)) return null;
+
+            if (channel.size() + HEADER_BYTES + content.length > segmentSize && channel.size() > 0) {
+                sync();
+                channel.close();
+                open(packId + 1);
+            }
+
+            long start = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).put(hash).putLong(content.length).flip();
+            ByteBuffer[] record = {header, ByteBuffer.wrap(content)};
+            while (header.hasRemaining() || record[1].hasRemaining()) {
+                channel.write(record);
+            }
+            return new Slot(packId, start + HEADER_BYTES, content.length);
+        }
+
+        public void sync() throws IOException {
+            channel.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                sync();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void open(long id) throws IOException {
+            this.packId = id;
+            this.channel = FileChannel.open(segmentPath(id),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.poll.CastBallot;
+import com.smartentrance.backend.model.ElectorateSnapshot;
+import com.smartentrance.backend.model.PollResult;
+import com.smartentrance.backend.model.VotesOption;
+import com.smartentrance.backend.model.VotesPoll;
+import com.smartentrance.backend.model.enums.PollWeighting;
+import com.smartentrance.backend.repository.ElectorateSnapshotRepository;
+import com.smartentrance.backend.repository.PollResultRepository;
+import com.smartentrance.backend.repository.UserVoteRepository;
+import com.smartentrance.backend.repository.VotesPollRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Freezes the outcome of polls once their voting window has closed.
+ * <p>
+ * Results are recomputed from the votes table rather than copied from the live option counters,
+ * so a drifted counter cannot leak into the permanent record.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PollResultService {
+
+    private final VotesPollRepository pollRepository;
+    private final UserVoteRepository userVoteRepository;
+    private final PollResultRepository resultRepository;
+    private final ElectorateSnapshotRepository electorateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.polls.quorum-percent:50}")
+    private int quorumPercent;
+
+    public void finalizeEndedPolls() {
+        for (Integer pollId : pollRepository.findUnfinalizedEndedPollIds(Instant.now())) {
+            // One transaction per poll so a single bad poll does not hold back the rest
+            try {
+                transactionTemplate.executeWithoutResult(status -> finalizePoll(pollId));
+            } catch (Exception e) {
+                log.error("FAILED: Could not finalize poll {}: {}", pollId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void finalizePoll(Integer pollId) {
+        VotesPoll poll = pollRepository.findById(pollId).orElse(null);
+        if (poll == null || resultRepository.existsById(pollId)) {
+            return;
+        }
+
+        ElectorateSnapshot electorate = electorateRepository.findById(pollId).orElseGet(ElectorateSnapshot::new);
+        boolean weighted = poll.getWeighting() == PollWeighting.BY_AREA;
+
+        Map<Integer, long[]> totals = new HashMap<>();
+        for (CastBallot ballot : userVoteRepository.findBallotsByPollId(pollId)) {
+            long[] optionTotals = totals.computeIfAbsent(ballot.optionId(), id -> new long[2]);
+            optionTotals[0]++;
+            optionTotals[1] += weighted ? electorate.weightOf(ballot.unitId()) : 0;
+        }
+
+        List<PollResult.OptionResult> options = poll.getOptions().stream()
+                .map(option -> toOptionResult(option, totals.getOrDefault(option.getId(), new long[2])))
+                .toList();
+
+        long totalVotes = options.stream().mapToLong(PollResult.OptionResult::getVoteCount).sum();
+        long totalWeightedVotes = options.stream().mapToLong(PollResult.OptionResult::getWeightedVotes).sum();
+        int eligibleVoters = electorate.getEligibleCount() != null ? electorate.getEligibleCount() : 0;
+        long eligibleWeight = electorate.getTotalWeight() != null ? electorate.getTotalWeight() : 0;
+
+        boolean quorumReached = weighted
+                ? isQuorum(totalWeightedVotes, eligibleWeight)
+                : isQuorum(totalVotes, eligibleVoters);
+
+        PollResult result = PollResult.builder()
+                .pollId(pollId)
+                .buildingId(poll.getBuilding().getId())
+                .createdByUserId(poll.getCreatedBy() != null ? poll.getCreatedBy().getId() : null)
+                .title(poll.getTitle())
+                .description(poll.getDescription())
+                .startAt(poll.getStartAt())
+                .endAt(poll.getEndAt())
+                .weighting(poll.getWeighting())
+                .totalVotes(totalVotes)
+                .eligibleVoters(eligibleVoters)
+                .totalWeightedVotes(totalWeightedVotes)
+                .eligibleWeight(eligibleWeight)
+                .quorumReached(quorumReached)
+                .winningOptionId(quorumReached ? winnerOf(options, weighted) : null)
+                .options(options)
+                .finalizedAt(Instant.now())
+                .build();
+
+        resultRepository.save(result);
+        log.info("Poll {} finalized: {} votes, quorum {}", pollId, totalVotes, quorumReached ? "reached" : "missed");
+    }
+
+    private boolean isQuorum(long cast, long eligible) {
+        return eligible > 0 && cast * 100 >= eligible * quorumPercent;
+    }
+
+    private static PollResult.OptionResult toOptionResult(VotesOption option, long[] totals) {
+        return new PollResult.OptionResult(option.getId(), option.getOptionText(), totals[0], totals[1]);
+    }
+
+    private static Integer winnerOf(List<PollResult.OptionResult> options, boolean weighted) {
+        Integer winner = null;
+        long best = 0;
+        boolean tied = false;
+
+        for (PollResult.OptionResult option : options) {
+            long score = weighted ? option.getWeightedVotes() : option.getVoteCount();
+            if (score > best) {
+                best = score;
+                winner = option.getOptionId();
+                tied = false;
+            } else if (score == best && score > 0) {
+                tied = true;
+            }
+        }
+        return tied ? null : winner;
+    }
+}
@@ -1,21 +1,32 @@
 package com.smartentrance.backend.service;
 
+import com.smartentrance.backend.caching.BuildingVersions;
+import com.smartentrance.backend.dto.common.CursorPage;
+import com.smartentrance.backend.dto.common.PageCursor;
 import com.smartentrance.backend.dto.enums.FilterType;
 import com.smartentrance.backend.dto.poll.*;
 import com.smartentrance.backend.mapper.PollMapper;
 import com.smartentrance.backend.model.*;
+import com.smartentrance.backend.model.enums.PollWeighting;
+import com.smartentrance.backend.repository.ElectorateSnapshotRepository;
+import com.smartentrance.backend.repository.PollResultRepository;
 import com.smartentrance.backend.repository.UserVoteRepository;
 import com.smartentrance.backend.repository.VotesOptionRepository;
 import com.smartentrance.backend.repository.VotesPollRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,9 +36,14 @@ public class PollService {
     private final VotesPollRepository pollRepository;
     private final UserVoteRepository userVoteRepository;
     private final VotesOptionRepository optionRepository;
+    private final PollResultRepository pollResultRepository;
     private final BuildingService buildingService;
-    private final UnitService unitService;
     private final PollMapper pollMapper;
+    private final PollTallyService pollTallyService;
+    private final VoteWriter voteWriter;
+    private final ElectorateService electorateService;
+    private final ElectorateSnapshotRepository electorateRepository;
+    private final BuildingVersions buildingVersions;
 
     @Transactional
     @PreAuthorize("@buildingSecurity.isManager(#buildingId, principal.user)")
@@ -43,6 +59,7 @@ public class PollService {
         poll.setEndAt(request.endAt());
         poll.setBuilding(buildingService.getBuildingReference(buildingId));
         poll.setCreatedBy(currentUser);
+        poll.setWeighting(request.weighting() != null ? request.weighting() : PollWeighting.PER_UNIT);
 
         for (String optionText : request.options()) {
             if (optionText != null && !optionText.isBlank()) {
@@ -54,6 +71,7 @@ public class PollService {
         }
 
         VotesPoll votesPoll = pollRepository.save(poll);
+        electorateService.attach(votesPoll);
 
         return pollMapper.toResponse(votesPoll, null);
     }
@@ -66,16 +84,13 @@ public class PollService {
 
         switch (filter) {
             case ACTIVE -> polls = pollRepository.findAllActive(buildingId, now);
-            case HISTORY -> polls = pollRepository.findAllHistory(buildingId, now);
+            case HISTORY -> {
+                return getHistory(buildingId, now, currentUser);
+            }
             default -> polls = pollRepository.findAllByBuildingIdOrderByCreatedAtDesc(buildingId);
         }
 
-        Map<Integer, Integer> userVotesMap = userVoteRepository.findAllByUserIdAndBuildingId(currentUser.getId(), buildingId)
-                .stream()
-                .collect(Collectors.toMap(
-                        v -> v.getPoll().getId(),
-                        v -> v.getOption().getId()
-                ));
+        Map<Integer, Integer> userVotesMap = getUserVotes(buildingId, currentUser);
 
         return polls.stream()
                 .map(poll -> pollMapper.toResponse(
@@ -85,56 +100,169 @@ public class PollService {
                 .toList();
     }
 
+    /**
+     * Keyset-paginated poll summaries; option and vote graphs are left for {@link #getPollById}.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("@buildingSecurity.hasAccess(#buildingId, principal.user)")
+    public CursorPage<PollSummary> getPollSummaries(Integer buildingId, FilterType filter, String cursor, Integer limit) {
+        Instant now = Instant.now();
+        int pageSize = CursorPage.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+
+        return switch (filter) {
+            case ACTIVE -> {
+                PageCursor after = PageCursor.decode(cursor, PageCursor.START_ASCENDING);
+                List<PollSummary> rows = pollRepository.findActiveSummaryPage(buildingId, now, after.at(), toIntId(after), fetch);
+                yield CursorPage.of(rows, pageSize, s -> new PageCursor(s.endAt(), s.id()));
+            }
+            case HISTORY -> {
+                PageCursor after = PageCursor.decode(cursor, PageCursor.START_DESCENDING);
+                List<PollSummary> rows = pollRepository.findHistorySummaryPage(buildingId, now, after.at(), toIntId(after), fetch);
+                yield CursorPage.of(rows, pageSize, s -> new PageCursor(s.endAt(), s.id()));
+            }
+            default -> {
+                PageCursor after = PageCursor.decode(cursor, PageCursor.START_DESCENDING);
+                List<PollSummary> rows = pollRepository.findSummaryPage(buildingId, now, after.at(), toIntId(after), fetch);
+                yield CursorPage.of(rows, pageSize, s -> new PageCursor(s.createdAt(), s.id()));
+            }
+        };
+    }
+
+    private static int toIntId(PageCursor cursor) {
+        return (int) Math.min(cursor.id(), Integer.MAX_VALUE);
+    }
+
+    // Completed polls come from their finalized results; only polls the job has not reached yet are computed live
+    private List<PollResponse> getHistory(Integer buildingId, Instant now, User currentUser) {
+        Map<Integer, Integer> userVotesMap = getUserVotes(buildingId, currentUser);
+
+        List<PollResponse> history = new ArrayList<>();
+        for (VotesPoll poll : pollRepository.findAllUnfinalizedHistory(buildingId, now)) {
+            history.add(pollMapper.toResponse(poll, userVotesMap.get(poll.getId())));
+        }
+        for (PollResult result : pollResultRepository.findAllByBuildingId(buildingId)) {
+            history.add(pollMapper.toResponse(result, userVotesMap.get(result.getPollId())));
+        }
+
+        history.sort(Comparator.comparing(PollResponse::endAt).reversed());
+        return history;
+    }
+
+    private Map<Integer, Integer> getUserVotes(Integer buildingId, User currentUser) {
+        return userVoteRepository.findAllByUserIdAndBuildingId(currentUser.getId(), buildingId)
+                .stream()
+                .collect(Collectors.toMap(
+                        v -> v.getPoll().getId(),
+                        v -> v.getOption().getId()
+                ));
+    }
+
     @Transactional(readOnly = true)
     @PreAuthorize("@buildingSecurity.hasAccessByPollId(#pollId, principal.user)")
     public PollResponse getPollById(Integer pollId, User currentUser) {
-        VotesPoll poll = pollRepository.findById(pollId)
-                .orElseThrow(() -> new EntityNotFoundException("Poll not found"));
-
         Integer userVotedOptionId = userVoteRepository.findByPollIdAndUserId(pollId, currentUser.getId())
                 .map(v -> v.getOption().getId())
                 .orElse(null);
 
+        Optional<PollResult> result = pollResultRepository.findWithOptionsById(pollId);
+        if (result.isPresent()) {
+            return pollMapper.toResponse(result.get(), userVotedOptionId);
+        }
+
+        VotesPoll poll = pollRepository.findById(pollId)
+                .orElseThrow(() -> new EntityNotFoundException("Poll not found"));
+
         return pollMapper.toResponse(poll, userVotedOptionId);
     }
 
     @Transactional
-    @PreAuthorize("@buildingSecurity.canVote(#pollId, #request.unitId(), principal.user)")
+    @PreAuthorize("isAuthenticated()")
     public VoteCastResponse castVote(Integer pollId, VoteCastRequest request, User currentUser) {
+        // One joined read serves both the access check and validation (see VoteTarget.canBeCastBy)
+        VoteTarget target = pollRepository.findVoteTarget(pollId, request.unitId(), request.optionId())
+                .filter(t -> t.canBeCastBy(currentUser.getId()))
+                .orElseThrow(() -> new AccessDeniedException("You cannot vote in this poll with this unit."));
 
-        VotesPoll poll = pollRepository.findById(pollId)
-                .orElseThrow(() -> new EntityNotFoundException("Poll not found"));
-
-        Instant now = Instant.now();
-        if (now.isBefore(poll.getStartAt()) || now.isAfter(poll.getEndAt())) {
+        if (!target.isOpenAt(Instant.now())) {
             throw new IllegalArgumentException("Voting is not allowed at this time.");
         }
+        if (target.optionId() == null) {
+            throw new IllegalArgumentException("Invalid option for this poll");
+        }
+        ElectorateSnapshot electorate = electorateService.electorateOf(pollId);
+        if (!electorate.contains(target.unitId())) {
+            throw new AccessDeniedException("This unit was not eligible to vote when the poll opened.");
+        }
+
+        VoteWriter.VoteWriteResult written = voteWriter.write(pollId, target.unitId(), currentUser.getId(), target.optionId());
+        Integer previousOptionId = written.previousOptionId();
+
+        if (!target.optionId().equals(previousOptionId)) {
+            moveVote(previousOptionId, target.optionId(), electorate.weightOf(target.unitId()));
+            pollTallyService.recordVote(pollId, target.optionId(), previousOptionId);
+        }
+        // Votes are upserted in SQL and counters moved by bulk updates, neither of which entity listeners see
+        buildingVersions.bump(target.pollBuildingId());
 
-        Unit unit = unitService.findById(request.unitId())
-                .orElseThrow(() -> new EntityNotFoundException("Unit not found"));
+        return new VoteCastResponse(written.voteId(), target.unitNumber(), written.votedAt());
+    }
 
-        VotesOption option = optionRepository.findByIdAndPollId(request.optionId(), pollId)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid option for this poll"));
+    // weight is the unit's area share in hundredths of m², 0 for per-unit polls
+    private void moveVote(Integer fromOptionId, Integer toOptionId, long weight) {
+        if (fromOptionId == null) {
+            optionRepository.adjustVoteTotals(toOptionId, 1, weight);
+            return;
+        }
+        // Lock counter rows in id order, otherwise two units swapping between the same options deadlock
+        if (fromOptionId < toOptionId) {
+            optionRepository.adjustVoteTotals(fromOptionId, -1, -weight);
+            optionRepository.adjustVoteTotals(toOptionId, 1, weight);
+        } else {
+            optionRepository.adjustVoteTotals(toOptionId, 1, weight);
+            optionRepository.adjustVoteTotals(fromOptionId, -1, -weight);
+        }
+    }
 
-        UserVote vote = userVoteRepository.findByPollIdAndUnitId(pollId, unit.getId())
-                .map(existingVote -> {
-                    existingVote.setOption(option);
-                    existingVote.setUser(currentUser);
-                    existingVote.setVotedAt(Instant.now());
-                    return existingVote;
-                })
-                .orElseGet(() -> {
-                    UserVote newVote = new UserVote();
-                    newVote.setPoll(poll);
-                    newVote.setUnit(unit);
-                    newVote.setUser(currentUser);
-                    newVote.setOption(option);
-                    return newVote;
-                });
+    /**
+     * Recomputes the denormalized option counters from the votes table.
+     * Area-weighted totals are re-derived from each poll's stored electorate weights.
+     */
+    @Transactional
+    public void rebuildVoteCounts(Integer pollId) {
+        List<Integer> weightedPollIds;
+        if (pollId == null) {
+            optionRepository.rebuildAllVoteCounts();
+            weightedPollIds = pollRepository.findIdsByWeighting(PollWeighting.BY_AREA);
+        } else {
+            optionRepository.rebuildVoteCounts(pollId);
+            weightedPollIds = List.of(pollId);
+        }
 
-        UserVote savedVote = userVoteRepository.save(vote);
+        for (Integer weightedPollId : weightedPollIds) {
+            rebuildWeightedVotes(weightedPollId);
+        }
+    }
+
+    private void rebuildWeightedVotes(Integer pollId) {
+        VotesPoll poll = pollRepository.findById(pollId).orElse(null);
+        if (poll == null || poll.getWeighting() != PollWeighting.BY_AREA) {
+            return;
+        }
+        ElectorateSnapshot electorate = electorateRepository.findById(pollId).orElse(null);
+        if (electorate == null) {
+            return;
+        }
 
-        return new VoteCastResponse(savedVote.getId(), unit.getUnitNumber(), savedVote.getVotedAt());
+        Map<Integer, Long> totals = userVoteRepository.findBallotsByPollId(pollId).stream()
+                .collect(Collectors.groupingBy(
+                        CastBallot::optionId,
+                        Collectors.summingLong(ballot -> electorate.weightOf(ballot.unitId()))
+                ));
+
+        for (VotesOption option : poll.getOptions()) {
+            optionRepository.setWeightedVotes(option.getId(), totals.getOrDefault(option.getId(), 0L));
+        }
     }
 
     @Transactional
@@ -147,6 +275,7 @@ public class PollService {
         VotesPoll poll = pollRepository.findById(pollId)
                 .orElseThrow(() -> new EntityNotFoundException("Poll not found"));
 
+        pollResultRepository.findById(pollId).ifPresent(pollResultRepository::delete);
         pollRepository.delete(poll);
     }
 
@@ -0,0 +1,209 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.poll.OptionVoteCount;
+import com.smartentrance.backend.dto.poll.PollTallyResponse;
+import com.smartentrance.backend.repository.VotesOptionRepository;
+import com.smartentrance.backend.repository.VotesPollRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live results for running polls.
+ * <p>
+ * Each active poll gets one {@link LongAdder} per option, seeded from the option counters and bumped
+ * after every committed vote. Viewers subscribe over SSE; a scheduled broadcast serializes a changed
+ * tally once per tick and writes it to every subscriber, so watchers never query the database.
+ * The counters in the database stay authoritative and are re-read periodically to correct drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PollTallyService {
+
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.HOURS.toMillis(2);
+
+    private final VotesPollRepository pollRepository;
+    private final VotesOptionRepository optionRepository;
+    private final JsonMapper jsonMapper;
+
+    private final Map<Integer, PollTally> tallies = new ConcurrentHashMap<>();
+
+    @PreAuthorize("@buildingSecurity.hasAccessByPollId(#pollId, principal.user)")
+    public SseEmitter subscribe(Integer pollId) {
+        PollTally tally = tallyFor(pollId);
+
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> tally.subscribers.remove(emitter));
+        emitter.onTimeout(() -> tally.subscribers.remove(emitter));
+        emitter.onError(e -> tally.subscribers.remove(emitter));
+        tally.subscribers.add(emitter);
+
+        try {
+            emitter.send(SseEmitter.event().name("tally").data(serialize(tally), MediaType.APPLICATION_JSON));
+        } catch (Exception e) {
+            tally.subscribers.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Applies a vote to the live tally once the surrounding transaction has committed.
+     */
+    public void recordVote(Integer pollId, Integer optionId, Integer previousOptionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyVote(pollId, optionId, previousOptionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyVote(pollId, optionId, previousOptionId);
+            }
+        });
+    }
+
+    /**
+     * Sends one update per changed poll to all of its subscribers.
+     */
+    public void broadcastChanges() {
+        for (PollTally tally : tallies.values()) {
+            if (tally.subscribers.isEmpty() || !tally.dirty.getAndSet(false)) {
+                continue;
+            }
+            broadcast(tally);
+        }
+    }
+
+    /**
+     * Seeds tallies for polls that have started, re-reads counters of the ones already live,
+     * and closes streams of polls that have ended.
+     */
+    public void refreshActiveTallies() {
+        Instant now = Instant.now();
+
+        for (Integer pollId : pollRepository.findActivePollIds(now)) {
+            tallyFor(pollId);
+        }
+
+        for (PollTally tally : tallies.values()) {
+            if (tally.endAt.isBefore(now)) {
+                resync(tally);
+                broadcast(tally);
+                tally.subscribers.forEach(SseEmitter::complete);
+                tallies.remove(tally.pollId);
+            } else {
+                resync(tally);
+            }
+        }
+    }
+
+    private PollTally tallyFor(Integer pollId) {
+        PollTally tally = tallies.get(pollId);
+        if (tally != null) {
+            return tally;
+        }
+
+        Instant endAt = pollRepository.findEndAtById(pollId)
+                .orElseThrow(() -> new EntityNotFoundException("Poll not found"));
+
+        PollTally seeded = new PollTally(pollId, endAt);
+        for (OptionVoteCount count : optionRepository.findVoteCountsByPollId(pollId)) {
+            LongAdder adder = new LongAdder();
+            adder.add(count.voteCount());
+            seeded.counts.put(count.optionId(), adder);
+        }
+
+        PollTally raced = tallies.putIfAbsent(pollId, seeded);
+        return raced != null ? raced : seeded;
+    }
+
+    private void applyVote(Integer pollId, Integer optionId, Integer previousOptionId) {
+        PollTally tally = tallies.get(pollId);
+        if (tally == null) {
+            return;
+        }
+
+        LongAdder added = tally.counts.get(optionId);
+        if (added != null) added.increment();
+
+        if (previousOptionId != null) {
+            LongAdder removed = tally.counts.get(previousOptionId);
+            if (removed != null) removed.decrement();
+        }
+        tally.dirty.set(true);
+    }
+
+    private void resync(PollTally tally) {
+        for (OptionVoteCount count : optionRepository.findVoteCountsByPollId(tally.pollId)) {
+            LongAdder adder = tally.counts.get(count.optionId());
+            if (adder == null) continue;
+
+            long drift = count.voteCount() - adder.sum();
+            if (drift != 0) {
+                adder.add(drift);
+                tally.dirty.set(true);
+            }
+        }
+    }
+
+    private void broadcast(PollTally tally) {
+        String payload = serialize(tally);
+        List<SseEmitter> failed = new ArrayList<>();
+
+        for (SseEmitter emitter : tally.subscribers) {
+            try {
+                emitter.send(SseEmitter.event().name("tally").data(payload, MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                failed.add(emitter);
+            }
+        }
+        if (!failed.isEmpty()) {
+            tally.subscribers.removeAll(failed);
+            log.debug("Dropped {} disconnected tally subscribers for poll {}", failed.size(), tally.pollId);
+        }
+    }
+
+    private String serialize(PollTally tally) {
+        List<OptionVoteCount> options = new ArrayList<>(tally.counts.size());
+        long total = 0;
+        for (Map.Entry<Integer, LongAdder> entry : tally.counts.entrySet()) {
+            long count = entry.getValue().sum();
+            options.add(new OptionVoteCount(entry.getKey(), count));
+            total += count;
+        }
+        return jsonMapper.writeValueAsString(new PollTallyResponse(tally.pollId, total, options, Instant.now()));
+    }
+
+    private static final class PollTally {
+        final Integer pollId;
+        final Instant endAt;
+        final Map<Integer, LongAdder> counts = new LinkedHashMap<>();
+        final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        final AtomicBoolean dirty = new AtomicBoolean();
+
+        PollTally(Integer pollId, Instant endAt) {
+            this.pollId = pollId;
+            this.endAt = endAt;
+        }
+    }
+}
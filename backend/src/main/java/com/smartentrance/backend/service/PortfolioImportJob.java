@@ -0,0 +1,83 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.building.PortfolioImportResponse;
+import com.smartentrance.backend.dto.enums.ImportJobStatus;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one background portfolio import. Written by the worker thread, read by status polls.
+ */
+@Getter
+public class PortfolioImportJob {
+
+    private static final int MAX_REPORTED_ERRORS = 500;
+
+    private final String id;
+    private final Long ownerId;
+
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile String failureReason;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    private final AtomicLong processedRows = new AtomicLong();
+    private final AtomicLong createdBuildings = new AtomicLong();
+    private final AtomicLong createdUnits = new AtomicLong();
+    private final AtomicLong updatedUnits = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final Queue<PortfolioImportResponse.RowError> errors = new ConcurrentLinkedQueue<>();
+
+    public PortfolioImportJob(String id, Long ownerId) {
+        this.id = id;
+        this.ownerId = ownerId;
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    void markCompleted() {
+        finishedAt = Instant.now();
+        status = ImportJobStatus.COMPLETED;
+    }
+
+    void markFailed(String reason) {
+        failureReason = reason;
+        finishedAt = Instant.now();
+        status = ImportJobStatus.FAILED;
+    }
+
+    void rowFailed(long line, String message) {
+        // Keep the first errors for the report but count all of them
+        if (failedRows.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+            errors.add(new PortfolioImportResponse.RowError(line, message));
+        }
+    }
+
+    public boolean isFinished() {
+        return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED;
+    }
+
+    public PortfolioImportResponse toResponse() {
+        return new PortfolioImportResponse(
+                id,
+                status,
+                processedRows.get(),
+                createdBuildings.get(),
+                createdUnits.get(),
+                updatedUnits.get(),
+                failedRows.get(),
+                new ArrayList<>(errors),
+                failureReason,
+                startedAt,
+                finishedAt
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.building.PortfolioImportResponse;
+import com.smartentrance.backend.model.User;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class PortfolioImportService {
+
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final PortfolioImportWorker worker;
+    private final Map<String, PortfolioImportJob> jobs = new ConcurrentHashMap<>();
+
+    @PreAuthorize("isAuthenticated()")
+    public PortfolioImportResponse startImport(MultipartFile file, User manager) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Failed to store empty file.");
+        }
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        if (!name.endsWith(".csv")) {
+            throw new IllegalArgumentException("Only CSV exports are supported. Save the spreadsheet as CSV (UTF-8) and upload it again.");
+        }
+
+        evictFinishedJobs();
+        boolean alreadyRunning = jobs.values().stream()
+                .anyMatch(job -> job.getOwnerId().equals(manager.getId()) && !job.isFinished());
+        if (alreadyRunning) {
+            throw new IllegalStateException("An import is already running for this account.");
+        }
+
+        // The multipart temp file is gone once the request ends, so the worker gets its own copy
+        Path copy;
+        try {
+            copy = Files.createTempFile("portfolio-import-", ".csv");
+            file.transferTo(copy);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not buffer the import file.", e);
+        }
+
+        PortfolioImportJob job = new PortfolioImportJob(UUID.randomUUID().toString(), manager.getId());
+        jobs.put(job.getId(), job);
+        worker.run(job, copy);
+
+        return job.toResponse();
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    public PortfolioImportResponse getImportStatus(String jobId, User user) {
+        PortfolioImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("Import job not found");
+        }
+        if (!job.getOwnerId().equals(user.getId())) {
+            throw new AccessDeniedException("You do not have access to this import");
+        }
+        return job.toResponse();
+    }
+
+    private void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,421 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.model.Building;
+import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.repository.BuildingRepository;
+import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a portfolio import off the request thread.
+ * <p>
+ * The CSV is read record by record in chunks; each chunk is validated in parallel and then upserted
+ * in its own transaction (buildings by Google place id + entrance, units by building + number),
+ * so a bad chunk does not roll back the ones before it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PortfolioImportWorker {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_UNIT_NUMBER = 500;
+    // A record longer than this is a quote that never closes, not an address with line breaks
+    private static final int MAX_RECORD_LENGTH = 10_000;
+
+    private final BuildingRepository buildingRepository;
+    private final UnitRepository unitRepository;
+    private final UserRepository userRepository;
+    private final AccessCodeAllocator accessCodeAllocator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Async
+    public void run(PortfolioImportJob job, Path csv) {
+        job.markRunning();
+
+        try (BufferedReader file = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            RecordReader reader = new RecordReader(file);
+            String header = reader.next();
+            if (header == null) {
+                job.markFailed("The file is empty");
+                return;
+            }
+
+            Columns columns = Columns.of(header);
+            ImportState state = new ImportState();
+            List<RawRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+            String record;
+            while ((record = reader.next()) != null) {
+                if (record.isBlank()) continue;
+
+                chunk.add(new RawRow(reader.line(), record));
+                if (chunk.size() == CHUNK_SIZE) {
+                    processChunk(job, columns, chunk, state);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(job, columns, chunk, state);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Integer buildingId : state.touchedBuildings) {
+                    buildingRepository.findById(buildingId)
+                            .ifPresent(b -> b.setTotalUnits((int) unitRepository.countByBuildingId(buildingId)));
+                }
+            });
+
+            job.markCompleted();
+            log.info("Portfolio import {} finished: {} rows, {} failed", job.getId(), job.getProcessedRows().get(), job.getFailedRows().get());
+        } catch (IllegalArgumentException e) {
+            job.markFailed(e.getMessage());
+        } catch (Exception e) {
+            log.error("Portfolio import {} failed", job.getId(), e);
+            job.markFailed("Import aborted: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(csv);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", csv);
+            }
+        }
+    }
+
+    private void processChunk(PortfolioImportJob job, Columns columns, List<RawRow> chunk, ImportState state) {
+        List<Object> parsed = chunk.parallelStream()
+                .map(row -> parse(columns, row))
+                .toList();
+
+        Map<BuildingKey, Map<Integer, ImportRow>> byBuilding = new LinkedHashMap<>();
+        for (Object result : parsed) {
+            if (result instanceof ImportRow row) {
+                // Later rows for the same unit win, as they would in a sequential upsert
+                byBuilding.computeIfAbsent(row.building(), k -> new LinkedHashMap<>()).put(row.unitNumber(), row);
+            } else {
+                RowFailure failure = (RowFailure) result;
+                job.rowFailed(failure.line(), failure.message());
+            }
+        }
+
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> upsert(job, byBuilding, state));
+            state.buildingIds.putAll(result.newBuildingIds);
+            state.touchedBuildings.addAll(result.touchedBuildings);
+            job.getCreatedBuildings().addAndGet(result.createdBuildings);
+            job.getCreatedUnits().addAndGet(result.createdUnits);
+            job.getUpdatedUnits().addAndGet(result.updatedUnits);
+            result.rejected.forEach(f -> job.rowFailed(f.line(), f.message()));
+        } catch (RuntimeException e) {
+            log.warn("Portfolio import {} chunk rolled back: {}", job.getId(), e.getMessage());
+            byBuilding.values().forEach(rows -> rows.values()
+                    .forEach(row -> job.rowFailed(row.line(), "Chunk rolled back: " + e.getMessage())));
+        }
+
+        job.getProcessedRows().addAndGet(chunk.size());
+    }
+
+    private ChunkResult upsert(PortfolioImportJob job, Map<BuildingKey, Map<Integer, ImportRow>> byBuilding, ImportState state) {
+        User manager = userRepository.getReferenceById(job.getOwnerId());
+        ChunkResult result = new ChunkResult();
+
+        for (Map.Entry<BuildingKey, Map<Integer, ImportRow>> entry : byBuilding.entrySet()) {
+            BuildingKey key = entry.getKey();
+            Collection<ImportRow> rows = entry.getValue().values();
+
+            Building building = resolveBuilding(key, rows.iterator().next(), manager, state, result);
+            if (building == null) {
+                rows.forEach(row -> result.rejected.add(new RowFailure(row.line(), "Building is managed by another user")));
+                continue;
+            }
+            result.touchedBuildings.add(building.getId());
+
+            Map<Integer, Unit> existing = unitRepository
+                    .findAllByBuildingIdAndUnitNumberIn(building.getId(), entry.getValue().keySet())
+                    .stream()
+                    .collect(Collectors.toMap(Unit::getUnitNumber, Function.identity()));
+
+            List<ImportRow> toCreate = new ArrayList<>();
+            for (ImportRow row : rows) {
+                Unit unit = existing.get(row.unitNumber());
+                if (unit == null) {
+                    toCreate.add(row);
+                    continue;
+                }
+                unit.setArea(row.area());
+                unit.setResidentsCount(row.residentsCount());
+                result.updatedUnits++;
+            }
+
+            if (!toCreate.isEmpty()) {
+                List<String> codes = accessCodeAllocator.allocate(toCreate.size());
+                List<Unit> units = new ArrayList<>(toCreate.size());
+                for (int i = 0; i < toCreate.size(); i++) {
+                    ImportRow row = toCreate.get(i);
+                    units.add(Unit.builder()
+                            .building(building)
+                            .unitNumber(row.unitNumber())
+                            .accessCode(codes.get(i))
+                            .residentsCount(row.residentsCount())
+                            .area(row.area())
+                            .build());
+                }
+                unitRepository.saveAll(units);
+                result.createdUnits += units.size();
+            }
+        }
+        return result;
+    }
+
+    private Building resolveBuilding(BuildingKey key, ImportRow first, User manager,
+                                     ImportState state, ChunkResult result) {
+        if (state.rejectedBuildings.contains(key)) {
+            return null;
+        }
+
+        Integer knownId = state.buildingIds.get(key);
+        if (knownId != null) {
+            return buildingRepository.getReferenceById(knownId);
+        }
+
+        Optional<Building> existing = buildingRepository.findByGooglePlaceIdAndEntrance(key.googlePlaceId(), key.entrance());
+        if (existing.isPresent()) {
+            if (!existing.get().getManager().getId().equals(manager.getId())) {
+                state.rejectedBuildings.add(key);
+                return null;
+            }
+            result.newBuildingIds.put(key, existing.get().getId());
+            return existing.get();
+        }
+
+        Building building = buildingRepository.save(Building.builder()
+                .name(first.buildingName())
+                .address(first.address())
+                .googlePlaceId(key.googlePlaceId())
+                .entrance(key.entrance())
+                .totalUnits(0)
+                .manager(manager)
+                .iban(first.iban())
+                .build());
+
+        result.newBuildingIds.put(key, building.getId());
+        result.createdBuildings++;
+        return building;
+    }
+
+    private static Object parse(Columns columns, RawRow raw) {
+        List<String> cells = splitCsvLine(raw.text(), columns.delimiter());
+        try {
+            String placeId = columns.required(cells, "google_place_id");
+            String entrance = columns.required(cells, "entrance").toUpperCase();
+
+            int unitNumber = Integer.parseInt(columns.required(cells, "unit_number"));
+            if (unitNumber < 1 || unitNumber > MAX_UNIT_NUMBER) {
+                return new RowFailure(raw.line(), "unit_number must be between 1 and " + MAX_UNIT_NUMBER);
+            }
+
+            String areaText = columns.optional(cells, "area");
+            // Semicolon-delimited exports come from locales that write the decimal separator as a comma
+            BigDecimal area = areaText == null ? BigDecimal.ZERO : new BigDecimal(areaText.replace(',', '.'));
+            if (area.signum() < 0) {
+                return new RowFailure(raw.line(), "area cannot be negative");
+            }
+
+            String residentsText = columns.optional(cells, "residents_count");
+            int residents = residentsText == null ? 0 : Integer.parseInt(residentsText);
+            if (residents < 0) {
+                return new RowFailure(raw.line(), "residents_count cannot be negative");
+            }
+
+            String iban = columns.optional(cells, "iban");
+            if (iban != null && iban.length() > 34) {
+                return new RowFailure(raw.line(), "iban is longer than 34 characters");
+            }
+
+            return new ImportRow(
+                    raw.line(),
+                    new BuildingKey(placeId, entrance),
+                    columns.required(cells, "building_name"),
+                    columns.required(cells, "address"),
+                    iban,
+                    unitNumber,
+                    area,
+                    residents
+            );
+        } catch (NumberFormatException e) {
+            return new RowFailure(raw.line(), "Invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new RowFailure(raw.line(), e.getMessage());
+        }
+    }
+
+    /**
+     * The cell separator of a file: a semicolon when the header has more of them outside quotes than commas,
+     * otherwise a comma. Only that one splits cells, so {@code 65,50} stays one value in a semicolon file.
+     */
+    static char detectDelimiter(String header) {
+        int commas = 0;
+        int semicolons = 0;
+        boolean quoted = false;
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (!quoted && c == ',') commas++;
+            else if (!quoted && c == ';') semicolons++;
+        }
+        return semicolons > commas ? ';' : ',';
+    }
+
+    /**
+     * Reads whole CSV records. A quoted cell may hold line breaks, so a record ends only at a line break outside
+     * quotes; {@link #line()} is the file line it started on, which is what row errors report.
+     */
+    static final class RecordReader {
+
+        private final BufferedReader reader;
+        private long linesRead;
+        private long recordLine;
+
+        RecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        String next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) return null;
+            recordLine = ++linesRead;
+            if (!endsQuoted(line, false)) return line;
+
+            StringBuilder record = new StringBuilder(line);
+            boolean quoted = true;
+            while (quoted) {
+                String next = reader.readLine();
+                if (next == null || record.length() + next.length() > MAX_RECORD_LENGTH) {
+                    throw new IllegalArgumentException("Unclosed quote in the record starting on line " + recordLine);
+                }
+                linesRead++;
+                record.append('\n').append(next);
+                quoted = endsQuoted(next, true);
+            }
+            return record.toString();
+        }
+
+        long line() {
+            return recordLine;
+        }
+
+        // An escaped quote ("") flips the state twice, so counting quotes is enough
+        private static boolean endsQuoted(String line, boolean quoted) {
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') quoted = !quoted;
+            }
+            return quoted;
+        }
+    }
+
+    static List<String> splitCsvLine(String line, char delimiter) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                cells.add(cell.toString().trim());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString().trim());
+        return cells;
+    }
+
+    private record Columns(Map<String, Integer> index, char delimiter) {
+
+        private static final List<String> REQUIRED = List.of("building_name", "address", "google_place_id", "entrance", "unit_number");
+
+        static Columns of(String header) {
+            Map<String, Integer> index = new HashMap<>();
+            String line = header.startsWith("\uFEFF") ? header.substring(1) : header;
+            char delimiter = detectDelimiter(line);
+            List<String> names = splitCsvLine(line, delimiter);
+            for (int i = 0; i < names.size(); i++) {
+                index.put(names.get(i).toLowerCase(Locale.ROOT), i);
+            }
+            for (String column : REQUIRED) {
+                if (!index.containsKey(column)) {
+                    throw new IllegalArgumentException("Missing required column: " + column);
+                }
+            }
+            return new Columns(index, delimiter);
+        }
+
+        String required(List<String> cells, String column) {
+            String value = optional(cells, column);
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return value;
+        }
+
+        String optional(List<String> cells, String column) {
+            Integer i = index.get(column);
+            if (i == null || i >= cells.size() || cells.get(i).isEmpty()) {
+                return null;
+            }
+            return cells.get(i);
+        }
+    }
+
+    private record RawRow(long line, String text) {}
+
+    private record RowFailure(long line, String message) {}
+
+    private record BuildingKey(String googlePlaceId, String entrance) {}
+
+    private record ImportRow(long line, BuildingKey building, String buildingName, String address, String iban,
+                             int unitNumber, BigDecimal area, int residentsCount) {}
+
+    private static class ImportState {
+        final Map<BuildingKey, Integer> buildingIds = new HashMap<>();
+        final Set<BuildingKey> rejectedBuildings = new HashSet<>();
+        final Set<Integer> touchedBuildings = new LinkedHashSet<>();
+    }
+
+    private static class ChunkResult {
+        final Map<BuildingKey, Integer> newBuildingIds = new HashMap<>();
+        final Set<Integer> touchedBuildings = new HashSet<>();
+        final List<RowFailure> rejected = new ArrayList<>();
+        long createdBuildings;
+        long createdUnits;
+        long updatedUnits;
+    }
+}
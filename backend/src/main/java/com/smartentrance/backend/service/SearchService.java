@@ -0,0 +1,41 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.common.CursorPage;
+import com.smartentrance.backend.dto.search.SearchHit;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.search.SearchIndex;
+import com.smartentrance.backend.security.BuildingSecurity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final SearchIndex searchIndex;
+    private final BuildingSecurity buildingSecurity;
+
+    @PreAuthorize("@buildingSecurity.hasAccess(#buildingId, principal.user)")
+    public List<SearchHit> search(Integer buildingId, String query, Integer limit, User user) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+
+        // Residents only find documents marked visible to them
+        boolean isManager = buildingSecurity.isManager(buildingId, user);
+        return searchIndex.search(buildingId, query, isManager, CursorPage.clampLimit(limit));
+    }
+
+    @PreAuthorize("@buildingSecurity.isManager(#buildingId, principal.user)")
+    public void rebuildIndex(Integer buildingId) {
+        searchIndex.rebuild(buildingId);
+    }
+}
@@ -7,6 +7,7 @@ import com.smartentrance.backend.mapper.UnitMapper;
 import com.smartentrance.backend.model.Unit;
 import com.smartentrance.backend.model.User;
 import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.security.CodeLookupGuard;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.context.annotation.Lazy;
@@ -15,7 +16,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.security.SecureRandom;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,20 +25,36 @@ public class UnitService {
     private final UnitRepository unitRepository;
     private final UnitMapper unitMapper;
     private final FinanceService financeService;
+    private final CodeLookupGuard codeLookupGuard;
+    private final AccessCodeAllocator accessCodeAllocator;
 
     public UnitService(UnitRepository unitRepository,
                        UnitMapper unitMapper,
-                       @Lazy FinanceService financeService) {
+                       @Lazy FinanceService financeService,
+                       CodeLookupGuard codeLookupGuard,
+                       AccessCodeAllocator accessCodeAllocator) {
         this.unitRepository = unitRepository;
         this.unitMapper = unitMapper;
         this.financeService = financeService;
+        this.codeLookupGuard = codeLookupGuard;
+        this.accessCodeAllocator = accessCodeAllocator;
     }
 
     @Transactional
     @PreAuthorize("isAuthenticated()")
     public UnitResponse joinUnit(UnitJoinRequest request, User currentUser) {
+        codeLookupGuard.checkNotLocked();
+
+        if (!codeLookupGuard.mightBeAccessCode(request.accessCode())) {
+            codeLookupGuard.recordFailure();
+            throw new EntityNotFoundException("Invalid access code.");
+        }
+
         Unit unit = unitRepository.findByAccessCode(request.accessCode())
-                .orElseThrow(() -> new EntityNotFoundException("Invalid access code."));
+                .orElseThrow(() -> {
+                    codeLookupGuard.recordFailure();
+                    return new EntityNotFoundException("Invalid access code.");
+                });
 
         unit.setResponsibleUser(currentUser);
         unit.setResidentsCount(request.residentsCount());
@@ -132,19 +148,11 @@ public class UnitService {
     }
 
     public String generateUniqueAccessCode() {
-        String code;
-        do {
-            code = generateRandomString(8);
-        } while (unitRepository.existsByAccessCode(code));
-        return code;
+        return accessCodeAllocator.allocate();
     }
 
-    private String generateRandomString(int length) {
-        String chars = "ABCDEFGHJKMNPQRSTUVWXYZ23456789";
-        SecureRandom random = new SecureRandom();
-        StringBuilder sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) sb.append(chars.charAt(random.nextInt(chars.length())));
-        return sb.toString();
+    public List<String> generateUniqueAccessCodes(int count) {
+        return accessCodeAllocator.allocate(count);
     }
 
     public void saveAll(List<Unit> units){ unitRepository.saveAll(units); }
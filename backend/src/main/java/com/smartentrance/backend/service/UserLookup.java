@@ -0,0 +1,15 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.user.UserProfile;
+
+/**
+ * Read-only access to user profile data for mappers and other display code.
+ * Implementations may serve results from memory, so callers must not expect a managed entity.
+ */
+public interface UserLookup {
+
+    /**
+     * @throws jakarta.persistence.EntityNotFoundException if the user does not exist
+     */
+    UserProfile getProfile(Long userId);
+}
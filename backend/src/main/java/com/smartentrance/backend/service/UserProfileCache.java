@@ -0,0 +1,90 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.user.UserProfile;
+import com.smartentrance.backend.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Service
+@RequiredArgsConstructor
+public class UserProfileCache implements UserLookup {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Map<Long, UserProfile> profiles = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a load that overlaps one does not stay cached. Striped so memory
+    // stays fixed, at the cost of the odd needless reload for users sharing a stripe
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final UserRepository userRepository;
+
+    @Override
+    public UserProfile getProfile(Long userId) {
+        UserProfile cached = profiles.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        int stripe = stripeOf(userId);
+        long version = versions.get(stripe);
+        UserProfile loaded = userRepository.findById(userId)
+                .map(UserProfile::of)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+
+        if (profiles.size() >= MAX_ENTRIES) {
+            evictOne();
+        }
+        profiles.put(userId, loaded);
+        // The row may have been read before a change committed; an invalidation that ran meanwhile, even
+        // one that came before the put above, shows up here, and the possibly old profile is taken back out
+        if (versions.get(stripe) != version) {
+            profiles.remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the cached profile now and again once the surrounding transaction completes. A reader
+     * whose load overlaps either drop sees the version change and does not keep what it read.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) return;
+
+        evict(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    // Version first, so a reader that puts after the remove is sure to see it
+    private void evict(Long userId) {
+        versions.incrementAndGet(stripeOf(userId));
+        profiles.remove(userId);
+    }
+
+    private static int stripeOf(Long userId) {
+        return Long.hashCode(userId) & (VERSION_STRIPES - 1);
+    }
+
+    private void evictOne() {
+        Iterator<Long> keys = profiles.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User}: any profile or role change written through Hibernate evicts the
+ * cached profile, so callers do not need to remember to do it themselves.
+ */
+@Component
+public class UserProfileCacheListener {
+
+    private final UserProfileCache userProfileCache;
+
+    public UserProfileCacheListener(@Lazy UserProfileCache userProfileCache) {
+        this.userProfileCache = userProfileCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        userProfileCache.invalidate(user.getId());
+    }
+}
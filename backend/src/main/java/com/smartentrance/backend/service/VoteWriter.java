@@ -0,0 +1,101 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.model.UserVote;
+import com.smartentrance.backend.model.VotesOption;
+import com.smartentrance.backend.model.VotesPoll;
+import com.smartentrance.backend.repository.UserVoteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Writes a unit's ballot for a poll.
+ * <p>
+ * On PostgreSQL this is a single {@code INSERT ... ON CONFLICT (poll_id, unit_id) DO UPDATE} that also
+ * hands back the option the unit had chosen before, so concurrent votes from the same unit serialize
+ * on the row instead of failing on the unique constraint. Other databases (H2 in tests) lock the unit
+ * row, then read and save through JPA.
+ */
+@Component
+@RequiredArgsConstructor
+public class VoteWriter {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_votes (poll_id, unit_id, user_id, option_id, voted_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (poll_id, unit_id) DO UPDATE
+                SET previous_option_id = user_votes.option_id,
+                    option_id = EXCLUDED.option_id,
+                    user_id = EXCLUDED.user_id,
+                    voted_at = EXCLUDED.voted_at
+            RETURNING id, previous_option_id, (xmax = 0) AS inserted
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserVoteRepository userVoteRepository;
+    private final EntityManager entityManager;
+
+    private volatile Boolean upsertSupported;
+
+    public record VoteWriteResult(Integer voteId, Integer previousOptionId, Instant votedAt) {}
+
+    /**
+     * Must run inside the caller's transaction.
+     */
+    public VoteWriteResult write(Integer pollId, Long unitId, Long userId, Integer optionId) {
+        Instant now = Instant.now();
+        return isUpsertSupported()
+                ? upsert(pollId, unitId, userId, optionId, now)
+                : lockAndSave(pollId, unitId, userId, optionId, now);
+    }
+
+    private VoteWriteResult upsert(Integer pollId, Long unitId, Long userId, Integer optionId, Instant now) {
+        // The entity may be cached from an earlier read in this transaction; keep JPA in step with the row
+        entityManager.flush();
+
+        return jdbcTemplate.queryForObject(UPSERT_SQL, (rs, rowNum) -> {
+            Integer previous = rs.getBoolean("inserted") ? null : (Integer) rs.getObject("previous_option_id");
+            return new VoteWriteResult(rs.getInt("id"), previous, now);
+        }, pollId, unitId, userId, optionId, Timestamp.from(now));
+    }
+
+    private VoteWriteResult lockAndSave(Integer pollId, Long unitId, Long userId, Integer optionId, Instant now) {
+        // Locking the unit (not the vote, which may not exist yet) serializes first votes too
+        entityManager.find(Unit.class, unitId, LockModeType.PESSIMISTIC_WRITE);
+        Optional<UserVote> existing = userVoteRepository.findByPollIdAndUnitId(pollId, unitId);
+        Integer previousOptionId = existing.map(v -> v.getOption().getId()).orElse(null);
+
+        UserVote vote = existing.orElseGet(() -> {
+            UserVote newVote = new UserVote();
+            newVote.setPoll(entityManager.getReference(VotesPoll.class, pollId));
+            newVote.setUnit(entityManager.getReference(Unit.class, unitId));
+            return newVote;
+        });
+        vote.setOption(entityManager.getReference(VotesOption.class, optionId));
+        vote.setUser(entityManager.getReference(User.class, userId));
+        vote.setPreviousOptionId(previousOptionId);
+        vote.setVotedAt(now);
+
+        UserVote saved = userVoteRepository.save(vote);
+        return new VoteWriteResult(saved.getId(), previousOptionId, saved.getVotedAt());
+    }
+
+    private boolean isUpsertSupported() {
+        Boolean supported = upsertSupported;
+        if (supported == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            supported = "PostgreSQL".equalsIgnoreCase(product);
+            upsertSupported = supported;
+        }
+        return supported;
+    }
+}
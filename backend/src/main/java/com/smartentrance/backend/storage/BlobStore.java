@@ -0,0 +1,46 @@
+package com.smartentrance.backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Where the content store keeps its bytes. Keys are relative, slash-separated paths such as
+ * {@code objects/ab/cd/<hash>}; the database stays the source of truth for which keys are live.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores {@code source} under {@code key}, replacing what was there.
+     *
+     * @param moveSource the source is a temp file the store may take over instead of copying
+     */
+    void put(String key, Path source, boolean moveSource) throws IOException;
+
+    Optional<BlobStat> stat(String key) throws IOException;
+
+    /**
+     * Streams {@code length} bytes from {@code offset}; the caller closes the stream.
+     */
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    /**
+     * Removes a key; a missing key is not an error.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * The file behind a key when the store is a local disk, so it can be served with sendfile or packed.
+     */
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    default boolean isLocal() {
+        return false;
+    }
+
+    record BlobStat(long size, Instant lastModified) {}
+}
@@ -0,0 +1,304 @@
+package com.smartentrance.backend.storage;
+
+import com.smartentrance.backend.config.FileStorageProperties;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Blobs as objects in an S3-compatible bucket (AWS S3, MinIO, ...), addressed path-style so any endpoint works.
+ * <p>
+ * Large files go up as a multipart upload whose parts are streamed straight from the file, several at a time;
+ * reads are ranged GETs streamed to the caller. Every request holds one of {@code max-connections} permits,
+ * which bounds both the connections the client opens and the parts buffered in flight.
+ */
+public class S3BlobStore implements BlobStore, Closeable {
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    private final URI endpoint;
+    private final String host;
+    private final String bucket;
+    private final String prefix;
+    private final long partSize;
+    private final Duration requestTimeout;
+    private final SigV4Signer signer;
+    private final Semaphore permits;
+    private final ExecutorService partUploads;
+    private final HttpClient client;
+
+    public S3BlobStore(FileStorageProperties.S3 s3) {
+        this.endpoint = URI.create(s3.getEndpoint().replaceAll("/+$", ""));
+        this.host = endpoint.getPort() == -1 ? endpoint.getHost() : endpoint.getHost() + ":" + endpoint.getPort();
+        this.bucket = s3.getBucket();
+        this.prefix = s3.getPrefix() == null || s3.getPrefix().isEmpty() ? "" : s3.getPrefix().replaceAll("/+$", "") + "/";
+        this.partSize = s3.getPartSize().toBytes();
+        this.requestTimeout = s3.getRequestTimeout();
+        this.signer = new SigV4Signer(s3.getAccessKey(), s3.getSecretKey(), s3.getRegion());
+        this.permits = new Semaphore(s3.getMaxConnections());
+        this.partUploads = Executors.newFixedThreadPool(s3.getMaxConnections(), Thread.ofPlatform().daemon().name("s3-part-", 0).factory());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public void put(String key, Path source, boolean moveSource) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            send("PUT", key, Map.of(), Map.of(), HttpRequest.BodyPublishers.ofFile(source));
+        } else {
+            multipartUpload(key, source, size);
+        }
+        if (moveSource) {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        HttpResponse<Void> response = exchange("HEAD", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) return Optional.empty();
+        check(response, "HEAD", key, null);
+
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        Instant lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                .orElse(Instant.EPOCH);
+        return Optional.of(new BlobStat(size, lastModified));
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        if (length == 0) return InputStream.nullInputStream();
+
+        Map<String, String> headers = offset > 0 || length > 0
+                ? Map.of("range", "bytes=" + offset + "-" + (length > 0 ? String.valueOf(offset + length - 1) : ""))
+                : Map.of();
+
+        acquire();
+        boolean handedOver = false;
+        try {
+            HttpResponse<InputStream> response = client.send(
+                    request("GET", key, Map.of(), headers, HttpRequest.BodyPublishers.noBody()),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() == 404) {
+                response.body().close();
+                throw new NoSuchFileException(key);
+            }
+            if (response.statusCode() / 100 != 2) {
+                String error;
+                try (InputStream body = response.body()) {
+                    error = new String(body.readNBytes(512), StandardCharsets.UTF_8);
+                }
+                throw failure("GET", key, response.statusCode(), error);
+            }
+
+            InputStream body = response.body();
+            // A store that ignores Range answers 200 with the whole object
+            if (response.statusCode() == 200 && offset > 0) {
+                body.skipNBytes(offset);
+            }
+            if (response.statusCode() == 200 && length > 0) {
+                body = new BoundedInputStream(body, length);
+            }
+            handedOver = true;
+            return new PermitReleasingStream(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + key, e);
+        } finally {
+            if (!handedOver) permits.release();
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<String> response = exchange("DELETE", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 404) check(response, "DELETE", key, response.body());
+    }
+
+    @Override
+    public void close() {
+        partUploads.shutdownNow();
+        client.close();
+    }
+
+    private void multipartUpload(String key, Path source, long size) throws IOException {
+        String created = send("POST", key, Map.of("uploads", ""), Map.of(), HttpRequest.BodyPublishers.noBody()).body();
+        Matcher uploadIdMatch = UPLOAD_ID.matcher(created);
+        if (!uploadIdMatch.find()) throw new IOException("S3 did not return an upload id for " + key);
+        String uploadId = uploadIdMatch.group(1);
+
+        int partCount = (int) ((size + partSize - 1) / partSize);
+        List<CompletableFuture<String>> parts = new ArrayList<>(partCount);
+        try {
+            for (int part = 1; part <= partCount; part++) {
+                int number = part;
+                long offset = (part - 1) * partSize;
+                long length = Math.min(partSize, size - offset);
+                parts.add(CompletableFuture.supplyAsync(() -> uploadPart(key, uploadId, number, source, offset, length), partUploads));
+            }
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).join();
+
+            StringBuilder manifest = new StringBuilder("<CompleteMultipartUpload>");
+            for (int part = 1; part <= partCount; part++) {
+                manifest.append("<Part><PartNumber>").append(part).append("</PartNumber><ETag>")
+                        .append(parts.get(part - 1).join()).append("</ETag></Part>");
+            }
+            manifest.append("</CompleteMultipartUpload>");
+
+            // S3 may answer 200 and still report a failure in the body
+            HttpResponse<String> completed = send("POST", key, Map.of("uploadId", uploadId), Map.of(),
+                    HttpRequest.BodyPublishers.ofString(manifest.toString()));
+            if (completed.body().contains("<Error>")) throw failure("POST", key, completed.statusCode(), completed.body());
+        } catch (IOException | RuntimeException e) {
+            parts.forEach(part -> part.cancel(true));
+            abortQuietly(key, uploadId);
+            if (e instanceof CompletionException && e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw e instanceof IOException io ? io : new IOException("Multipart upload of " + key + " failed", e);
+        }
+    }
+
+    private String uploadPart(String key, String uploadId, int number, Path source, long offset, long length) {
+        // Streamed from the file, so a part is never held in memory as a whole
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> openSlice(source, offset, length)), length);
+        try {
+            HttpResponse<String> response = send("PUT", key,
+                    Map.of("partNumber", String.valueOf(number), "uploadId", uploadId), Map.of(), body);
+            return response.headers().firstValue("ETag")
+                    .orElseThrow(() -> new IOException("S3 returned no ETag for part " + number + " of " + key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            exchange("DELETE", key, Map.of("uploadId", uploadId), Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            // The bucket's lifecycle rule for incomplete multipart uploads removes the parts eventually
+        }
+    }
+
+    private static InputStream openSlice(Path source, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+            channel.position(offset);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpResponse<String> send(String method, String key, Map<String, String> query,
+                                      Map<String, String> headers, HttpRequest.BodyPublisher body) throws IOException {
+        HttpResponse<String> response = exchange(method, key, query, headers, body, HttpResponse.BodyHandlers.ofString());
+        check(response, method, key, response.body());
+        return response;
+    }
+
+    private <T> HttpResponse<T> exchange(String method, String key, Map<String, String> query, Map<String, String> headers,
+                                         HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        acquire();
+        try {
+            return client.send(request(method, key, query, headers, body), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during " + method + " " + key, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private HttpRequest request(String method, String key, Map<String, String> query,
+                                Map<String, String> headers, HttpRequest.BodyPublisher body) {
+        String path = "/" + SigV4Signer.encode(bucket) + "/" + encodeKey(prefix + key);
+        String queryString = SigV4Signer.canonicalQuery(query);
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint + path + (queryString.isEmpty() ? "" : "?" + queryString)))
+                .timeout(requestTimeout)
+                .method(method, body);
+
+        headers.forEach(builder::header);
+        signer.sign(method, host, path, query, headers, SigV4Signer.UNSIGNED_PAYLOAD, Instant.now())
+                .forEach(builder::header);
+        return builder.build();
+    }
+
+    private void acquire() throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private static void check(HttpResponse<?> response, String method, String key, String body) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw failure(method, key, response.statusCode(), body);
+        }
+    }
+
+    private static IOException failure(String method, String key, int status, String body) {
+        String detail = body == null ? "" : ": " + body.substring(0, Math.min(body.length(), 300));
+        return new IOException("S3 " + method + " " + key + " failed with " + status + detail);
+    }
+
+    private static String encodeKey(String key) {
+        StringJoiner path = new StringJoiner("/");
+        for (String segment : key.split("/", -1)) {
+            path.add(SigV4Signer.encode(segment));
+        }
+        return path.toString();
+    }
+
+    // Gives the connection permit back once the caller is done with the streamed body
+    private final class PermitReleasingStream extends FilterInputStream {
+
+        private boolean closed;
+
+        private PermitReleasingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
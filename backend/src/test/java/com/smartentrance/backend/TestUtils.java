@@ -143,5 +143,6 @@ public class TestUtils {
         poll.getVotes().add(vote);
 
         voteRepository.save(vote);
+        yesOption.setVoteCount(yesOption.getVoteCount() + 1);
     }
 }
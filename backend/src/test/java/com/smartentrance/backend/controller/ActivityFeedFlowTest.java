@@ -0,0 +1,148 @@
+package com.smartentrance.backend.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.model.*;
+import com.smartentrance.backend.model.enums.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ActivityFeedFlowTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TestUtils testUtils;
+    @Autowired EntityManager em;
+
+    private Unit managerUnit;
+    private Unit residentUnit;
+
+    @BeforeEach
+    void setUp() {
+        managerUnit = testUtils.createReadyUnit();
+        Building building = managerUnit.getBuilding();
+        User manager = managerUnit.getResponsibleUser();
+
+        User resident = new User();
+        resident.setEmail("resident-" + System.nanoTime() + "@mail.com");
+        resident.setHashedPassword("pass");
+        resident.setFirstName("R");
+        resident.setLastName("S");
+        resident.setRole(UserRole.USER);
+        em.persist(resident);
+
+        residentUnit = new Unit();
+        residentUnit.setBuilding(building);
+        residentUnit.setResponsibleUser(resident);
+        residentUnit.setUnitNumber(2);
+        residentUnit.setResidentsCount(1);
+        residentUnit.setArea(new BigDecimal("60.0"));
+        residentUnit.setAccessCode("CODE5678");
+        residentUnit.setVerified(true);
+        em.persist(residentUnit);
+
+        for (int i = 0; i < 2; i++) {
+            em.persist(Notice.builder()
+                    .building(building)
+                    .createdBy(manager)
+                    .title("Notice " + i)
+                    .location("Entrance")
+                    .eventDateTime(Instant.now().plus(Duration.ofDays(1)))
+                    .build());
+            testUtils.createPoll(building);
+
+            BuildingDocument document = new BuildingDocument();
+            document.setBuilding(building);
+            document.setUploadedBy(manager);
+            document.setTitle("Document " + i);
+            document.setType(DocumentType.OTHER);
+            document.setFileUrl("document-" + i + ".pdf");
+            document.setVisibleToResidents(i == 0);
+            em.persist(document);
+
+            testUtils.addTx(managerUnit, 10 + i, TransactionType.FEE);
+        }
+        testUtils.addTx(residentUnit, 30, TransactionType.FEE);
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void feed_ManagerPagesThroughEverythingNewestFirst() throws Exception {
+        List<String> items = readAllPages(managerUnit.getResponsibleUser().getId(), 2);
+
+        // 2 notices, 2 polls, 2 documents and 3 transactions, each exactly once
+        assertEquals(9, items.size());
+        assertEquals(9, new HashSet<>(items).size());
+    }
+
+    @Test
+    void feed_ResidentSeesSharedDocumentsAndOwnTransactionsOnly() throws Exception {
+        List<String> items = readAllPages(residentUnit.getResponsibleUser().getId(), 3);
+
+        assertEquals(6, items.size());
+        assertEquals(1, items.stream().filter(item -> item.startsWith("DOCUMENT")).count());
+        assertEquals(1, items.stream().filter(item -> item.startsWith("TRANSACTION")).count());
+        assertTrue(items.stream().anyMatch(item -> item.endsWith(":Document 0")));
+        assertFalse(items.stream().anyMatch(item -> item.endsWith(":Document 1")));
+    }
+
+    // Follows nextCursor to the end, checking the merged order holds across page boundaries
+    private List<String> readAllPages(Long userId, int limit) throws Exception {
+        List<String> items = new ArrayList<>();
+        Set<String> cursors = new HashSet<>();
+        Instant previous = Instant.MAX;
+        String cursor = null;
+        do {
+            var request = get("/api/buildings/" + managerUnit.getBuilding().getId() + "/activity")
+                    .param("limit", String.valueOf(limit))
+                    .with(TestUtils.mockUser(userId, UserRole.USER));
+            if (cursor != null) request.param("cursor", cursor);
+
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            List<String> types = JsonPath.read(body, "$.items[*].type");
+            List<Number> ids = JsonPath.read(body, "$.items[*].id");
+            List<String> titles = JsonPath.read(body, "$.items[*].title");
+            List<String> times = JsonPath.read(body, "$.items[*].at");
+            assertTrue(types.size() <= limit);
+            for (int i = 0; i < types.size(); i++) {
+                Instant at = Instant.parse(times.get(i));
+                assertFalse(at.isAfter(previous), "feed must be ordered newest first");
+                previous = at;
+                items.add(types.get(i) + ":" + ids.get(i) + ":" + titles.get(i));
+            }
+
+            cursor = JsonPath.read(body, "$.nextCursor");
+            assertTrue(cursor == null || cursors.add(cursor), "cursor must advance");
+        } while (cursor != null);
+        return items;
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartentrance.backend.controller;
+
+import com.smartentrance.backend.QueryCounter;
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.model.*;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.repository.NoticeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class BuildingVersionFlowTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TestUtils testUtils;
+    @Autowired NoticeRepository noticeRepository;
+
+    @Test
+    void testNotices_UnchangedBuildingAnswers304WithoutQueries() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        Long userId = unit.getResponsibleUser().getId();
+        String url = "/api/buildings/" + unit.getBuilding().getId() + "/notices";
+
+        String etag = mockMvc.perform(get(url).with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""));
+
+        QueryCounter.reset();
+        mockMvc.perform(get(url)
+                        .with(TestUtils.mockUser(userId, UserRole.USER))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, QueryCounter.statements().size(), "ran " + QueryCounter.statements());
+
+        noticeRepository.save(Notice.builder()
+                .building(unit.getBuilding())
+                .createdBy(unit.getResponsibleUser())
+                .title("Meeting")
+                .location("Entrance")
+                .eventDateTime(Instant.now().plus(Duration.ofDays(1)))
+                .build());
+        commitHooks();
+
+        String changed = mockMvc.perform(get(url)
+                        .with(TestUtils.mockUser(userId, UserRole.USER))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void testPolls_VoteChangesTheETag() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        Long userId = unit.getResponsibleUser().getId();
+        VotesPoll poll = testUtils.createPoll(unit.getBuilding());
+        String url = "/api/buildings/" + unit.getBuilding().getId() + "/polls";
+
+        String etag = mockMvc.perform(get(url).with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Another resident sees the same building version under an ETag of their own
+        String otherUserEtag = mockMvc.perform(get(url).with(TestUtils.mockUser(userId + 1000, UserRole.USER)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, otherUserEtag);
+
+        mockMvc.perform(post("/api/polls/" + poll.getId() + "/vote")
+                        .with(TestUtils.mockUser(userId, UserRole.USER))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"optionId\": " + poll.getOptions().get(0).getId() + ", \"unitId\": " + unit.getId() + "}"))
+                .andExpect(status().isOk());
+        commitHooks();
+
+        mockMvc.perform(get(url)
+                        .with(TestUtils.mockUser(userId, UserRole.USER))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    // Versions move after commit; the test transaction never commits, so run its commit callbacks instead
+    private static void commitHooks() {
+        TransactionSynchronizationUtils.triggerAfterCommit();
+    }
+}
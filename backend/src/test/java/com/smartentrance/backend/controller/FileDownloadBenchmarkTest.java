@@ -0,0 +1,102 @@
+package com.smartentrance.backend.controller;
+
+import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.security.JwtService;
+import com.smartentrance.backend.security.UserPrincipal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Aggregate throughput of many clients downloading the same large PDF over a real connector.
+ * Run with {@code -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FileDownloadBenchmarkTest {
+
+    private static final int FILE_BYTES = 32 * 1024 * 1024;
+    private static final int CLIENTS = 16;
+    private static final int DOWNLOADS_PER_CLIENT = 8;
+
+    @LocalServerPort int port;
+    @Autowired FileStorageProperties fileStorageProperties;
+    @Autowired JwtService jwtService;
+
+    @Value("${application.security.jwt.cookie-name}")
+    String cookieName;
+
+    @Test
+    void download_ConcurrentLargePdfThroughput() throws Exception {
+        Path dir = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath();
+        Files.createDirectories(dir);
+        Path file = dir.resolve(UUID.randomUUID() + ".pdf");
+        byte[] block = new byte[1024 * 1024];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int written = 0; written < FILE_BYTES; written += block.length) out.write(block);
+        }
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("bench@mail.com");
+        user.setRole(UserRole.USER);
+        String token = jwtService.generateToken(new UserPrincipal(user), false);
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/uploads/files/" + file.getFileName()))
+                .header("Cookie", cookieName + "=" + token)
+                .build();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(CLIENTS)) {
+            long start = System.nanoTime();
+            List<Future<Long>> results = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                results.add(pool.submit(() -> {
+                    long bytes = 0;
+                    for (int i = 0; i < DOWNLOADS_PER_CLIENT; i++) {
+                        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                        Assertions.assertEquals(200, response.statusCode());
+                        try (InputStream body = response.body()) {
+                            bytes += body.transferTo(OutputStream.nullOutputStream());
+                        }
+                    }
+                    return bytes;
+                }));
+            }
+
+            long total = 0;
+            for (Future<Long> result : results) total += result.get();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Assertions.assertEquals((long) FILE_BYTES * CLIENTS * DOWNLOADS_PER_CLIENT, total);
+            System.out.printf("Downloaded %d MB in %.2f s: %.0f MB/s across %d clients%n",
+                    total >> 20, seconds, (total >> 20) / seconds, CLIENTS);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.smartentrance.backend.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.lowagie.text.Document;
+import com.lowagie.text.Image;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.security.SignedUrlService;
+import com.smartentrance.backend.service.ContentAddressedStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FileDownloadFlowTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired FileStorageProperties fileStorageProperties;
+    @Autowired ContentAddressedStore contentStore;
+    @Autowired SignedUrlService signedUrlService;
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[10_000];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+
+        Path dir = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath();
+        Files.createDirectories(dir);
+        file = Files.write(dir.resolve(UUID.randomUUID() + ".pdf"), content);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void download_ShouldSendValidatorsAndHonourConditionalGet() throws Exception {
+        String url = "/api/uploads/files/" + file.getFileName();
+
+        MvcResult full = mockMvc.perform(get(url).with(TestUtils.mockUser(1L, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        assertArrayEquals(content, full.getResponse().getContentAsByteArray());
+
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag).with(TestUtils.mockUser(1L, UserRole.USER)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void download_ShouldServeSingleByteRange() throws Exception {
+        String url = "/api/uploads/files/" + file.getFileName();
+
+        MvcResult partial = mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=100-199")
+                        .with(TestUtils.mockUser(1L, UserRole.USER)))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/10000"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "100"))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), partial.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=20000-")
+                        .with(TestUtils.mockUser(1L, UserRole.USER)))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10000"));
+    }
+
+    @Test
+    void download_ShouldAcceptSignedUrlWithoutSession() throws Exception {
+        String signed = signedUrlService.sign(file.getFileName().toString());
+
+        MvcResult download = mockMvc.perform(get(signed))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertArrayEquals(content, download.getResponse().getContentAsByteArray());
+
+        // The signature binds the expiry and the name; changing either leaves the request unauthenticated
+        String extended = signed.replaceAll("expires=\\d+", "expires=" + Long.MAX_VALUE);
+        mockMvc.perform(get(extended)).andExpect(status().isUnauthorized());
+
+        String otherFile = signed.replace(file.getFileName().toString(), UUID.randomUUID() + ".pdf");
+        mockMvc.perform(get(otherFile)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void upload_ShouldDetectTypeAndHashInOnePass() throws Exception {
+        byte[] pdf = "%PDF-1.4\n%test document\n".getBytes(StandardCharsets.US_ASCII);
+        String expectedHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(pdf));
+
+        MvcResult result = mockMvc.perform(multipart("/api/uploads")
+                        .file(new MockMultipartFile("file", "protocol.pdf", "application/octet-stream", pdf))
+                        .with(TestUtils.mockUser(1L, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("application/pdf"))
+                .andExpect(jsonPath("$.size").value(String.valueOf(pdf.length)))
+                .andExpect(jsonPath("$.sha256").value(expectedHash))
+                .andReturn();
+
+        String fileName = JsonPath.read(result.getResponse().getContentAsString(), "$.fileName");
+
+        MvcResult download = mockMvc.perform(get("/api/uploads/files/" + fileName).with(TestUtils.mockUser(1L, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + expectedHash + "\""))
+                .andReturn();
+        assertArrayEquals(pdf, download.getResponse().getContentAsByteArray());
+
+        contentStore.release(fileName);
+    }
+
+    @Test
+    void thumbVariant_ShouldDownscaleImages() throws Exception {
+        BufferedImage photo = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < photo.getWidth(); x++) {
+            for (int y = 0; y < photo.getHeight(); y++) photo.setRGB(x, y, (x * 31) ^ (y * 17) ^ (x * y));
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(photo, "png", png);
+
+        String fileName = upload(new MockMultipartFile("file", "facade.png", "image/png", png.toByteArray()), 11L);
+
+        MvcResult thumb = mockMvc.perform(get("/api/uploads/files/" + fileName).param("variant", "thumb")
+                        .with(TestUtils.mockUser(11L, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andReturn();
+        byte[] body = thumb.getResponse().getContentAsByteArray();
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(body));
+
+        assertEquals(320, decoded.getWidth());
+        assertEquals(213, decoded.getHeight());
+        assertTrue(body.length < png.size() / 10);
+
+        // Same content, different bytes: a cached original must not validate the thumbnail or the other way round
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png.toByteArray()));
+        String originalEtag = mockMvc.perform(get("/api/uploads/files/" + fileName)
+                        .with(TestUtils.mockUser(11L, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"" + sha256 + "\"", originalEtag);
+        assertEquals("\"" + sha256 + "-thumb\"", thumb.getResponse().getHeader(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/uploads/files/" + fileName).param("variant", "thumb")
+                        .header(HttpHeaders.IF_NONE_MATCH, originalEtag)
+                        .with(TestUtils.mockUser(11L, UserRole.USER)))
+                .andExpect(status().isOk());
+
+        contentStore.release(fileName);
+    }
+
+    @Test
+    void thumbVariant_ShouldKeepOnlyFirstPdfPage() throws Exception {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, pdf);
+        document.open();
+        for (int page = 1; page <= 3; page++) {
+            document.add(new Paragraph("Protocol page " + page + " " + System.nanoTime()));
+            document.newPage();
+        }
+        document.close();
+
+        String fileName = upload(new MockMultipartFile("file", "protocol.pdf", "application/pdf", pdf.toByteArray()), 12L);
+
+        MvcResult preview = mockMvc.perform(get("/api/uploads/files/" + fileName).param("variant", "thumb")
+                        .with(TestUtils.mockUser(12L, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName.replace(".pdf", "-thumb.pdf") + "\""))
+                .andReturn();
+
+        PdfReader reader = new PdfReader(preview.getResponse().getContentAsByteArray());
+        assertEquals(1, reader.getNumberOfPages());
+        reader.close();
+
+        mockMvc.perform(get("/api/uploads/files/" + fileName).param("variant", "poster")
+                        .with(TestUtils.mockUser(12L, UserRole.USER)))
+                .andExpect(status().isBadRequest());
+
+        contentStore.release(fileName);
+    }
+
+    @Test
+    void thumbVariant_ShouldDownscaleScansInSinglePagePdf() throws Exception {
+        BufferedImage scan = new BufferedImage(2000, 2800, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < scan.getWidth(); x++) {
+            for (int y = 0; y < scan.getHeight(); y++) scan.setRGB(x, y, (x * 31) ^ (y * 17) ^ (x * y));
+        }
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(scan, "jpeg", jpeg);
+
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, pdf);
+        document.open();
+        Image page = Image.getInstance(jpeg.toByteArray());
+        page.scaleToFit(document.getPageSize().getWidth(), document.getPageSize().getHeight());
+        document.add(page);
+        document.close();
+
+        String fileName = upload(new MockMultipartFile("file", "scan.pdf", "application/pdf", pdf.toByteArray()), 13L);
+
+        MvcResult preview = mockMvc.perform(get("/api/uploads/files/" + fileName).param("variant", "thumb")
+                        .with(TestUtils.mockUser(13L, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                .andReturn();
+        byte[] body = preview.getResponse().getContentAsByteArray();
+        assertTrue(body.length < pdf.size() / 3);
+
+        PdfReader reader = new PdfReader(body);
+        assertEquals(1, reader.getNumberOfPages());
+        PdfDictionary images = reader.getPageN(1).getAsDict(PdfName.RESOURCES).getAsDict(PdfName.XOBJECT);
+        PdfDictionary image = (PdfDictionary) PdfReader.getPdfObject(images.get(images.getKeys().iterator().next()));
+        assertEquals(1024, image.getAsNumber(PdfName.HEIGHT).intValue());
+        reader.close();
+
+        contentStore.release(fileName);
+    }
+
+    private String upload(MockMultipartFile file, Long userId) throws Exception {
+        MvcResult result = mockMvc.perform(multipart("/api/uploads").file(file)
+                        .with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.fileName");
+    }
+}
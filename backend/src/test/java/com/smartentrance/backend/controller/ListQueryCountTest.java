@@ -0,0 +1,115 @@
+package com.smartentrance.backend.controller;
+
+import com.smartentrance.backend.QueryCounter;
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.model.*;
+import com.smartentrance.backend.model.enums.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * List endpoints read their rows with a single projection query however many rows there are, instead of
+ * loading entities and touching lazy associations per row.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ListQueryCountTest {
+
+    private static final int ROWS = 3;
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TestUtils testUtils;
+    @Autowired EntityManager em;
+
+    private Unit unit;
+    private Long userId;
+    private Integer buildingId;
+
+    @BeforeEach
+    void setUp() {
+        unit = testUtils.createReadyUnit();
+        userId = unit.getResponsibleUser().getId();
+        buildingId = unit.getBuilding().getId();
+        Building building = unit.getBuilding();
+        User user = unit.getResponsibleUser();
+
+        for (int i = 0; i < ROWS; i++) {
+            testUtils.addTx(unit, 10 + i, TransactionType.FEE);
+
+            BuildingDocument document = new BuildingDocument();
+            document.setBuilding(building);
+            document.setUploadedBy(user);
+            document.setTitle("Protocol " + i);
+            document.setType(DocumentType.OTHER);
+            document.setFileUrl("protocol-" + i + ".pdf");
+            em.persist(document);
+
+            BuildingExpense expense = new BuildingExpense();
+            expense.setBuilding(building);
+            expense.setCreatedBy(user);
+            expense.setAmount(BigDecimal.TEN);
+            expense.setDescription("Cleaning " + i);
+            expense.setFundType(FundType.MAINTENANCE);
+            expense.setPaymentMethod(PaymentMethod.CASH);
+            expense.setDocumentUrl("invoice-" + i + ".pdf");
+            expense.setExpenseDate(Instant.now());
+            em.persist(expense);
+
+            em.persist(Notice.builder()
+                    .building(building)
+                    .createdBy(user)
+                    .title("Meeting " + i)
+                    .location("Entrance")
+                    .eventDateTime(Instant.now().plus(Duration.ofDays(i + 1)))
+                    .document(document)
+                    .build());
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void listEndpoints_ShouldReadRowsWithOneQuery() throws Exception {
+        // Besides the list query each endpoint runs its access checks: a manager lookup, or the unit itself
+        assertListQueries("/api/buildings/" + buildingId + "/documents", 2);
+        assertListQueries("/api/buildings/" + buildingId + "/finance/transactions", 1);
+        assertListQueries("/api/buildings/" + buildingId + "/finance/expenses", 1);
+        assertListQueries("/api/buildings/" + buildingId + "/notices", 1);
+        assertListQueries("/api/units/" + unit.getId() + "/transactions", 1);
+        assertListQueries("/api/buildings/managed", 0);
+    }
+
+    private void assertListQueries(String url, int accessChecks) throws Exception {
+        // The first call warms caches such as the user profile cache, which are not what is measured here
+        mockMvc.perform(get(url).with(TestUtils.mockUser(userId, UserRole.USER))).andExpect(status().isOk());
+        em.clear();
+
+        QueryCounter.reset();
+        mockMvc.perform(get(url).with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(url.endsWith("managed") ? 1 : ROWS));
+
+        List<String> statements = QueryCounter.statements();
+        assertEquals(accessChecks + 1, statements.size(), url + " ran " + statements);
+    }
+}
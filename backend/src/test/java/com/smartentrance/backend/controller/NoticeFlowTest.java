@@ -0,0 +1,91 @@
+package com.smartentrance.backend.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.model.enums.UserRole;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class NoticeFlowTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TestUtils testUtils;
+
+    @Test
+    void createNoticeMultipart_ThrottlesOnlyNoticesWithADocument() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        Integer buildingId = unit.getBuilding().getId();
+        Long managerId = unit.getResponsibleUser().getId();
+
+        mockMvc.perform(notice(buildingId, managerId, "Cleaning")).andExpect(status().isOk());
+        mockMvc.perform(notice(buildingId, managerId, "Painting")).andExpect(status().isOk());
+
+        mockMvc.perform(notice(buildingId, managerId, "Assembly").file(pdf()))
+                .andExpect(status().isOk());
+        mockMvc.perform(notice(buildingId, managerId, "Assembly again").file(pdf()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        // The cooldown is for uploads; a notice without one still goes through
+        mockMvc.perform(notice(buildingId, managerId, "Heating")).andExpect(status().isOk());
+    }
+
+    @Test
+    void attachmentLinks_AreSignedAndOpenWithoutSession() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        Integer buildingId = unit.getBuilding().getId();
+        Long managerId = unit.getResponsibleUser().getId();
+
+        String created = mockMvc.perform(notice(buildingId, managerId, "Assembly").file(pdf()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String noticeLink = JsonPath.read(created, "$.document.fileUrl");
+        Assertions.assertTrue(noticeLink.matches("/api/uploads/files/[^?]+\\?expires=\\d+&signature=[\\w-]{43}"), noticeLink);
+
+        String documents = mockMvc.perform(get("/api/buildings/" + buildingId + "/documents")
+                        .with(TestUtils.mockUser(managerId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String documentLink = JsonPath.read(documents, "$[0].fileUrl");
+        Assertions.assertEquals(noticeLink, documentLink);
+
+        mockMvc.perform(get(documentLink)).andExpect(status().isOk());
+    }
+
+    private static MockMultipartHttpServletRequestBuilder notice(Integer buildingId, Long userId, String title) {
+        return (MockMultipartHttpServletRequestBuilder) multipart("/api/buildings/" + buildingId + "/notices")
+                .param("title", title)
+                .param("location", "Entrance")
+                .param("noticeDateTime", Instant.now().plus(Duration.ofDays(1)).toString())
+                .param("documentTitle", title + " minutes")
+                .param("documentType", "OTHER")
+                .with(TestUtils.mockUser(userId, UserRole.USER));
+    }
+
+    private static MockMultipartFile pdf() {
+        byte[] bytes = ("%PDF-1.4\n%minutes " + System.nanoTime() + "\n").getBytes(StandardCharsets.US_ASCII);
+        return new MockMultipartFile("documentFile", "minutes.pdf", "application/pdf", bytes);
+    }
+}
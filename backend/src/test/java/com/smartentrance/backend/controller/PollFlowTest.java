@@ -3,17 +3,28 @@ package com.smartentrance.backend.controller;
 import com.smartentrance.backend.TestUtils;
 import com.smartentrance.backend.model.*;
 import com.smartentrance.backend.model.enums.*;
+import com.smartentrance.backend.service.ElectorateService;
+import com.smartentrance.backend.service.PollResultService;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -25,6 +36,8 @@ class PollFlowTest {
     @Autowired MockMvc mockMvc;
     @Autowired TestUtils testUtils;
     @Autowired private EntityManager em;
+    @Autowired private ElectorateService electorateService;
+    @Autowired private PollResultService pollResultService;
 
     @Test
     void testVoting_Scenario() throws Exception {
@@ -40,7 +53,7 @@ class PollFlowTest {
         mockMvc.perform(get("/api/polls/" + poll.getId())
                         .with(TestUtils.mockUser(userId, UserRole.USER)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.userVotedOptionId").value(1))
+                .andExpect(jsonPath("$.userVotedOptionId").value(poll.getOptions().get(0).getId()))
 
                 .andExpect(jsonPath("$.options[0].text").value("yes"))
                 .andExpect(jsonPath("$.options[0].voteCount").value(1))
@@ -48,4 +61,147 @@ class PollFlowTest {
                 .andExpect(jsonPath("$.options[1].text").value("no"))
                 .andExpect(jsonPath("$.options[1].voteCount").value(0));
     }
+
+    @Test
+    void testRevote_MovesCounterBetweenOptions() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        Long userId = unit.getResponsibleUser().getId();
+
+        VotesPoll poll = testUtils.createPoll(unit.getBuilding());
+        Integer yesId = poll.getOptions().get(0).getId();
+        Integer noId = poll.getOptions().get(1).getId();
+
+        for (Integer optionId : new Integer[]{yesId, noId}) {
+            mockMvc.perform(post("/api/polls/" + poll.getId() + "/vote")
+                            .with(TestUtils.mockUser(userId, UserRole.USER))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"optionId\": " + optionId + ", \"unitId\": " + unit.getId() + "}"))
+                    .andExpect(status().isOk());
+        }
+
+        em.flush();
+        em.clear();
+
+        mockMvc.perform(get("/api/polls/" + poll.getId())
+                        .with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.options[0].voteCount").value(0))
+                .andExpect(jsonPath("$.options[1].voteCount").value(1))
+                .andExpect(jsonPath("$.totalVotes").value(1));
+    }
+
+    @Test
+    void testVote_RejectsUnitVerifiedAfterPollOpened() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        VotesPoll poll = testUtils.createPoll(unit.getBuilding());
+        Integer yesId = poll.getOptions().get(0).getId();
+
+        // The first vote freezes the electorate of the already open poll
+        mockMvc.perform(post("/api/polls/" + poll.getId() + "/vote")
+                        .with(TestUtils.mockUser(unit.getResponsibleUser().getId(), UserRole.USER))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"optionId\": " + yesId + ", \"unitId\": " + unit.getId() + "}"))
+                .andExpect(status().isOk());
+
+        User latecomer = new User();
+        latecomer.setEmail("latecomer-" + System.nanoTime() + "@mail.com");
+        latecomer.setHashedPassword("pass");
+        latecomer.setFirstName("L");
+        latecomer.setLastName("C");
+        latecomer.setRole(UserRole.USER);
+        em.persist(latecomer);
+
+        Unit lateUnit = new Unit();
+        lateUnit.setBuilding(unit.getBuilding());
+        lateUnit.setResponsibleUser(latecomer);
+        lateUnit.setUnitNumber(2);
+        lateUnit.setResidentsCount(1);
+        lateUnit.setArea(new BigDecimal("60.0"));
+        lateUnit.setAccessCode("CODE5678");
+        lateUnit.setVerified(true);
+        em.persist(lateUnit);
+        em.flush();
+
+        mockMvc.perform(post("/api/polls/" + poll.getId() + "/vote")
+                        .with(TestUtils.mockUser(latecomer.getId(), UserRole.USER))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"optionId\": " + yesId + ", \"unitId\": " + lateUnit.getId() + "}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testTallyStream_SendsCurrentCountsOnSubscribe() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        VotesPoll poll = testUtils.createPoll(unit.getBuilding());
+        testUtils.vote(poll, unit);
+
+        em.flush();
+        em.clear();
+
+        mockMvc.perform(get("/api/polls/" + poll.getId() + "/tally/stream")
+                        .with(TestUtils.mockUser(unit.getResponsibleUser().getId(), UserRole.USER)))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(containsString("\"totalVotes\":1")));
+    }
+
+    @Test
+    void testHistory_ServesFinalizedResult() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        Long userId = unit.getResponsibleUser().getId();
+
+        VotesPoll poll = testUtils.createPoll(unit.getBuilding());
+        poll.setStartAt(Instant.now().minus(Duration.ofDays(2)));
+        poll.setEndAt(Instant.now().minus(Duration.ofDays(1)));
+        electorateService.attach(poll);
+        testUtils.vote(poll, unit);
+
+        em.flush();
+        pollResultService.finalizeEndedPolls();
+        em.flush();
+        em.clear();
+
+        mockMvc.perform(get("/api/buildings/" + unit.getBuilding().getId() + "/polls")
+                        .param("type", "HISTORY")
+                        .with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(poll.getId()))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[0].totalVotes").value(1))
+                .andExpect(jsonPath("$[0].totalEligibleVoters").value(1))
+                .andExpect(jsonPath("$[0].quorumReached").value(true))
+                .andExpect(jsonPath("$[0].winningOptionId").value(poll.getOptions().get(0).getId()))
+                .andExpect(jsonPath("$[0].userVotedOptionId").value(poll.getOptions().get(0).getId()));
+    }
+
+    @Test
+    void testPollSummaries_PageWithCursor() throws Exception {
+        Unit unit = testUtils.createReadyUnit();
+        Long userId = unit.getResponsibleUser().getId();
+        for (int i = 0; i < 3; i++) {
+            testUtils.createPoll(unit.getBuilding());
+        }
+
+        em.flush();
+        em.clear();
+
+        String firstPage = mockMvc.perform(get("/api/buildings/" + unit.getBuilding().getId() + "/polls/summary")
+                        .param("limit", "2")
+                        .with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].options").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = firstPage.replaceAll(".*\"nextCursor\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/api/buildings/" + unit.getBuilding().getId() + "/polls/summary")
+                        .param("limit", "2")
+                        .param("cursor", cursor)
+                        .with(TestUtils.mockUser(userId, UserRole.USER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("ACTIVE"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
 }
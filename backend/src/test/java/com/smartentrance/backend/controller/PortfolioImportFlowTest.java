@@ -0,0 +1,138 @@
+package com.smartentrance.backend.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.model.Building;
+import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.repository.BuildingRepository;
+import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not @Transactional: the import commits from a background thread
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PortfolioImportFlowTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired UserRepository userRepository;
+    @Autowired BuildingRepository buildingRepository;
+    @Autowired UnitRepository unitRepository;
+
+    @Test
+    void importPortfolio_ShouldUpsertBuildingsAndReportBadRows() throws Exception {
+        User manager = userRepository.save(User.builder()
+                .firstName("Import").lastName("Manager").email("import-" + System.nanoTime() + "@mail.com")
+                .hashedPassword("pass").role(UserRole.USER).build());
+        String placeId = "import-place-" + System.nanoTime();
+
+        String csv = """
+                building_name,address,google_place_id,entrance,iban,unit_number,area,residents_count
+                Block 7,"Sofia, Mladost 1",%1$s,a,,1,65.5,2
+                Block 7,"Sofia, Mladost 1",%1$s,a,,2,80,3
+                Block 7,"Sofia, Mladost 1",%1$s,B,,1,40,1
+                Block 7,"Sofia, Mladost 1",%1$s,a,,1,70,4
+                Block 7,"Sofia, Mladost 1",%1$s,a,,x,70,4
+                """.formatted(placeId);
+        String result = runImport(manager, csv);
+
+        Assertions.assertEquals("COMPLETED", JsonPath.read(result, "$.status"));
+        Assertions.assertEquals(2, (int) JsonPath.read(result, "$.createdBuildings"));
+        Assertions.assertEquals(3, (int) JsonPath.read(result, "$.createdUnits"));
+        Assertions.assertEquals(1, (int) JsonPath.read(result, "$.failedRows"));
+        Assertions.assertEquals(6, (int) JsonPath.read(result, "$.errors[0].line"));
+
+        Integer buildingId = buildingRepository.findByGooglePlaceIdAndEntrance(placeId, "A").orElseThrow().getId();
+        Assertions.assertEquals(2, buildingRepository.findById(buildingId).orElseThrow().getTotalUnits());
+        Assertions.assertEquals(4, unitRepository.findAllByBuildingIdOrderByUnitNumberAsc(buildingId).get(0).getResidentsCount());
+    }
+
+    @Test
+    void importPortfolio_SemicolonFileKeepsDecimalCommaArea() throws Exception {
+        User manager = userRepository.save(User.builder()
+                .firstName("Import").lastName("Manager").email("import-" + System.nanoTime() + "@mail.com")
+                .hashedPassword("pass").role(UserRole.USER).build());
+        String placeId = "import-place-" + System.nanoTime();
+
+        String csv = """
+                building_name;address;google_place_id;entrance;iban;unit_number;area;residents_count
+                Block 8;Sofia, Lozenets;%1$s;A;;1;65,50;2
+                """.formatted(placeId);
+        String result = runImport(manager, csv);
+
+        Assertions.assertEquals("COMPLETED", JsonPath.read(result, "$.status"));
+        Assertions.assertEquals(1, (int) JsonPath.read(result, "$.createdUnits"));
+        Assertions.assertEquals(0, (int) JsonPath.read(result, "$.failedRows"));
+
+        Integer buildingId = buildingRepository.findByGooglePlaceIdAndEntrance(placeId, "A").orElseThrow().getId();
+        Unit unit = unitRepository.findAllByBuildingIdOrderByUnitNumberAsc(buildingId).get(0);
+        Assertions.assertEquals(0, new BigDecimal("65.50").compareTo(unit.getArea()));
+        Assertions.assertEquals(2, unit.getResidentsCount());
+        Assertions.assertEquals("Sofia, Lozenets", buildingRepository.findById(buildingId).orElseThrow().getAddress());
+    }
+
+    @Test
+    void importPortfolio_QuotedCellsMayHoldLineBreaks() throws Exception {
+        User manager = userRepository.save(User.builder()
+                .firstName("Import").lastName("Manager").email("import-" + System.nanoTime() + "@mail.com")
+                .hashedPassword("pass").role(UserRole.USER).build());
+        String placeId = "import-place-" + System.nanoTime();
+
+        String csv = """
+                building_name,address,google_place_id,entrance,iban,unit_number,area,residents_count
+                "Block 9, \"\"Iztok\"\"","Sofia
+                Iztok, Block 9",%1$s,A,,1,55,2
+                Block 9,Sofia,%1$s,A,,2,60,1
+                Block 9,Sofia,%1$s,A,,x,60,1
+                """.formatted(placeId);
+        String result = runImport(manager, csv);
+
+        Assertions.assertEquals("COMPLETED", JsonPath.read(result, "$.status"));
+        Assertions.assertEquals(2, (int) JsonPath.read(result, "$.createdUnits"));
+        Assertions.assertEquals(1, (int) JsonPath.read(result, "$.failedRows"));
+        // Errors point at the line of the file the record starts on
+        Assertions.assertEquals(5, (int) JsonPath.read(result, "$.errors[0].line"));
+
+        Building building = buildingRepository.findByGooglePlaceIdAndEntrance(placeId, "A").orElseThrow();
+        Assertions.assertEquals("Block 9, \"Iztok\"", building.getName());
+        Assertions.assertEquals("Sofia\nIztok, Block 9", building.getAddress());
+    }
+
+    // Uploads the CSV and polls the job until it leaves QUEUED/RUNNING
+    private String runImport(User manager, String csv) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "portfolio.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+        String started = mockMvc.perform(multipart("/api/buildings/import").file(file)
+                        .with(TestUtils.mockUser(manager.getId(), UserRole.USER)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = JsonPath.read(started, "$.jobId");
+
+        String result = null;
+        for (int i = 0; i < 100; i++) {
+            result = mockMvc.perform(get("/api/buildings/import/" + jobId)
+                            .with(TestUtils.mockUser(manager.getId(), UserRole.USER)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            if (!"RUNNING".equals(JsonPath.read(result, "$.status")) && !"QUEUED".equals(JsonPath.read(result, "$.status"))) break;
+            Thread.sleep(100);
+        }
+        return result;
+    }
+}
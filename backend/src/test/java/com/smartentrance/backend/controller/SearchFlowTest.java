@@ -0,0 +1,217 @@
+package com.smartentrance.backend.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfWriter;
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.model.*;
+import com.smartentrance.backend.model.enums.DocumentType;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.service.ContentAddressedStore;
+import com.smartentrance.backend.service.DocumentTextService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class SearchFlowTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TestUtils testUtils;
+    @Autowired EntityManager em;
+    @Autowired ContentAddressedStore contentStore;
+    @Autowired DocumentTextService documentTextService;
+    @Autowired FileStorageProperties fileStorageProperties;
+
+    private Building building;
+    private User manager;
+    private User resident;
+
+    @BeforeEach
+    void setUp() {
+        Unit managerUnit = testUtils.createReadyUnit();
+        building = managerUnit.getBuilding();
+        manager = managerUnit.getResponsibleUser();
+
+        resident = new User();
+        resident.setEmail("resident-" + System.nanoTime() + "@mail.com");
+        resident.setHashedPassword("pass");
+        resident.setFirstName("R");
+        resident.setLastName("S");
+        resident.setRole(UserRole.USER);
+        em.persist(resident);
+
+        Unit residentUnit = new Unit();
+        residentUnit.setBuilding(building);
+        residentUnit.setResponsibleUser(resident);
+        residentUnit.setUnitNumber(2);
+        residentUnit.setResidentsCount(1);
+        residentUnit.setArea(new BigDecimal("60.0"));
+        residentUnit.setAccessCode("CODE5678");
+        residentUnit.setVerified(true);
+        em.persist(residentUnit);
+
+        em.persist(notice("Water outage", "No water on Monday from 9 to 12."));
+        em.persist(notice("Elevator repair", "Technicians need access to the roof; water is not affected."));
+        em.persist(document("House rules", "Quiet hours, pets and parking.", true));
+        em.persist(document("Water meter readings", "Readings for the last quarter.", false));
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void search_RanksTitleMatchesFirstAndHidesPrivateDocuments() throws Exception {
+        List<String> managerHits = search(manager, "water");
+        assertEquals(3, managerHits.size());
+        assertEquals("Elevator repair", managerHits.get(2));
+
+        assertEquals(List.of("Water outage", "Elevator repair"), search(resident, "water"));
+
+        // The last word matches as a prefix while it is being typed, but not once it is complete
+        assertEquals(List.of("House rules"), search(resident, "qui"));
+        assertEquals(List.of(), search(resident, "qui "));
+    }
+
+    @Test
+    void search_FollowsCreatesAndDeletes() throws Exception {
+        assertEquals(List.of(), search(manager, "boiler"));
+
+        Notice boiler = notice("Boiler maintenance", "Hot water is off for the day.");
+        em.persist(boiler);
+        em.flush();
+        commitHooks();
+        assertEquals(List.of("Boiler maintenance"), search(manager, "boiler"));
+
+        em.remove(boiler);
+        em.flush();
+        commitHooks();
+        assertEquals(List.of(), search(manager, "boiler"));
+    }
+
+    @Test
+    void search_FindsTextExtractedFromUploadedPdf() throws Exception {
+        Path pdf = Files.createTempFile("protocol-", ".pdf");
+        try {
+            Files.write(pdf, pdfWithText("The general assembly approved the asbestos removal."));
+            contentStore.commit(pdf, sha256(pdf), Files.size(pdf), "application/pdf", "protocol-2024.pdf", false);
+        } finally {
+            Files.deleteIfExists(pdf);
+        }
+        BuildingDocument protocol = document("Protocol 2024", null, true);
+        protocol.setFileUrl("/api/uploads/files/protocol-2024.pdf");
+        em.persist(protocol);
+        em.flush();
+
+        assertEquals(List.of(), search(resident, "asbestos"));
+
+        documentTextService.extract(protocol.getId());
+        commitHooks();
+
+        assertEquals(List.of("Protocol 2024"), search(resident, "asbestos"));
+        // Hiding the document re-indexes its metadata but keeps the extracted text
+        protocol.setVisibleToResidents(false);
+        em.flush();
+        commitHooks();
+        assertEquals(List.of(), search(resident, "asbestos"));
+        assertEquals(List.of("Protocol 2024"), search(manager, "asbestos"));
+    }
+
+    @Test
+    void search_FindsTextOfLegacyFileNotYetMigrated() throws Exception {
+        // Written flat into the upload directory, as uploads were before the content store
+        String fileName = "minutes-" + System.nanoTime() + ".txt";
+        Path legacy = Path.of(fileStorageProperties.getUploadDir()).resolve(fileName);
+        Files.writeString(legacy, "The roof insulation will be replaced in spring.");
+        try {
+            BuildingDocument minutes = document("Minutes", null, true);
+            minutes.setFileUrl("/api/uploads/files/" + fileName);
+            em.persist(minutes);
+            em.flush();
+
+            documentTextService.extract(minutes.getId());
+            commitHooks();
+
+            assertEquals(List.of("Minutes"), search(resident, "insulation"));
+        } finally {
+            Files.deleteIfExists(legacy);
+        }
+    }
+
+    private List<String> search(User user, String query) throws Exception {
+        String body = mockMvc.perform(get("/api/buildings/" + building.getId() + "/search")
+                        .param("q", query)
+                        .with(TestUtils.mockUser(user.getId(), UserRole.USER)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$[*].title");
+    }
+
+    private Notice notice(String title, String description) {
+        return Notice.builder()
+                .building(building)
+                .createdBy(manager)
+                .title(title)
+                .description(description)
+                .location("Entrance")
+                .eventDateTime(Instant.now().plus(Duration.ofDays(1)))
+                .build();
+    }
+
+    private BuildingDocument document(String title, String description, boolean visibleToResidents) {
+        BuildingDocument document = new BuildingDocument();
+        document.setBuilding(building);
+        document.setUploadedBy(manager);
+        document.setTitle(title);
+        document.setDescription(description);
+        document.setType(DocumentType.OTHER);
+        document.setFileUrl(title.toLowerCase().replace(' ', '-') + ".pdf");
+        document.setVisibleToResidents(visibleToResidents);
+        return document;
+    }
+
+    private static byte[] pdfWithText(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document pdf = new Document();
+        PdfWriter.getInstance(pdf, out);
+        pdf.open();
+        pdf.add(new Paragraph(text));
+        pdf.close();
+        return out.toByteArray();
+    }
+
+    private static String sha256(Path file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+    }
+
+    // The index follows commits; the test transaction never commits, so run its commit callbacks instead
+    private static void commitHooks() {
+        TransactionSynchronizationUtils.triggerAfterCommit();
+    }
+}
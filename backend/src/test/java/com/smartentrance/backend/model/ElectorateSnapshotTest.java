@@ -0,0 +1,99 @@
+package com.smartentrance.backend.model;
+
+import com.smartentrance.backend.dto.poll.EligibleUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+class ElectorateSnapshotTest {
+
+    @Test
+    void contains_ShouldMatchOnlyCapturedUnits() {
+        ElectorateSnapshot snapshot = ElectorateSnapshot.of(units(100L, 101L, 108L, 163L), false, Instant.now());
+
+        Assertions.assertEquals(4, snapshot.getEligibleCount());
+        Assertions.assertTrue(snapshot.contains(100L));
+        Assertions.assertTrue(snapshot.contains(108L));
+        Assertions.assertTrue(snapshot.contains(163L));
+        Assertions.assertFalse(snapshot.contains(99L));
+        Assertions.assertFalse(snapshot.contains(102L));
+        Assertions.assertFalse(snapshot.contains(164L));
+        Assertions.assertFalse(snapshot.contains(null));
+    }
+
+    @Test
+    void emptyElectorate_ShouldContainNobody() {
+        ElectorateSnapshot snapshot = ElectorateSnapshot.of(List.of(), false, Instant.now());
+
+        Assertions.assertEquals(0, snapshot.getEligibleCount());
+        Assertions.assertFalse(snapshot.contains(0L));
+        Assertions.assertFalse(snapshot.contains(1L));
+    }
+
+    @Test
+    void isFrozenAtOpening_ShouldRejectSnapshotsTakenBeforeStart() {
+        Instant start = Instant.parse("2026-03-01T10:00:00Z");
+
+        Assertions.assertFalse(ElectorateSnapshot.of(units(1L), false, start.minusSeconds(60)).isFrozenAtOpening(start));
+        Assertions.assertTrue(ElectorateSnapshot.of(units(1L), false, start.plusSeconds(5)).isFrozenAtOpening(start));
+    }
+
+    @Test
+    void weightOf_ShouldReturnAreaOfEachUnitInHundredths() {
+        ElectorateSnapshot snapshot = ElectorateSnapshot.of(List.of(
+                new EligibleUnit(10L, new BigDecimal("54.25")),
+                new EligibleUnit(12L, new BigDecimal("80")),
+                new EligibleUnit(25L, null)
+        ), true, Instant.now());
+
+        // Round-trip through the stored columns, as after a reload
+        ElectorateSnapshot reloaded = new ElectorateSnapshot(snapshot.getBaseUnitId(), snapshot.getUnitBitmap(),
+                snapshot.getUnitIds(), snapshot.getUnitWeights(), snapshot.getEligibleCount(), snapshot.getTotalWeight(), snapshot.getFrozenAt());
+
+        Assertions.assertEquals(5425, reloaded.weightOf(10L));
+        Assertions.assertEquals(8000, reloaded.weightOf(12L));
+        Assertions.assertEquals(0, reloaded.weightOf(25L));
+        Assertions.assertEquals(0, reloaded.weightOf(11L));
+        Assertions.assertEquals(13425L, reloaded.getTotalWeight());
+        Assertions.assertEquals(new BigDecimal("134.25"), ElectorateSnapshot.toArea(reloaded.getTotalWeight()));
+    }
+
+    @Test
+    void farApartIds_ShouldFallBackToSortedIdList() {
+        // A building whose newer units were numbered millions of ids after its first ones
+        ElectorateSnapshot snapshot = ElectorateSnapshot.of(List.of(
+                new EligibleUnit(7L, new BigDecimal("50")),
+                new EligibleUnit(300L, new BigDecimal("60")),
+                new EligibleUnit(12_000_000L, new BigDecimal("70.5"))
+        ), true, Instant.now());
+
+        Assertions.assertNull(snapshot.getUnitBitmap());
+        ElectorateSnapshot reloaded = new ElectorateSnapshot(snapshot.getBaseUnitId(), snapshot.getUnitBitmap(),
+                snapshot.getUnitIds(), snapshot.getUnitWeights(), snapshot.getEligibleCount(), snapshot.getTotalWeight(), snapshot.getFrozenAt());
+
+        Assertions.assertTrue(reloaded.contains(7L));
+        Assertions.assertTrue(reloaded.contains(12_000_000L));
+        Assertions.assertFalse(reloaded.contains(8L));
+        Assertions.assertFalse(reloaded.contains(11_999_999L));
+        Assertions.assertEquals(6000, reloaded.weightOf(300L));
+        Assertions.assertEquals(7050, reloaded.weightOf(12_000_000L));
+        Assertions.assertEquals(18050L, reloaded.getTotalWeight());
+    }
+
+    @Test
+    void weightOf_ShouldBeZeroForUnweightedElectorate() {
+        ElectorateSnapshot snapshot = ElectorateSnapshot.of(List.of(new EligibleUnit(1L, new BigDecimal("60"))), false, Instant.now());
+
+        Assertions.assertEquals(0, snapshot.weightOf(1L));
+        Assertions.assertNull(snapshot.getTotalWeight());
+    }
+
+    private static List<EligibleUnit> units(Long... ids) {
+        return List.of(ids).stream()
+                .map(id -> new EligibleUnit(id, BigDecimal.ONE))
+                .toList();
+    }
+}
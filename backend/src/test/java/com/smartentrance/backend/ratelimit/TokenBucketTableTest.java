@@ -0,0 +1,53 @@
+package com.smartentrance.backend.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class TokenBucketTableTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstThenRefill() {
+        TokenBucketTable table = new TokenBucketTable(64);
+        long interval = 10 * SECOND;
+        long burst = 2 * interval;
+        long now = 1_000 * SECOND;
+
+        Assertions.assertEquals(0, table.tryAcquire(42L, interval, burst, now));
+        Assertions.assertEquals(0, table.tryAcquire(42L, interval, burst, now));
+        Assertions.assertEquals(0, table.tryAcquire(42L, interval, burst, now));
+        Assertions.assertEquals(interval, table.tryAcquire(42L, interval, burst, now));
+
+        Assertions.assertEquals(0, table.tryAcquire(42L, interval, burst, now + interval));
+        Assertions.assertEquals(interval, table.tryAcquire(42L, interval, burst, now + interval));
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        TokenBucketTable table = new TokenBucketTable(64);
+        long now = 5 * SECOND;
+
+        Assertions.assertEquals(0, table.tryAcquire(1L, SECOND, 0, now));
+        Assertions.assertTrue(table.tryAcquire(1L, SECOND, 0, now) > 0);
+        Assertions.assertEquals(0, table.tryAcquire(2L, SECOND, 0, now));
+    }
+
+    @Test
+    void testKeyFloodDoesNotGrowTableOrEvictThrottledKey() {
+        TokenBucketTable table = new TokenBucketTable(64);
+        long now = 5 * SECOND;
+        long hour = TimeUnit.HOURS.toNanos(1);
+
+        Assertions.assertEquals(0, table.tryAcquire(7L, hour, 0, now));
+
+        for (long key = 1_000; key < 101_000; key++) {
+            table.tryAcquire(key, SECOND, 0, now + SECOND);
+        }
+
+        Assertions.assertEquals(64, table.capacity());
+        Assertions.assertTrue(table.tryAcquire(7L, hour, 0, now + 2 * SECOND) > 0);
+    }
+}
@@ -0,0 +1,204 @@
+package com.smartentrance.backend.scheduler;
+
+import com.smartentrance.backend.config.FileStorageProperties;
+import com.smartentrance.backend.dto.file.CleanupReport;
+import com.smartentrance.backend.dto.file.StoredUpload;
+import com.smartentrance.backend.model.Building;
+import com.smartentrance.backend.model.BuildingDocument;
+import com.smartentrance.backend.model.Transaction;
+import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.model.enums.DocumentType;
+import com.smartentrance.backend.model.enums.PaymentMethod;
+import com.smartentrance.backend.model.enums.TransactionStatus;
+import com.smartentrance.backend.model.enums.TransactionType;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.repository.BuildingRepository;
+import com.smartentrance.backend.repository.DocumentRepository;
+import com.smartentrance.backend.repository.FileAliasRepository;
+import com.smartentrance.backend.repository.TransactionRepository;
+import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.repository.UserRepository;
+import com.smartentrance.backend.service.ContentAddressedStore;
+import com.smartentrance.backend.service.FileStorageService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser
+class FileCleanupServiceTest {
+
+    @Autowired FileCleanupService cleanupService;
+    @Autowired FileStorageService fileStorageService;
+    @Autowired ContentAddressedStore contentStore;
+    @Autowired FileStorageProperties fileStorageProperties;
+    @Autowired FileAliasRepository aliasRepository;
+    @Autowired DocumentRepository documentRepository;
+    @Autowired BuildingRepository buildingRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired UnitRepository unitRepository;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void toFileName_ShouldNormalizeStoredUrlForms() {
+        Assertions.assertEquals("receipt-7.pdf", FileCleanupService.toFileName("receipt-7.pdf"));
+        Assertions.assertEquals("a.pdf", FileCleanupService.toFileName("/api/uploads/files/a.pdf"));
+        Assertions.assertEquals("a.pdf", FileCleanupService.toFileName("https://host/api/uploads/files/a.pdf?download=1#p2"));
+        Assertions.assertNull(FileCleanupService.toFileName("https://host/api/uploads/files/"));
+        Assertions.assertNull(FileCleanupService.toFileName(null));
+    }
+
+    @Test
+    void cleanup_ShouldKeepReferencedFilesAndRemoveOrphans() throws Exception {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        Path root = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+
+        StoredUpload kept = upload("kept");
+        StoredUpload orphan = upload("orphan");
+        Path orphanBlob = fileStorageService.resolveStoredFile(orphan.fileName());
+        backdateAlias(kept.fileName(), old);
+        backdateAlias(orphan.fileName(), old);
+
+        Path legacy = writeOld(root.resolve("legacy-" + System.nanoTime() + ".pdf"), old);
+        Path strayBlob = writeOld(root.resolve("objects/ff/ff/" + "f".repeat(60) + String.format("%04x", System.nanoTime() & 0xffff)), old);
+
+        User user = new User();
+        user.setEmail("cleanup-" + System.nanoTime() + "@mail.com");
+        user.setHashedPassword("pass");
+        user.setFirstName("F");
+        user.setLastName("L");
+        user.setRole(UserRole.USER);
+        userRepository.save(user);
+
+        Building building = new Building();
+        building.setAddress("Sofia");
+        building.setName("Block 1");
+        building.setTotalUnits(1);
+        building.setEntrance("A");
+        building.setManager(user);
+        building.setGooglePlaceId("mock-place-id");
+        buildingRepository.save(building);
+
+        BuildingDocument document = new BuildingDocument();
+        document.setBuilding(building);
+        document.setUploadedBy(user);
+        document.setTitle("Protocol");
+        document.setType(DocumentType.PROTOCOL);
+        document.setFileUrl("/api/uploads/files/" + kept.fileName());
+        documentRepository.save(document);
+
+        try {
+            CleanupReport preview = cleanupService.cleanup(true);
+            Assertions.assertTrue(preview.releasedAliases() >= 1);
+            Assertions.assertTrue(preview.orphanedBlobs() >= 1);
+            Assertions.assertTrue(preview.orphanedLegacyFiles() >= 1);
+            Assertions.assertTrue(aliasRepository.existsById(orphan.fileName()));
+            Assertions.assertTrue(Files.exists(legacy));
+            Assertions.assertTrue(Files.exists(strayBlob));
+
+            cleanupService.cleanup(false);
+
+            Assertions.assertTrue(aliasRepository.existsById(kept.fileName()));
+            Assertions.assertTrue(Files.exists(fileStorageService.resolveStoredFile(kept.fileName())));
+            Assertions.assertFalse(aliasRepository.existsById(orphan.fileName()));
+            Assertions.assertFalse(Files.exists(orphanBlob));
+            Assertions.assertFalse(Files.exists(legacy));
+            Assertions.assertFalse(Files.exists(strayBlob));
+        } finally {
+            documentRepository.delete(document);
+            buildingRepository.delete(building);
+            userRepository.delete(user);
+            contentStore.release(kept.fileName());
+        }
+    }
+
+    @Test
+    void cleanup_ShouldKeepBankTransferProofs() {
+        StoredUpload proof = upload("transfer-proof");
+        backdateAlias(proof.fileName(), Instant.now().minus(Duration.ofDays(2)));
+
+        User user = new User();
+        user.setEmail("cleanup-" + System.nanoTime() + "@mail.com");
+        user.setHashedPassword("pass");
+        user.setFirstName("F");
+        user.setLastName("L");
+        user.setRole(UserRole.USER);
+        userRepository.save(user);
+
+        Building building = new Building();
+        building.setAddress("Sofia");
+        building.setName("Block 2");
+        building.setTotalUnits(1);
+        building.setEntrance("A");
+        building.setManager(user);
+        building.setGooglePlaceId("cleanup-place-" + System.nanoTime());
+        buildingRepository.save(building);
+
+        Unit unit = new Unit();
+        unit.setBuilding(building);
+        unit.setResponsibleUser(user);
+        unit.setUnitNumber(1);
+        unit.setResidentsCount(1);
+        unit.setArea(new BigDecimal("50.0"));
+        unit.setAccessCode(String.format("P%07d", System.nanoTime() % 10_000_000));
+        unitRepository.save(unit);
+
+        // Only the resident's bank-transfer proof points at the file
+        Transaction transfer = new Transaction();
+        transfer.setUnit(unit);
+        transfer.setResponsibleUser(user);
+        transfer.setAmount(new BigDecimal("25.00"));
+        transfer.setType(TransactionType.PAYMENT);
+        transfer.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+        transfer.setStatus(TransactionStatus.PENDING);
+        transfer.setExternalProofUrl("/api/uploads/files/" + proof.fileName());
+        transactionRepository.save(transfer);
+
+        try {
+            cleanupService.cleanup(false);
+
+            Assertions.assertTrue(aliasRepository.existsById(proof.fileName()));
+            Assertions.assertTrue(Files.exists(fileStorageService.resolveStoredFile(proof.fileName())));
+        } finally {
+            transactionRepository.delete(transfer);
+            unitRepository.delete(unit);
+            buildingRepository.delete(building);
+            userRepository.delete(user);
+            contentStore.release(proof.fileName());
+        }
+    }
+
+    private StoredUpload upload(String label) {
+        byte[] pdf = ("%PDF-1.4\n%" + label + " " + System.nanoTime() + "\n").getBytes(StandardCharsets.US_ASCII);
+        return fileStorageService.storeUpload(new MockMultipartFile("file", label + ".pdf", null, pdf));
+    }
+
+    private void backdateAlias(String fileName, Instant createdAt) {
+        jdbcTemplate.update("UPDATE file_aliases SET created_at = ? WHERE file_name = ?", Timestamp.from(createdAt), fileName);
+    }
+
+    private static Path writeOld(Path file, Instant modified) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "%PDF-1.4\n%stray\n");
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartentrance.backend.security;
+
+import com.smartentrance.backend.exception.RateLimitExceededException;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.repository.InvitationRepository;
+import com.smartentrance.backend.repository.UnitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CodeLookupGuardTest {
+
+    @Mock UnitRepository unitRepository;
+    @Mock InvitationRepository invitationRepository;
+
+    @InjectMocks CodeLookupGuard codeLookupGuard;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filters_ShouldRejectUnknownCodes_AfterRebuild() {
+        Assertions.assertTrue(codeLookupGuard.mightBeAccessCode("ANYTHING"), "must defer to the DB until loaded");
+
+        when(unitRepository.findAllAccessCodes()).thenReturn(List.of("ABCD2345", "QRST6789"));
+        when(invitationRepository.findCodesByStatusAndExpiresAtAfter(any(), any())).thenReturn(List.of("ABCD2345"));
+        codeLookupGuard.rebuild();
+
+        Assertions.assertTrue(codeLookupGuard.mightBeAccessCode("QRST6789"));
+        Assertions.assertFalse(codeLookupGuard.mightBeAccessCode("ZZZZ9999"));
+        Assertions.assertFalse(codeLookupGuard.mightBeInvitationCode("QRST6789"));
+
+        codeLookupGuard.registerAccessCode("NEWC0DE2");
+        Assertions.assertTrue(codeLookupGuard.mightBeAccessCode("NEWC0DE2"));
+    }
+
+    @Test
+    void recordFailure_ShouldLockSourceAfterFreeAttempts() {
+        User user = new User();
+        user.setId(7L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new UserPrincipal(user), null, List.of()));
+
+        for (int i = 0; i < 5; i++) {
+            codeLookupGuard.recordFailure();
+        }
+        Assertions.assertDoesNotThrow(codeLookupGuard::checkNotLocked);
+
+        codeLookupGuard.recordFailure();
+        Assertions.assertThrows(RateLimitExceededException.class, codeLookupGuard::checkNotLocked);
+    }
+}
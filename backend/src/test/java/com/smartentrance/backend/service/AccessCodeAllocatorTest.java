@@ -0,0 +1,57 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.security.CodeLookupGuard;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessCodeAllocatorTest {
+
+    @Mock UnitRepository unitRepository;
+    @Mock CodeLookupGuard codeLookupGuard;
+
+    @InjectMocks AccessCodeAllocator accessCodeAllocator;
+
+    @Test
+    void allocate_ShouldReturnDistinctCodes_InOneQuery() {
+        when(unitRepository.findExistingAccessCodes(anyCollection())).thenReturn(List.of());
+
+        List<String> codes = accessCodeAllocator.allocate(400);
+
+        Assertions.assertEquals(400, codes.size());
+        Assertions.assertEquals(400, new HashSet<>(codes).size());
+        verify(unitRepository, times(1)).findExistingAccessCodes(anyCollection());
+        verify(unitRepository, never()).existsByAccessCode(any());
+    }
+
+    @Test
+    void allocate_ShouldSkipCodesAlreadyInUse() {
+        List<String> takenCodes = new ArrayList<>();
+        when(unitRepository.findExistingAccessCodes(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> candidates = invocation.getArgument(0);
+            if (!takenCodes.isEmpty()) return List.of();
+            List<String> taken = new ArrayList<>(candidates);
+            takenCodes.addAll(taken);
+            return taken;
+        });
+
+        List<String> codes = accessCodeAllocator.allocate(20);
+
+        Assertions.assertEquals(20, codes.size());
+        Assertions.assertTrue(codes.stream().noneMatch(takenCodes::contains));
+        verify(unitRepository, times(2)).findExistingAccessCodes(anyCollection());
+    }
+}
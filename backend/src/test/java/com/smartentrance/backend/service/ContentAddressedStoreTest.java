@@ -0,0 +1,68 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.file.StoredUpload;
+import com.smartentrance.backend.model.FileBlob;
+import com.smartentrance.backend.repository.FileBlobRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser
+class ContentAddressedStoreTest {
+
+    @Autowired FileStorageService fileStorageService;
+    @Autowired ContentAddressedStore contentStore;
+    @Autowired FileBlobRepository blobRepository;
+
+    @Test
+    void duplicateUploads_ShouldShareOneBlob() throws Exception {
+        byte[] pdf = ("%PDF-1.4\n%protocol " + System.nanoTime() + "\n").getBytes(StandardCharsets.US_ASCII);
+
+        StoredUpload first = fileStorageService.storeUpload(new MockMultipartFile("file", "protocol.pdf", null, pdf));
+        StoredUpload second = fileStorageService.storeUpload(new MockMultipartFile("file", "copy.pdf", null, pdf));
+
+        Assertions.assertNotEquals(first.fileName(), second.fileName());
+        Assertions.assertEquals(first.sha256(), second.sha256());
+
+        Path firstPath = fileStorageService.resolveStoredFile(first.fileName());
+        Assertions.assertEquals(firstPath, fileStorageService.resolveStoredFile(second.fileName()));
+        Assertions.assertEquals(first.sha256(), firstPath.getFileName().toString());
+        Assertions.assertEquals(first.sha256().substring(2, 4), firstPath.getParent().getFileName().toString());
+        Assertions.assertArrayEquals(pdf, Files.readAllBytes(firstPath));
+        Assertions.assertEquals(2, blobRepository.findById(first.sha256()).map(FileBlob::getRefCount).orElseThrow());
+
+        contentStore.release(first.fileName());
+        Assertions.assertTrue(Files.exists(firstPath));
+
+        contentStore.release(second.fileName());
+        Assertions.assertFalse(blobRepository.existsById(first.sha256()));
+        Assertions.assertFalse(Files.exists(firstPath));
+    }
+
+    @Test
+    void regeneratedReceipt_ShouldRepointNameAndDropOldBytes() throws Exception {
+        String name = "receipt-" + System.nanoTime() + ".pdf";
+
+        fileStorageService.storeFile("%PDF-1.4\n%v1\n".getBytes(StandardCharsets.US_ASCII), name);
+        Path oldPath = fileStorageService.resolveStoredFile(name);
+
+        fileStorageService.storeFile("%PDF-1.4\n%v2\n".getBytes(StandardCharsets.US_ASCII), name);
+        Path newPath = fileStorageService.resolveStoredFile(name);
+
+        Assertions.assertNotEquals(oldPath, newPath);
+        Assertions.assertFalse(Files.exists(oldPath));
+        Assertions.assertEquals("%PDF-1.4\n%v2\n", Files.readString(newPath));
+
+        contentStore.release(name);
+    }
+}
@@ -0,0 +1,126 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.TestUtils;
+import com.smartentrance.backend.model.BuildingDocument;
+import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.model.enums.DocumentType;
+import com.smartentrance.backend.model.enums.ExtractionStatus;
+import com.smartentrance.backend.repository.DocumentTextRepository;
+import com.smartentrance.backend.search.OcrEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@SpringBootTest(properties = {"file.text-extraction.timeout=200ms", "file.text-extraction.workers=2"})
+@ActiveProfiles("test")
+@Transactional
+class DocumentTextServiceTest {
+
+    @Autowired DocumentTextService documentTextService;
+    @Autowired DocumentTextRepository textRepository;
+    @Autowired ContentAddressedStore contentStore;
+    @Autowired TestUtils testUtils;
+    @Autowired EntityManager em;
+    @Autowired MeterRegistry meterRegistry;
+    @MockitoBean OcrEngine ocrEngine;
+
+    @Test
+    void extract_RecordsFailedWhenAFileOutlivesTheTimeLimit() throws Exception {
+        // An engine stuck inside one call never reaches a deadline check of its own
+        Mockito.when(ocrEngine.recognize(any(), any(), any())).thenAnswer(call -> {
+            Thread.sleep(Duration.ofMinutes(1));
+            return "never";
+        });
+
+        BuildingDocument document = scannedDocument(testUtils.createReadyUnit());
+
+        Instant started = Instant.now();
+        documentTextService.extract(document.getId());
+
+        Assertions.assertTrue(Duration.between(started, Instant.now()).compareTo(Duration.ofSeconds(5)) < 0);
+        Assertions.assertEquals(ExtractionStatus.FAILED, textRepository.findById(document.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void extract_LeavesDocumentForLaterWhileAbandonedParsesHoldEveryThread() throws Exception {
+        // A parser that swallows interrupts keeps its thread after being given up on
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(ocrEngine.recognize(any(), any(), any())).thenAnswer(call -> {
+            while (true) {
+                try {
+                    release.await();
+                    return "Minutes of the general assembly";
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+
+        Unit unit = testUtils.createReadyUnit();
+        BuildingDocument first = scannedDocument(unit);
+        BuildingDocument second = scannedDocument(unit);
+        BuildingDocument third = scannedDocument(unit);
+        try {
+            documentTextService.extract(first.getId());
+            documentTextService.extract(second.getId());
+            documentTextService.extract(third.getId());
+
+            Assertions.assertEquals(ExtractionStatus.FAILED, textRepository.findById(second.getId()).orElseThrow().getStatus());
+            Assertions.assertTrue(textRepository.findById(third.getId()).isEmpty());
+            Assertions.assertEquals(2, abandonedParses());
+        } finally {
+            release.countDown();
+        }
+
+        for (int i = 0; i < 50 && abandonedParses() > 0; i++) Thread.sleep(100);
+        Assertions.assertEquals(0, abandonedParses());
+
+        documentTextService.extract(third.getId());
+        Assertions.assertEquals(ExtractionStatus.EXTRACTED, textRepository.findById(third.getId()).orElseThrow().getStatus());
+    }
+
+    private double abandonedParses() {
+        return meterRegistry.get(DocumentTextService.ABANDONED_METRIC).gauge().value();
+    }
+
+    private BuildingDocument scannedDocument(Unit unit) throws Exception {
+        byte[] bytes = ("scan " + System.nanoTime()).getBytes(StandardCharsets.US_ASCII);
+        String fileName = "scan-" + System.nanoTime() + ".png";
+        Path scan = Files.createTempFile("scan-", ".png");
+        try {
+            Files.write(scan, bytes);
+            String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+            contentStore.commit(scan, sha256, bytes.length, "image/png", fileName, false);
+        } finally {
+            Files.deleteIfExists(scan);
+        }
+
+        BuildingDocument document = new BuildingDocument();
+        document.setBuilding(unit.getBuilding());
+        document.setUploadedBy(unit.getResponsibleUser());
+        document.setTitle("Scanned protocol");
+        document.setType(DocumentType.OTHER);
+        document.setFileUrl("/api/uploads/files/" + fileName);
+        document.setVisibleToResidents(true);
+        em.persist(document);
+        em.flush();
+        return document;
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.file.PackReport;
+import com.smartentrance.backend.dto.file.StoredUpload;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser
+class PackCompactorTest {
+
+    @Autowired FileStorageService fileStorageService;
+    @Autowired ContentAddressedStore contentStore;
+    @Autowired PackCompactor packCompactor;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compact_ShouldPackColdBlobsAndServeThemFromTheSegment() throws Exception {
+        byte[] coldBytes = ("%PDF-1.4\n%receipt " + System.nanoTime() + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] warmBytes = ("%PDF-1.4\n%receipt " + System.nanoTime() + "\n").getBytes(StandardCharsets.US_ASCII);
+        StoredUpload cold = fileStorageService.storeUpload(new MockMultipartFile("file", "cold.pdf", null, coldBytes));
+        StoredUpload warm = fileStorageService.storeUpload(new MockMultipartFile("file", "warm.pdf", null, warmBytes));
+        Path looseCold = contentStore.blobPath(cold.sha256());
+
+        Instant old = Instant.now().minus(Duration.ofDays(400));
+        jdbcTemplate.update("UPDATE file_blobs SET created_at = ? WHERE sha256 IN (?, ?)",
+                Timestamp.from(old), cold.sha256(), warm.sha256());
+        // Opening the warm file is a read, which keeps it out of the segment
+        fileStorageService.loadFileAsResource(warm.fileName());
+
+        PackReport report = packCompactor.compact(Instant.now().minus(Duration.ofDays(180)));
+        Assertions.assertTrue(report.packedBlobs() >= 1);
+
+        ContentAddressedStore.Location packed = fileStorageService.locateStoredFile(cold.fileName());
+        Assertions.assertNotNull(packed.packId());
+        Assertions.assertFalse(Files.exists(looseCold));
+        Assertions.assertNull(fileStorageService.locateStoredFile(warm.fileName()).packId());
+
+        Resource resource = fileStorageService.loadFileAsResource(cold.fileName());
+        try (InputStream in = resource.getInputStream()) {
+            Assertions.assertArrayEquals(coldBytes, in.readAllBytes());
+        }
+        Assertions.assertEquals(coldBytes.length, resource.contentLength());
+        Assertions.assertTrue(packCompactor.verify().corrupt().isEmpty());
+
+        // Flip one content byte on disk; the mapping sees it and the verification pass reports the blob
+        try (FileChannel segment = FileChannel.open(packed.file(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer original = ByteBuffer.allocate(1);
+            segment.read(original, packed.offset());
+            segment.write(ByteBuffer.wrap(new byte[]{(byte) ~original.get(0)}), packed.offset());
+            try {
+                Assertions.assertTrue(packCompactor.verify().corrupt().contains(cold.sha256()));
+            } finally {
+                segment.write(original.flip(), packed.offset());
+            }
+        }
+
+        contentStore.release(cold.fileName());
+        contentStore.release(warm.fileName());
+    }
+}
@@ -6,6 +6,7 @@ import com.smartentrance.backend.mapper.UnitMapper;
 import com.smartentrance.backend.model.Unit;
 import com.smartentrance.backend.model.User;
 import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.security.CodeLookupGuard;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +27,8 @@ class UnitServiceTest {
     @Mock UnitRepository unitRepository;
     @Mock UnitMapper unitMapper;
     @Mock FinanceService financeService;
+    @Mock CodeLookupGuard codeLookupGuard;
+    @Mock AccessCodeAllocator accessCodeAllocator;
 
     @InjectMocks UnitService unitService;
 
@@ -41,8 +44,10 @@ class UnitServiceTest {
     @Test
     void testJoinUnit_Success() {
         UnitJoinRequest req = new UnitJoinRequest("123456", 2, new BigDecimal("60.0"));
+        when(codeLookupGuard.mightBeAccessCode("123456")).thenReturn(true);
         when(unitRepository.findByAccessCode("123456")).thenReturn(Optional.of(unit));
         when(unitRepository.save(any(Unit.class))).thenAnswer(i -> i.getArgument(0));
+        when(accessCodeAllocator.allocate()).thenReturn("NEWCODE2");
         when(financeService.getBalance(10L)).thenReturn(BigDecimal.ZERO);
         when(unitMapper.toResidentResponse(any(), any(), anyBoolean()))
                 .thenReturn(new UnitResponse(10L, 1, new BigDecimal("60.0"), 2, "CODE", true, BigDecimal.ZERO, false, null, null));
@@ -0,0 +1,81 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.user.UserProfile;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock UserRepository userRepository;
+
+    @InjectMocks UserProfileCache userProfileCache;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().id(1L).firstName("Ivan").lastName("Petrov").email("ivan@test.com").role(UserRole.USER).build();
+    }
+
+    @Test
+    void getProfile_ShouldHitRepositoryOnlyOnce() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        UserProfile first = userProfileCache.getProfile(1L);
+        UserProfile second = userProfileCache.getProfile(1L);
+
+        Assertions.assertEquals("Ivan", first.firstName());
+        Assertions.assertSame(first, second);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void invalidate_ShouldReloadChangedProfile() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        userProfileCache.getProfile(1L);
+
+        user.setLastName("Ivanov");
+        userProfileCache.invalidate(1L);
+
+        Assertions.assertEquals("Ivanov", userProfileCache.getProfile(1L).lastName());
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void getProfile_ShouldNotKeepProfileReadBeforeConcurrentChange() {
+        User stale = User.builder().id(1L).firstName("Ivan").lastName("Petrov").email("ivan@test.com").role(UserRole.ADMIN).build();
+        // The reader gets the row as it was; while it is loading, the writer changes the role and commits
+        when(userRepository.findById(1L))
+                .thenAnswer(call -> {
+                    user.setRole(UserRole.USER);
+                    userProfileCache.invalidate(1L);
+                    return Optional.of(stale);
+                })
+                .thenReturn(Optional.of(user));
+
+        Assertions.assertEquals(UserRole.ADMIN, userProfileCache.getProfile(1L).role());
+        Assertions.assertEquals(UserRole.USER, userProfileCache.getProfile(1L).role());
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void getProfile_ShouldThrow_WhenUserMissing() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(EntityNotFoundException.class, () -> userProfileCache.getProfile(2L));
+    }
+}
@@ -0,0 +1,120 @@
+package com.smartentrance.backend.service;
+
+import com.smartentrance.backend.dto.poll.VoteCastRequest;
+import com.smartentrance.backend.model.Building;
+import com.smartentrance.backend.model.Unit;
+import com.smartentrance.backend.model.User;
+import com.smartentrance.backend.model.VotesOption;
+import com.smartentrance.backend.model.VotesPoll;
+import com.smartentrance.backend.model.enums.UserRole;
+import com.smartentrance.backend.repository.BuildingRepository;
+import com.smartentrance.backend.repository.UnitRepository;
+import com.smartentrance.backend.repository.UserRepository;
+import com.smartentrance.backend.repository.VotesOptionRepository;
+import com.smartentrance.backend.repository.VotesPollRepository;
+import com.smartentrance.backend.security.UserPrincipal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Votes per second on one hot poll: every unit of a building re-votes repeatedly from many threads.
+ * Run with {@code -Dbenchmark=true}; point {@code spring.datasource.*} at PostgreSQL to measure the upsert path.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VoteCastingBenchmarkTest {
+
+    private static final int UNITS = 200;
+    private static final int THREADS = 16;
+    private static final int VOTES_PER_THREAD = 500;
+
+    @Autowired PollService pollService;
+    @Autowired UserRepository userRepository;
+    @Autowired BuildingRepository buildingRepository;
+    @Autowired UnitRepository unitRepository;
+    @Autowired VotesPollRepository pollRepository;
+    @Autowired VotesOptionRepository optionRepository;
+
+    @Test
+    void castVote_HotPollThroughput() throws Exception {
+        long tag = System.nanoTime();
+        User manager = userRepository.save(User.builder().firstName("B").lastName("M").email("bench-" + tag + "@mail.com")
+                .hashedPassword("pass").role(UserRole.USER).build());
+        Building building = buildingRepository.save(Building.builder().name("Bench").address("Sofia")
+                .googlePlaceId("bench-" + tag).entrance("A").totalUnits(UNITS).manager(manager).build());
+
+        List<Unit> units = new ArrayList<>();
+        List<User> owners = new ArrayList<>();
+        for (int i = 1; i <= UNITS; i++) {
+            User owner = userRepository.save(User.builder().firstName("O").lastName(String.valueOf(i))
+                    .email("bench-" + tag + "-" + i + "@mail.com").hashedPassword("pass").role(UserRole.USER).build());
+            owners.add(owner);
+            units.add(Unit.builder().building(building).unitNumber(i).accessCode(Long.toString(tag + i, 36).substring(0, 8).toUpperCase())
+                    .responsibleUser(owner).residentsCount(1).area(BigDecimal.TEN).isVerified(true).build());
+        }
+        units = unitRepository.saveAll(units);
+
+        VotesPoll poll = new VotesPoll();
+        poll.setTitle("Bench");
+        poll.setDescription("Hot poll");
+        poll.setBuilding(building);
+        poll.setCreatedBy(manager);
+        poll.setStartAt(Instant.now().minus(1, ChronoUnit.HOURS));
+        poll.setEndAt(Instant.now().plus(1, ChronoUnit.HOURS));
+        for (String text : List.of("yes", "no", "abstain")) {
+            VotesOption option = new VotesOption();
+            option.setOptionText(text);
+            option.setPoll(poll);
+            poll.getOptions().add(option);
+        }
+        poll = pollRepository.save(poll);
+        List<Integer> optionIds = poll.getOptions().stream().map(VotesOption::getId).toList();
+        Integer pollId = poll.getId();
+
+        List<Unit> finalUnits = units;
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < VOTES_PER_THREAD; i++) {
+                    int u = random.nextInt(UNITS);
+                    User owner = owners.get(u);
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken(new UserPrincipal(owner), null, List.of()));
+                    pollService.castVote(pollId, new VoteCastRequest(optionIds.get(random.nextInt(optionIds.size())), finalUnits.get(u).getId()), owner);
+                }
+                SecurityContextHolder.clearContext();
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        long total = THREADS * (long) VOTES_PER_THREAD;
+        System.out.printf("castVote: %d votes in %.2fs = %.0f votes/s (%d threads, %d units)%n",
+                total, seconds, total / seconds, THREADS, UNITS);
+
+        long counted = optionRepository.findVoteCountsByPollId(pollId).stream().mapToLong(c -> c.voteCount()).sum();
+        Assertions.assertTrue(counted <= UNITS, "each unit holds at most one vote");
+    }
+}